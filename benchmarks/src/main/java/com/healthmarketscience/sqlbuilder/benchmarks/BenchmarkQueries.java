@@ -0,0 +1,221 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.healthmarketscience.sqlbuilder.ComboCondition;
+import com.healthmarketscience.sqlbuilder.CommonTableExpression;
+import com.healthmarketscience.sqlbuilder.Condition;
+import com.healthmarketscience.sqlbuilder.OrderObject;
+import com.healthmarketscience.sqlbuilder.Query;
+import com.healthmarketscience.sqlbuilder.SelectQuery;
+import com.healthmarketscience.sqlbuilder.SetOperationQuery;
+import com.healthmarketscience.sqlbuilder.UnionQuery;
+import com.healthmarketscience.sqlbuilder.dbspec.Column;
+import com.healthmarketscience.sqlbuilder.dbspec.basic.DbColumn;
+import com.healthmarketscience.sqlbuilder.dbspec.basic.DbSchema;
+import com.healthmarketscience.sqlbuilder.dbspec.basic.DbSpec;
+import com.healthmarketscience.sqlbuilder.dbspec.basic.DbTable;
+
+import static com.healthmarketscience.sqlbuilder.Conditions.*;
+
+/**
+ * Shared schema and query shapes used by the benchmarks.  Query shapes only
+ * use literal values so that they may be generated repeatedly (PlaceHolders
+ * may only be generated once).
+ *
+ * @author agent
+ */
+public class BenchmarkQueries
+{
+  public static final int NUM_TABLES = 51;
+  public static final int HUGE_IN_SIZE = 10000;
+  public static final int WIDE_JOIN_SIZE = 50;
+  public static final int DEEP_COMBO_DEPTH = 100;
+  public static final int UNION_SIZE = 20;
+
+  /** the available query shapes */
+  public enum Shape
+  {
+    SMALL {
+      @Override
+      public Query<?> create(BenchmarkQueries q) {
+        return q.createSmall();
+      }
+    },
+    MEDIUM {
+      @Override
+      public Query<?> create(BenchmarkQueries q) {
+        return q.createMedium();
+      }
+    },
+    HUGE_IN {
+      @Override
+      public Query<?> create(BenchmarkQueries q) {
+        return q.createHugeIn();
+      }
+    },
+    WIDE_JOIN {
+      @Override
+      public Query<?> create(BenchmarkQueries q) {
+        return q.createWideJoin();
+      }
+    },
+    IMPLICIT_JOIN {
+      @Override
+      public Query<?> create(BenchmarkQueries q) {
+        return q.createImplicitJoin();
+      }
+    },
+    DEEP_COMBO {
+      @Override
+      public Query<?> create(BenchmarkQueries q) {
+        return q.createDeepCombo();
+      }
+    },
+    CTE_UNION {
+      @Override
+      public Query<?> create(BenchmarkQueries q) {
+        return q.createCteUnion();
+      }
+    };
+
+    public abstract Query<?> create(BenchmarkQueries q);
+  }
+
+  private final DbSpec _spec;
+  private final DbSchema _schema;
+  private final List<DbTable> _tables = new ArrayList<DbTable>();
+
+  public BenchmarkQueries() {
+    _spec = new DbSpec();
+    _schema = _spec.addSchema("bench");
+    for(int i = 0; i < NUM_TABLES; ++i) {
+      DbTable table = _schema.addTable("table" + i);
+      table.addColumn("id", "NUMBER", null);
+      table.addColumn("parent_id", "NUMBER", null);
+      table.addColumn("name", "VARCHAR", 255);
+      table.addColumn("amount", "NUMBER", null);
+      table.addColumn("created", "DATE", null);
+      _tables.add(table);
+    }
+  }
+
+  public DbSpec getSpec() {
+    return _spec;
+  }
+
+  public DbTable getTable(int idx) {
+    return _tables.get(idx);
+  }
+
+  public DbColumn getColumn(int tableIdx, String name) {
+    return getTable(tableIdx).findColumn(name);
+  }
+
+  public SelectQuery createSmall() {
+    return new SelectQuery()
+      .addColumns(getColumn(0, "id"), getColumn(0, "name"),
+                  getColumn(0, "amount"))
+      .addCondition(equalTo(getColumn(0, "name"), "foo"))
+      .addOrdering(getColumn(0, "id"), OrderObject.Dir.ASCENDING);
+  }
+
+  public SelectQuery createMedium() {
+    SelectQuery query = new SelectQuery();
+    ComboCondition where = and();
+    for(int i = 0; i < 5; ++i) {
+      query.addColumns(getColumn(i, "name"), getColumn(i, "amount"));
+      if(i > 0) {
+        query.addJoin(SelectQuery.JoinType.INNER, getTable(i - 1),
+                      getTable(i), getColumn(i - 1, "id"),
+                      getColumn(i, "parent_id"));
+      }
+      where.addCondition(greaterThan(getColumn(i, "amount"), i * 100));
+      where.addCondition(isNotNull(getColumn(i, "created")));
+    }
+    return query.addCondition(where)
+      .addGroupings(getColumn(0, "name"))
+      .addOrdering(getColumn(0, "name"), OrderObject.Dir.DESCENDING);
+  }
+
+  public SelectQuery createHugeIn() {
+    List<Integer> values = new ArrayList<Integer>(HUGE_IN_SIZE);
+    for(int i = 0; i < HUGE_IN_SIZE; ++i) {
+      values.add(i);
+    }
+    return new SelectQuery()
+      .addColumns(getColumn(0, "id"), getColumn(0, "name"))
+      .addCondition(in(getColumn(0, "id"), values));
+  }
+
+  public SelectQuery createWideJoin() {
+    SelectQuery query = new SelectQuery();
+    for(int i = 1; i <= WIDE_JOIN_SIZE; ++i) {
+      query.addColumns(getColumn(i, "name"))
+        .addJoin(SelectQuery.JoinType.LEFT_OUTER, getTable(i - 1),
+                 getTable(i), getColumn(i - 1, "id"),
+                 getColumn(i, "parent_id"));
+    }
+    return query.addCondition(equalTo(getColumn(0, "id"), 42));
+  }
+
+  public SelectQuery createImplicitJoin() {
+    SelectQuery query = new SelectQuery();
+    ComboCondition where = and();
+    for(int i = 1; i <= WIDE_JOIN_SIZE; ++i) {
+      query.addColumns(getColumn(i, "name"));
+      where.addCondition(equalTo(getColumn(i - 1, "id"),
+                                 getColumn(i, "parent_id")));
+    }
+    return query.addCondition(where);
+  }
+
+  public SelectQuery createDeepCombo() {
+    Condition cond = equalTo(getColumn(0, "amount"), 0);
+    for(int i = 1; i <= DEEP_COMBO_DEPTH; ++i) {
+      Condition next = equalTo(getColumn(0, "amount"), i);
+      cond = (((i % 2) == 0) ? and(cond, next) : or(cond, next));
+    }
+    return new SelectQuery()
+      .addColumns(getColumn(0, "id"))
+      .addCondition(cond);
+  }
+
+  public SelectQuery createCteUnion() {
+    UnionQuery union = SetOperationQuery.unionAll();
+    for(int i = 0; i < UNION_SIZE; ++i) {
+      union.addQueries(
+          new SelectQuery()
+          .addColumns(getColumn(i, "id"), getColumn(i, "amount"))
+          .addCondition(lessThan(getColumn(i, "created"), "2020-01-01")));
+    }
+
+    CommonTableExpression cte = new CommonTableExpression("all_amounts");
+    Column idCol = cte.addColumn("id");
+    Column amountCol = cte.addColumn("amount");
+    cte.setQuery(union);
+
+    return new SelectQuery()
+      .addCommonTableExpression(cte)
+      .addColumns(idCol, amountCol)
+      .addCondition(greaterThan(amountCol, 1000))
+      .addOrdering(amountCol, OrderObject.Dir.DESCENDING);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package com.healthmarketscience.sqlbuilder.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.healthmarketscience.sqlbuilder.BooleanValueObject;
+import com.healthmarketscience.sqlbuilder.Converter;
+import com.healthmarketscience.sqlbuilder.ConverterRegistry;
+import com.healthmarketscience.sqlbuilder.CustomSql;
+import com.healthmarketscience.sqlbuilder.NumberValueObject;
+import com.healthmarketscience.sqlbuilder.SqlObject;
+import com.healthmarketscience.sqlbuilder.ValueObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link ConverterRegistry} based value conversion against the
+ * {@code instanceof} chain it replaced, for a mix of value types (as would
+ * be passed to a large IN condition or insert query).  Also measures the
+ * conversion of a type with a registered converter.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark
+{
+  private static final int NUM_VALUES = 1000;
+
+  private Object[] _values;
+  private UUID[] _uuids;
+  private ConverterRegistry _oldRegistry;
+
+  @Setup
+  public void setup() {
+    _values = new Object[NUM_VALUES];
+    _uuids = new UUID[NUM_VALUES];
+    for(int i = 0; i < NUM_VALUES; ++i) {
+      switch(i % 5) {
+      case 0:
+        _values[i] = "value" + i;
+        break;
+      case 1:
+        _values[i] = i;
+        break;
+      case 2:
+        _values[i] = (long)i;
+        break;
+      case 3:
+        _values[i] = ((i % 2) == 0);
+        break;
+      default:
+        _values[i] = new CustomSql("col" + i);
+      }
+      _uuids[i] = new UUID(i, i);
+    }
+
+    _oldRegistry = ConverterRegistry.getDefault();
+    ConverterRegistry.setDefault(new ConverterRegistry().register(
+        UUID.class, new Converter<UUID,SqlObject>() {
+          @Override
+          public SqlObject convert(UUID value) {
+            return new CustomSql("UUID '" + value + "'");
+          }
+        }));
+  }
+
+  @TearDown
+  public void tearDown() {
+    ConverterRegistry.setDefault(_oldRegistry);
+  }
+
+  @Benchmark
+  public void instanceofChain(Blackhole bh) {
+    for(Object value : _values) {
+      bh.consume(toValueSqlObjectChain(value));
+    }
+  }
+
+  @Benchmark
+  public void registry(Blackhole bh) {
+    for(Object value : _values) {
+      bh.consume(Converter.toValueSqlObject(value));
+    }
+  }
+
+  @Benchmark
+  public void registeredType(Blackhole bh) {
+    for(Object value : _uuids) {
+      bh.consume(Converter.toValueSqlObject(value));
+    }
+  }
+
+  /**
+   * The previous implementation of {@link Converter#toValueSqlObject}.
+   */
+  private static SqlObject toValueSqlObjectChain(Object obj) {
+    if(obj == null) {
+      return SqlObject.NULL_VALUE;
+    } else if(obj instanceof Boolean) {
+      return BooleanValueObject.valueOf((Boolean)obj);
+    } else if(obj instanceof Number) {
+      return new NumberValueObject((Number)obj);
+    } else if(obj instanceof SqlObject) {
+      return (SqlObject)obj;
+    }
+    return new ValueObject(obj);
+  }
+}
@@ -0,0 +1,114 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import com.healthmarketscience.sqlbuilder.QueryPreparer;
+import com.healthmarketscience.sqlbuilder.SelectQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.healthmarketscience.sqlbuilder.Conditions.*;
+
+/**
+ * Benchmarks {@link QueryPreparer.ListPlaceHolder} usage for IN conditions
+ * of various sizes.  {@link #bind} measures binding values to an already
+ * generated query, {@link #prepareAndBind} measures the full cycle of
+ * building, generating and binding a query (as PlaceHolders may only be
+ * generated once).  Values are bound to a no-op PreparedStatement.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreparerBenchmark
+{
+  @Param({"10", "1000", "10000"})
+  public int size;
+
+  private BenchmarkQueries _queries;
+  private long[] _values;
+  private QueryPreparer.ListPlaceHolder _listPH;
+  private PreparedStatement _ps;
+
+  @Setup
+  public void setup() {
+    _queries = new BenchmarkQueries();
+    _values = new long[size];
+    for(int i = 0; i < size; ++i) {
+      _values[i] = i;
+    }
+    _ps = createNoopPreparedStatement();
+
+    _listPH = new QueryPreparer().getNewListPlaceHolder();
+    _listPH.addPlaceHolders(size);
+    createQuery(_listPH).toString();
+  }
+
+  @Benchmark
+  public QueryPreparer.ListPlaceHolder bind() throws SQLException {
+    _listPH.setLongs(_ps, _values);
+    return _listPH;
+  }
+
+  @Benchmark
+  public String prepareAndBind() throws SQLException {
+    QueryPreparer.ListPlaceHolder listPH =
+      new QueryPreparer().getNewListPlaceHolder();
+    listPH.addPlaceHolders(size);
+    String sql = createQuery(listPH).toString();
+    listPH.setLongs(_ps, _values);
+    return sql;
+  }
+
+  private SelectQuery createQuery(QueryPreparer.ListPlaceHolder listPH) {
+    return new SelectQuery()
+      .addColumns(_queries.getColumn(0, "name"))
+      .addCondition(in(_queries.getColumn(0, "id"), listPH));
+  }
+
+  private static PreparedStatement createNoopPreparedStatement() {
+    return (PreparedStatement)Proxy.newProxyInstance(
+        PreparerBenchmark.class.getClassLoader(),
+        new Class<?>[]{PreparedStatement.class},
+        new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            return null;
+          }
+        });
+  }
+}
@@ -0,0 +1,77 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.healthmarketscience.sqlbuilder.Query;
+import com.healthmarketscience.sqlbuilder.SqlContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks SQL generation for each of the {@link BenchmarkQueries.Shape}s.
+ * The query trees are built once, so only the {@code appendTo} path
+ * (including the implicit "FROM" table collection) is measured.  The
+ * {@code renderParallel} benchmark generates lists of at least
+ * {@link #PARALLEL_LIST_THRESHOLD} objects in parallel (see
+ * {@link SqlContext#setParallelListThreshold}).
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark
+{
+  public static final int PARALLEL_LIST_THRESHOLD = 1000;
+
+  @Param
+  public BenchmarkQueries.Shape shape;
+
+  private Query<?> _query;
+  private SqlContext _parallelContext;
+
+  @Setup
+  public void setup() {
+    _query = shape.create(new BenchmarkQueries());
+    _parallelContext = new SqlContext();
+    _parallelContext.setParallelListThreshold(PARALLEL_LIST_THRESHOLD);
+  }
+
+  @Benchmark
+  public String render() {
+    return _query.toString();
+  }
+
+  @Benchmark
+  public String renderParallel() {
+    return _query.toString(256, _parallelContext);
+  }
+}
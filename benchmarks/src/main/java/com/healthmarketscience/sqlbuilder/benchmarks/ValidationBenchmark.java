@@ -0,0 +1,82 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.healthmarketscience.sqlbuilder.Query;
+import com.healthmarketscience.sqlbuilder.ValidationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks query validation (schema object collection followed by
+ * {@link ValidationContext#validateAll}) for each of the
+ * {@link BenchmarkQueries.Shape}s: a full validation, a full validation
+ * reusing a single ValidationContext, and {@link Query#validate()} of an
+ * unmodified query (which has already been validated).
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark
+{
+  @Param
+  public BenchmarkQueries.Shape shape;
+
+  private Query<?> _query;
+  private ValidationContext _vContext;
+
+  @Setup
+  public void setup() {
+    _query = shape.create(new BenchmarkQueries());
+    _query.validate();
+    _vContext = new ValidationContext();
+  }
+
+  @Benchmark
+  public ValidationContext validate() {
+    ValidationContext vContext = new ValidationContext();
+    vContext.validate(_query);
+    return vContext;
+  }
+
+  @Benchmark
+  public ValidationContext validateReused() {
+    _vContext.validate(_query);
+    return _vContext;
+  }
+
+  @Benchmark
+  public Query<?> validateUnmodified() {
+    return _query.validate();
+  }
+}
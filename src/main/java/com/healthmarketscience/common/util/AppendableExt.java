@@ -111,6 +111,11 @@ public class AppendableExt implements Appendable
    */
   private Object _context;
 
+  /**
+   * Idle SubRangeAppendable available for reuse, if any
+   */
+  private SubRangeAppendable _subRangeApp;
+
   /**
    * Initialize a new AppendableExt based on the given Appendable.
    *
@@ -178,13 +183,23 @@ public class AppendableExt implements Appendable
       // we want to allow the appendee to append directly, but we need to
       // restrict the range of output.  so, we will put a SubRangeAppendable
       // into place for this call which will filter out the unneeded
-      // characters while still allowing for direct appending
+      // characters while still allowing for direct appending.  the
+      // SubRangeAppendable is reused across calls (unless nested)
       Appendable oldApp = _app;
-      _app = new SubRangeAppendable(oldApp, start, end);
+      SubRangeAppendable subApp = _subRangeApp;
+      if(subApp != null) {
+        _subRangeApp = null;
+        subApp.reset(oldApp, start, end);
+      } else {
+        subApp = new SubRangeAppendable(oldApp, start, end);
+      }
+      _app = subApp;
       try {
         return this.append((Appendee)s);
       } finally {
         _app = oldApp;
+        subApp.reset(null, 0, 0);
+        _subRangeApp = subApp;
       }
     }
 
@@ -291,16 +306,21 @@ public class AppendableExt implements Appendable
    */
   private static class SubRangeAppendable implements Appendable
   {
-    private final Appendable _delegate;
-    private final int _start;
-    private final int _end;
+    private Appendable _delegate;
+    private int _start;
+    private int _end;
     private int _pos;
 
     private SubRangeAppendable(Appendable delegate,
                                int start, int end) {
+      reset(delegate, start, end);
+    }
+
+    private void reset(Appendable delegate, int start, int end) {
       _delegate = delegate;
       _start = start;
       _end = end;
+      _pos = 0;
     }
 
     @Override
@@ -53,6 +53,7 @@ public class AlterTableQuery extends Query<AlterTableQuery>
    */
   public AlterTableQuery setAction(Object action) {
     _action = Converter.toCustomSqlObject(action);
+    modified();
     return this;
   }
 
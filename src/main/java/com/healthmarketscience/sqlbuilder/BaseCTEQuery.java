@@ -39,6 +39,7 @@ public abstract class BaseCTEQuery<ThisType extends BaseCTEQuery<ThisType>>
 
   public ThisType setRecursive(boolean recursive) {
     _recursive = recursive;
+    modified();
     return getThisType();
   }
 
@@ -61,12 +62,30 @@ public abstract class BaseCTEQuery<ThisType extends BaseCTEQuery<ThisType>>
     return getThisType();
   }
 
+  /**
+   * Shares the common table expressions of the given query with this query.
+   */
+  void shareCommonTableExpressions(BaseCTEQuery<?> src) {
+    _recursive = src._recursive;
+    _ctes = src._ctes;
+    modified();
+  }
+
   @Override
   protected void collectSchemaObjects(ValidationContext vContext) {
     super.collectSchemaObjects(vContext);
     _ctes.collectSchemaObjects(vContext);
   }
 
+  /**
+   * @return the estimated length of the common table expressions prepended
+   *         to this query (see {@link #estimateLength})
+   */
+  protected long estimateCommonTableExpressionsLength() {
+    // "WITH RECURSIVE <ctes> "
+    return (_ctes.isEmpty() ? 0L : (_ctes.estimateLength() + 16L));
+  }
+
   @Override
   protected void prependTo(AppendableExt app) throws IOException {
     // we prepend the CTE outside the context of this query because the CTE is
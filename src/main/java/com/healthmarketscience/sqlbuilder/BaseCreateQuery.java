@@ -49,6 +49,7 @@ public abstract class BaseCreateQuery<ThisType extends BaseCreateQuery<ThisType>
    */
   public ThisType setCustomName(Object name) {
     _object = Converter.toCustomSqlObject(name);
+    modified();
     return getThisType();
   }
 
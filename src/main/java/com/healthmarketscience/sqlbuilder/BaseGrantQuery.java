@@ -98,6 +98,7 @@ public abstract class BaseGrantQuery<ThisType extends BaseGrantQuery<ThisType>>
    */
   public ThisType setCustomTarget(Object target) {
     _targetObj = Converter.toCustomSqlObject(target);
+    modified();
     return getThisType();
   }
   
@@ -37,6 +37,11 @@ abstract class BaseInsertQuery<ThisType extends BaseInsertQuery<ThisType>>
     _table = tableStr;
   }
 
+  /** @return the table into which the values are inserted */
+  SqlObject getTableObject() {
+    return _table;
+  }
+
   @Override
   protected void collectSchemaObjects(ValidationContext vContext) {
     super.collectSchemaObjects(vContext);
@@ -44,6 +49,16 @@ abstract class BaseInsertQuery<ThisType extends BaseInsertQuery<ThisType>>
     _columns.collectSchemaObjects(vContext);
   }
 
+  /**
+   * @return the estimated length of the prefix generated by
+   *         {@link #appendPrefixTo} (and any common table expressions)
+   */
+  protected long estimatePrefixLength() {
+    // "INSERT INTO <table> (<columns>) "
+    return (estimateCommonTableExpressionsLength() + 15L +
+            estimateLength(_table) + _columns.estimateLength());
+  }
+
   /**
    * Appends the prefix "INSERT INTO (&lt;columns&gt;)" to the given
    * AppendableExt.
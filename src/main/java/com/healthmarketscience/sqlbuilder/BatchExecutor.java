@@ -0,0 +1,286 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.healthmarketscience.sqlbuilder.QueryPreparer.PlaceHolder;
+import com.healthmarketscience.sqlbuilder.QueryPreparer.StaticPlaceHolder;
+
+
+/**
+ * Executes a prepared statement (typically an INSERT, UPDATE or DELETE) as a
+ * series of JDBC batches, one row object at a time.  The statement is a
+ * {@link CompiledQuery}, so the SQL is generated and the parameter indexes of
+ * the PlaceHolders are resolved exactly once, not per row.  Values are bound
+ * for each row by a {@link Function} per PlaceHolder and/or a custom
+ * {@link Binder}, and the values of any {@link StaticPlaceHolder}s are bound
+ * for every row.
+ * <p>
+ * The current batch is executed when it reaches the configured batch size,
+ * when the configured max batch delay has elapsed since the first row of the
+ * batch was added (checked as rows are added), and after the last row.
+ * <p>
+ * Example:
+ * <pre>
+ *   QueryPreparer prep = new QueryPreparer();
+ *   PlaceHolder idPH = prep.getNewPlaceHolder();
+ *   PlaceHolder namePH = prep.getNewPlaceHolder();
+ *   BatchExecutor&lt;Person&gt; exec = new BatchExecutor&lt;Person&gt;(
+ *       new InsertQuery(personTable)
+ *         .addColumn(idCol, idPH)
+ *         .addColumn(nameCol, namePH))
+ *     .addBinding(idPH, Person::getId)
+ *     .addBinding(namePH, Person::getName, Types.VARCHAR)
+ *     .setBatchSize(500);
+ *
+ *   List&lt;int[]&gt; updateCounts = exec.execute(conn, people);
+ * </pre>
+ * <p>
+ * A configured BatchExecutor may be used for multiple executions, but is
+ * not thread-safe.
+ *
+ * @author agent
+ */
+public class BatchExecutor<RowType>
+{
+  /** the default max number of rows per batch */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  /**
+   * Binds values from a row object to a PreparedStatement.
+   */
+  public interface Binder<RowType>
+  {
+    public void bind(PreparedStatement ps, RowType row) throws SQLException;
+  }
+
+  private final CompiledQuery _compiled;
+  private final List<Binding<RowType>> _bindings =
+    new ArrayList<Binding<RowType>>();
+  private final List<Binder<? super RowType>> _binders =
+    new ArrayList<Binder<? super RowType>>();
+  private int _batchSize = DEFAULT_BATCH_SIZE;
+  private long _maxBatchDelayNanos;
+
+  /**
+   * Compiles the given query.
+   */
+  public BatchExecutor(Query<?> query) {
+    this(CompiledQuery.compile(query));
+  }
+
+  public BatchExecutor(CompiledQuery compiled) {
+    _compiled = compiled;
+  }
+
+  /**
+   * @return the compiled query executed by this BatchExecutor
+   */
+  public CompiledQuery getCompiledQuery() {
+    return _compiled;
+  }
+
+  public int getBatchSize() {
+    return _batchSize;
+  }
+
+  /**
+   * Sets the max number of rows per batch.
+   */
+  public BatchExecutor<RowType> setBatchSize(int batchSize) {
+    if(batchSize < 1) {
+      throw new IllegalArgumentException("Invalid batch size " + batchSize);
+    }
+    _batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Sets the max time a batch may accumulate rows before it is executed,
+   * {@code <= 0} for no limit (the default).
+   */
+  public BatchExecutor<RowType> setMaxBatchDelay(long delay, TimeUnit unit) {
+    _maxBatchDelayNanos = ((delay > 0) ? unit.toNanos(delay) : 0L);
+    return this;
+  }
+
+  /**
+   * Binds the value returned by the given function for each row to all the
+   * positions of the given PlaceHolder using {@code setObject}.
+   */
+  public BatchExecutor<RowType> addBinding(
+      PlaceHolder ph, Function<? super RowType,?> valueFunc)
+  {
+    _bindings.add(new Binding<RowType>(getIndexes(ph), valueFunc, null));
+    return this;
+  }
+
+  /**
+   * Binds the value returned by the given function for each row to all the
+   * positions of the given PlaceHolder using {@code setObject} with the
+   * given sql type (or {@code setNull} for {@code null} values).
+   */
+  public BatchExecutor<RowType> addBinding(
+      PlaceHolder ph, Function<? super RowType,?> valueFunc, int sqlType)
+  {
+    _bindings.add(new Binding<RowType>(getIndexes(ph), valueFunc, sqlType));
+    return this;
+  }
+
+  /**
+   * Binds the value returned by the given function for each row to all the
+   * positions of the PlaceHolder with the given name (see
+   * {@link CompiledQuery#compile(Query,java.util.Map)}).
+   */
+  public BatchExecutor<RowType> addBinding(
+      String name, Function<? super RowType,?> valueFunc)
+  {
+    _bindings.add(new Binding<RowType>(_compiled.getIndexes(name), valueFunc,
+                                       null));
+    return this;
+  }
+
+  /**
+   * Adds a custom Binder which will be invoked for each row (after the
+   * PlaceHolder bindings).
+   */
+  public BatchExecutor<RowType> addBinder(Binder<? super RowType> binder) {
+    _binders.add(binder);
+    return this;
+  }
+
+  /**
+   * Prepares the compiled query using the given Connection and executes it
+   * for all the given rows.  The PreparedStatement is closed before
+   * returning.
+   *
+   * @return the update counts for each executed batch
+   */
+  public List<int[]> execute(Connection conn, Iterable<? extends RowType> rows)
+    throws SQLException
+  {
+    PreparedStatement ps = conn.prepareStatement(_compiled.getSql());
+    try {
+      return execute(ps, rows.iterator());
+    } finally {
+      ps.close();
+    }
+  }
+
+  /**
+   * Executes the given PreparedStatement (which must have been prepared with
+   * the SQL of the compiled query) for all the given rows.
+   *
+   * @return the update counts for each executed batch
+   */
+  public List<int[]> execute(PreparedStatement ps,
+                             Iterator<? extends RowType> rows)
+    throws SQLException
+  {
+    List<int[]> updateCounts = new ArrayList<int[]>();
+    int numRows = 0;
+    long batchStart = 0L;
+    while(rows.hasNext()) {
+      bindRow(ps, rows.next());
+      ps.addBatch();
+      ++numRows;
+
+      if(_maxBatchDelayNanos > 0L) {
+        long now = System.nanoTime();
+        if(numRows == 1) {
+          batchStart = now;
+        } else if((now - batchStart) >= _maxBatchDelayNanos) {
+          updateCounts.add(ps.executeBatch());
+          numRows = 0;
+          continue;
+        }
+      }
+
+      if(numRows >= _batchSize) {
+        updateCounts.add(ps.executeBatch());
+        numRows = 0;
+      }
+    }
+
+    if(numRows > 0) {
+      updateCounts.add(ps.executeBatch());
+    }
+    return updateCounts;
+  }
+
+  private void bindRow(PreparedStatement ps, RowType row)
+    throws SQLException
+  {
+    _compiled.setStaticValues(ps);
+    for(Binding<RowType> binding : _bindings) {
+      binding.bind(ps, row);
+    }
+    for(Binder<? super RowType> binder : _binders) {
+      binder.bind(ps, row);
+    }
+  }
+
+  private int[] getIndexes(PlaceHolder ph) {
+    int[] idxs = _compiled.getIndexes(ph);
+    if(idxs.length == 0) {
+      throw new IllegalArgumentException(
+          "PlaceHolder is not in the compiled query");
+    }
+    return idxs;
+  }
+
+  /**
+   * Binds the value extracted from a row to the resolved parameter indexes
+   * of a PlaceHolder.
+   */
+  private static final class Binding<RowType>
+  {
+    private final int[] _indexes;
+    private final Function<? super RowType,?> _valueFunc;
+    private final Integer _sqlType;
+
+    private Binding(int[] indexes, Function<? super RowType,?> valueFunc,
+                    Integer sqlType) {
+      _indexes = indexes;
+      _valueFunc = valueFunc;
+      _sqlType = sqlType;
+    }
+
+    private void bind(PreparedStatement ps, RowType row)
+      throws SQLException
+    {
+      Object value = _valueFunc.apply(row);
+      for(int idx : _indexes) {
+        if(_sqlType == null) {
+          ps.setObject(idx, value);
+        } else if(value != null) {
+          ps.setObject(idx, value, _sqlType);
+        } else {
+          ps.setNull(idx, _sqlType);
+        }
+      }
+    }
+  }
+}
@@ -131,6 +131,14 @@ public class ComboCondition extends Condition
     appendNestedClauses(app, _conditions);
   }
 
+  @Override
+  protected int estimateLength() {
+    // the conditions plus the wrapping parens
+    return (_conditions.isEmpty() ? 0 :
+            (int)Math.min(_conditions.estimateLength() + 2L,
+                          Integer.MAX_VALUE));
+  }
+
   
   /**
    * Convenience method for generating a ComboCondition for joining
@@ -0,0 +1,285 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.healthmarketscience.sqlbuilder.QueryPreparer.PlaceHolder;
+import com.healthmarketscience.sqlbuilder.QueryPreparer.StaticPlaceHolder;
+
+
+/**
+ * The result of generating the SQL for a query exactly once, along with the
+ * positions of all the {@link QueryPreparer.PlaceHolder}s in the generated
+ * SQL (as a {@link ParameterMap}).  A CompiledQuery can be used to prepare
+ * and bind a statement any number of times without touching the original
+ * query again.
+ * <p>
+ * Each occurrence of a PlaceHolder in the generated SQL is a "slot".  Slots
+ * are numbered from 0 in the order in which they appear in the SQL, and each
+ * slot maps to the 1-based PreparedStatement parameter index assigned to it.
+ * Values may be bound by slot, by PlaceHolder, or by a name given to a
+ * PlaceHolder at compile time.  Note that only PlaceHolders are tracked, any
+ * plain {@link SqlObject#QUESTION_MARK} objects in the query are not.
+ * <p>
+ * Compiling a query does not modify its PlaceHolders, so the same query may
+ * be compiled any number of times.  A CompiledQuery is immutable and may be
+ * shared across threads.
+ * <p>
+ * Example:
+ * <pre>
+ *   QueryPreparer prep = new QueryPreparer();
+ *   QueryPreparer.PlaceHolder idPH = prep.getNewPlaceHolder();
+ *   CompiledQuery compiled = CompiledQuery.compile(
+ *       new SelectQuery()
+ *         .addColumns(nameCol)
+ *         .addCondition(BinaryCondition.equalTo(idCol, idPH)),
+ *       Collections.singletonMap("id", idPH));
+ *
+ *   // ... later, on the hot path ...
+ *   PreparedStatement ps = conn.prepareStatement(compiled.getSql());
+ *   compiled.setObject("id", 42, ps);
+ * </pre>
+ *
+ * @author agent
+ */
+public class CompiledQuery
+{
+  /** initial size of the buffer used to generate the sql */
+  private static final int DEFAULT_SQL_SIZE = 256;
+
+  /** the generated sql */
+  private final String _sql;
+  /** the positions of the PlaceHolders in the generated sql */
+  private final ParameterMap _params;
+  /** all the parameter indexes for each named PlaceHolder */
+  private final Map<String,int[]> _namedIndexes;
+
+  private CompiledQuery(String sql, ParameterMap params,
+                        Map<String,? extends PlaceHolder> namedPlaceHolders)
+  {
+    _sql = sql;
+    _params = params;
+
+    Map<String,int[]> namedIndexes = Collections.emptyMap();
+    if((namedPlaceHolders != null) && !namedPlaceHolders.isEmpty()) {
+      namedIndexes = new HashMap<String,int[]>();
+      for(Map.Entry<String,? extends PlaceHolder> e :
+            namedPlaceHolders.entrySet()) {
+        int[] idxs = params.getIndexes(e.getValue());
+        if(idxs.length == 0) {
+          throw new IllegalArgumentException(
+              "PlaceHolder named " + e.getKey() + " is not in the query");
+        }
+        namedIndexes.put(e.getKey(), idxs);
+      }
+    }
+    _namedIndexes = namedIndexes;
+  }
+
+  /**
+   * Generates the SQL for the given query and captures the positions of all
+   * the PlaceHolders within it.
+   *
+   * @param query the query to compile
+   * @return the compiled query
+   */
+  public static CompiledQuery compile(Query<?> query) {
+    return compile(query, null);
+  }
+
+  /**
+   * Generates the SQL for the given query and captures the positions of all
+   * the PlaceHolders within it.
+   *
+   * @param query the query to compile
+   * @param namedPlaceHolders optional names for PlaceHolders in the query,
+   *                          which may be used for subsequently binding
+   *                          values by name
+   * @return the compiled query
+   * @throws IllegalArgumentException if the query contains a
+   *         StaticPlaceHolder which does not support binding by index (see
+   *         {@link StaticPlaceHolder#setValue(PreparedStatement,int)}), or if
+   *         any of the named PlaceHolders is not in the query
+   */
+  public static CompiledQuery compile(
+      Query<?> query, Map<String,? extends PlaceHolder> namedPlaceHolders)
+  {
+    ParameterMap params = new ParameterMap();
+    SqlContext context = new SqlContext();
+    context.setParameterMap(params);
+    String sql = query.toString(DEFAULT_SQL_SIZE, context);
+    params.checkStaticPlaceHolders();
+    params.setReadOnly();
+    return new CompiledQuery(sql, params, namedPlaceHolders);
+  }
+
+  /**
+   * @return the generated SQL
+   */
+  public String getSql() {
+    return _sql;
+  }
+
+  /**
+   * @return the positions of the PlaceHolders in the generated SQL.  The
+   *         returned map is {@link ParameterMap#isReadOnly read-only}, so it
+   *         may not be used for another SQL generation.
+   */
+  public ParameterMap getParameterMap() {
+    return _params;
+  }
+
+  /**
+   * @return the number of PlaceHolder slots in the generated SQL
+   */
+  public int getSlotCount() {
+    return _params.getSlotCount();
+  }
+
+  /**
+   * @param slot 0-based slot number
+   * @return the PlaceHolder which was written at the given slot
+   */
+  public PlaceHolder getPlaceHolder(int slot) {
+    return _params.getPlaceHolder(slot);
+  }
+
+  /**
+   * @param slot 0-based slot number
+   * @return the 1-based parameter index of the given slot
+   */
+  public int getIndex(int slot) {
+    return _params.getIndex(slot);
+  }
+
+  /**
+   * @return all the 1-based parameter indexes at which the given PlaceHolder
+   *         was written (empty if the PlaceHolder is not in the query)
+   */
+  public int[] getIndexes(PlaceHolder ph) {
+    return _params.getIndexes(ph);
+  }
+
+  /**
+   * @return all the 1-based parameter indexes at which the PlaceHolder with
+   *         the given name was written
+   * @throws IllegalArgumentException if no PlaceHolder was given the name
+   */
+  public int[] getIndexes(String name) {
+    return getNamedIndexes(name).clone();
+  }
+
+  private int[] getNamedIndexes(String name) {
+    int[] idxs = _namedIndexes.get(name);
+    if(idxs == null) {
+      throw new IllegalArgumentException("Unknown PlaceHolder name " + name);
+    }
+    return idxs;
+  }
+
+  /**
+   * Calls setObject on the given PreparedStatement with the given value for
+   * the position of the given slot.
+   */
+  public void setObject(int slot, Object value, PreparedStatement ps)
+    throws SQLException
+  {
+    ps.setObject(getIndex(slot), value);
+  }
+
+  /**
+   * Calls setObject on the given PreparedStatement with the given value and
+   * the given sql type for the position of the given slot.  If given value
+   * is <code>null</code>, calls setNull with the given sql type.
+   */
+  public void setObject(int slot, Object value, int sqlType,
+                        PreparedStatement ps)
+    throws SQLException
+  {
+    ParameterMap.setObjectAt(getIndex(slot), value, sqlType, ps);
+  }
+
+  /**
+   * Calls setObject on the given PreparedStatement with the given value for
+   * all the positions of the PlaceHolder with the given name.
+   * @throws IllegalArgumentException if no PlaceHolder was given the name
+   */
+  public void setObject(String name, Object value, PreparedStatement ps)
+    throws SQLException
+  {
+    for(int idx : getNamedIndexes(name)) {
+      ps.setObject(idx, value);
+    }
+  }
+
+  /**
+   * Calls setObject on the given PreparedStatement with the given value and
+   * the given sql type for all the positions of the PlaceHolder with the
+   * given name.  If given value is <code>null</code>, calls setNull with the
+   * given sql type.
+   * @throws IllegalArgumentException if no PlaceHolder was given the name
+   */
+  public void setObject(String name, Object value, int sqlType,
+                        PreparedStatement ps)
+    throws SQLException
+  {
+    for(int idx : getNamedIndexes(name)) {
+      ParameterMap.setObjectAt(idx, value, sqlType, ps);
+    }
+  }
+
+  /**
+   * Calls setObject on the given PreparedStatement with the given values for
+   * the positions of the slots, in slot order.
+   */
+  public void setObjects(PreparedStatement ps, Object... values)
+    throws SQLException
+  {
+    int numSlots = getSlotCount();
+    if(values.length != numSlots) {
+      throw new IllegalArgumentException(
+          "Expected " + numSlots + " values, given " + values.length);
+    }
+    for(int i = 0; i < values.length; ++i) {
+      ps.setObject(getIndex(i), values[i]);
+    }
+  }
+
+  /**
+   * Calls {@link StaticPlaceHolder#setValue(PreparedStatement,int)} for all
+   * the StaticPlaceHolders in the query with the given PreparedStatement.
+   */
+  public void setStaticValues(PreparedStatement ps)
+    throws SQLException
+  {
+    _params.setStaticValues(ps);
+  }
+
+  /**
+   * Returns the generated SQL.
+   */
+  @Override
+  public String toString() {
+    return _sql;
+  }
+
+}
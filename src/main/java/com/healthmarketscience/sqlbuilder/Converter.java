@@ -25,6 +25,11 @@ import com.healthmarketscience.sqlbuilder.dbspec.Table;
 
 /**
  * Class which encapsulates various object to SqlObject conversions.
+ * <p>
+ * The value conversions ({@link #toValueSqlObject(Object)} and
+ * {@link #toCustomSqlObject(Object)}, which most of the other conversions
+ * fall back to) may be customized for specific types by registering
+ * Converters with the {@link ConverterRegistry}.
  *
  * @author James Ahlborn
  */
@@ -285,6 +290,9 @@ public abstract class Converter<SrcType, DstType>
    * <li>{@link java.lang.Boolean} -&gt; {@link BooleanValueObject}</li>
    * <li>{@link java.lang.Number} -&gt; {@link NumberValueObject}</li>
    * <li>{@link SqlObject} -&gt; {@link SqlObject}</li>
+   * <li>{@link java.time.LocalDate}, {@link java.time.LocalTime},
+   *     {@link java.time.LocalDateTime}, {@link java.time.Instant},
+   *     {@link java.util.UUID}, {@code byte[]} -&gt; {@link TypedValueObject}</li>
    * <li>{@link java.lang.Object} -&gt; {@link ValueObject}</li>
    * </ul>
    *
@@ -308,6 +316,9 @@ public abstract class Converter<SrcType, DstType>
    * <li>{@link java.lang.Boolean} -&gt; {@link BooleanValueObject}</li>
    * <li>{@link java.lang.Number} -&gt; {@link NumberValueObject}</li>
    * <li>{@link SqlObject} -&gt; {@link SqlObject}</li>
+   * <li>{@link java.time.LocalDate}, {@link java.time.LocalTime},
+   *     {@link java.time.LocalDateTime}, {@link java.time.Instant},
+   *     {@link java.util.UUID}, {@code byte[]} -&gt; {@link TypedValueObject}</li>
    * <li>{@link java.lang.Object} -&gt; {@link ValueObject}</li>
    * </ul>
    * <p>
@@ -473,9 +484,14 @@ public abstract class Converter<SrcType, DstType>
    * Conversions (in order):
    * <ul>
    * <li>{@code null} -&gt; {@link SqlObject#NULL_VALUE}</li>
+   * <li>type registered with the {@link ConverterRegistry} -&gt; result of
+   *     the registered Converter</li>
    * <li>{@link java.lang.Boolean} -&gt; {@link BooleanValueObject}</li>
    * <li>{@link java.lang.Number} -&gt; {@link NumberValueObject}</li>
    * <li>{@link SqlObject} -&gt; {@link SqlObject}</li>
+   * <li>{@link java.time.LocalDate}, {@link java.time.LocalTime},
+   *     {@link java.time.LocalDateTime}, {@link java.time.Instant},
+   *     {@link java.util.UUID}, {@code byte[]} -&gt; {@link TypedValueObject}</li>
    * <li>{@link java.lang.Object} -&gt; {@link ValueObject}</li>
    * </ul>
    *
@@ -485,14 +501,8 @@ public abstract class Converter<SrcType, DstType>
   public static SqlObject toValueSqlObject(Object obj) {
     if(obj == null) {
       return SqlObject.NULL_VALUE;
-    } else if(obj instanceof Boolean) {
-      return BooleanValueObject.valueOf((Boolean)obj);
-    } else if(obj instanceof Number) {
-      return new NumberValueObject((Number)obj);
-    } else if(obj instanceof SqlObject) {
-      return (SqlObject)obj;
     }
-    return new ValueObject(obj);
+    return ConverterRegistry.getDefault().toValueSqlObject(obj);
   }
 
   /**
@@ -504,6 +514,9 @@ public abstract class Converter<SrcType, DstType>
    * <li>{@link java.lang.Boolean} -&gt; {@link BooleanValueObject}</li>
    * <li>{@link java.lang.Number} -&gt; {@link NumberValueObject}</li>
    * <li>{@link SqlObject} -&gt; {@link SqlObject}</li>
+   * <li>{@link java.time.LocalDate}, {@link java.time.LocalTime},
+   *     {@link java.time.LocalDateTime}, {@link java.time.Instant},
+   *     {@link java.util.UUID}, {@code byte[]} -&gt; {@link TypedValueObject}</li>
    * <li>{@link java.lang.Object} -&gt; {@link ValueObject}</li>
    * </ul>
    * <p>
@@ -524,6 +537,8 @@ public abstract class Converter<SrcType, DstType>
    * Conversions (in order):
    * <ul>
    * <li>{@code null} -&gt; {@link SqlObject#NULL_VALUE}</li>
+   * <li>type registered with the {@link ConverterRegistry} -&gt; result of
+   *     the registered Converter</li>
    * <li>{@link SqlObject} -&gt; {@link SqlObject}</li>
    * <li>{@link java.lang.Boolean} -&gt; {@link BooleanValueObject}</li>
    * <li>{@link java.lang.Number} -&gt; {@link NumberValueObject}</li>
@@ -534,19 +549,10 @@ public abstract class Converter<SrcType, DstType>
    * @return a SqlObject for the given Object.
    */
   public static SqlObject toCustomSqlObject(Object obj) {
-    SqlObject rtnObj;
     if(obj == null) {
-      rtnObj = SqlObject.NULL_VALUE;
-    } else if(obj instanceof SqlObject) {
-      rtnObj = (SqlObject)obj;
-    } else if(obj instanceof Boolean) {
-      return BooleanValueObject.valueOf((Boolean)obj);
-    } else if(obj instanceof Number) {
-      rtnObj = new NumberValueObject((Number)obj);
-    } else {
-      rtnObj = new CustomSql(obj);
+      return SqlObject.NULL_VALUE;
     }
-    return rtnObj;
+    return ConverterRegistry.getDefault().toCustomSqlObject(obj);
   }
 
   /**
@@ -0,0 +1,322 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Registry which maps the runtime type of a value to the conversion applied
+ * by {@link Converter#toValueSqlObject(Object)} and
+ * {@link Converter#toCustomSqlObject(Object)} (and therefore by all the
+ * conversions which fall back to one of those methods, e.g. the values
+ * passed to conditions, IN lists and insert queries).
+ * <p>
+ * The conversion for each runtime type is determined once (using a
+ * ClassValue) instead of by a chain of {@code instanceof} checks for every
+ * converted value.  Custom converters may be registered for domain types
+ * (e.g. UUID, java.time types or enums).  The converter registered for the
+ * most specific type applies: superclasses are checked before interfaces,
+ * and a converter registered for a class applies to all of its subclasses
+ * (so a converter registered for {@code Enum.class} applies to all enums).
+ * Types without a registered converter are handled as documented on the
+ * Converter methods.
+ * <p>
+ * The built-in conversions for SqlObjects, Booleans, Numbers and the
+ * {@link TypedValueObject#isSupported typed value} types take precedence
+ * over converters registered for broader types, so a converter registered
+ * for e.g. {@code Object.class} or {@code Comparable.class} does not apply
+ * to those values.  A converter only overrides a built-in conversion if it
+ * is registered for the built-in type or one of its subtypes (e.g.
+ * {@code BigDecimal.class}).  Registration is thread-safe, but is expected to be
+ * done up front (each registration discards the cached lookups).
+ *
+ * @author agent
+ */
+public class ConverterRegistry
+{
+  /** the registry used by the Converter methods */
+  private static volatile ConverterRegistry _default = new ConverterRegistry();
+
+  private final Map<Class<?>,Converter<Object,? extends SqlObject>>
+    _converters =
+    new ConcurrentHashMap<Class<?>,Converter<Object,? extends SqlObject>>();
+  /** the lookup for the current registrations, replaced on registration */
+  private volatile ClassValue<Conversion> _conversions = newConversions();
+
+  public ConverterRegistry() {}
+
+  /**
+   * @return the registry used by all Converter methods
+   */
+  public static ConverterRegistry getDefault() {
+    return _default;
+  }
+
+  /**
+   * Sets the registry used by all Converter methods.
+   */
+  public static void setDefault(ConverterRegistry registry) {
+    if(registry == null) {
+      throw new IllegalArgumentException("registry was null");
+    }
+    _default = registry;
+  }
+
+  /**
+   * Registers the converter which will convert values of the given type (and
+   * its subtypes, unless a more specific type is registered).  Replaces any
+   * converter previously registered for the given type.
+   *
+   * @param type the type of value converted
+   * @param converter converter for the given type, never passed
+   *                  {@code null}
+   * @return this registry
+   */
+  @SuppressWarnings("unchecked")
+  public <T> ConverterRegistry register(
+      Class<T> type, Converter<? super T, ? extends SqlObject> converter)
+  {
+    if((type == null) || (converter == null)) {
+      throw new IllegalArgumentException("type and converter are required");
+    }
+    _converters.put(type, (Converter<Object,? extends SqlObject>)converter);
+    _conversions = newConversions();
+    return this;
+  }
+
+  /**
+   * Removes the converter registered for the given type, if any.
+   *
+   * @param type the type of value converted
+   * @return this registry
+   */
+  public ConverterRegistry unregister(Class<?> type) {
+    if(_converters.remove(type) != null) {
+      _conversions = newConversions();
+    }
+    return this;
+  }
+
+  /**
+   * @param type the type of value converted
+   * @return the converter which applies to values of the given type, or
+   *         {@code null} if none is registered
+   */
+  public Converter<Object,? extends SqlObject> getConverter(Class<?> type) {
+    return _conversions.get(type).getConverter();
+  }
+
+  /**
+   * Implementation of {@link Converter#toValueSqlObject(Object)} for non-null
+   * values.
+   */
+  SqlObject toValueSqlObject(Object obj) {
+    return _conversions.get(obj.getClass()).toValue(obj);
+  }
+
+  /**
+   * Implementation of {@link Converter#toCustomSqlObject(Object)} for
+   * non-null values.
+   */
+  SqlObject toCustomSqlObject(Object obj) {
+    return _conversions.get(obj.getClass()).toCustom(obj);
+  }
+
+  private ClassValue<Conversion> newConversions() {
+    return new ClassValue<Conversion>() {
+      @Override
+      protected Conversion computeValue(Class<?> type) {
+        Class<?> builtInType = null;
+        Conversion conversion = Conversion.OTHER;
+        if(SqlObject.class.isAssignableFrom(type)) {
+          builtInType = SqlObject.class;
+          conversion = Conversion.SQL_OBJECT;
+        } else if(Boolean.class.isAssignableFrom(type)) {
+          builtInType = Boolean.class;
+          conversion = Conversion.BOOLEAN;
+        } else if(Number.class.isAssignableFrom(type)) {
+          builtInType = Number.class;
+          conversion = Conversion.NUMBER;
+        } else if(TypedValueObject.isSupported(type)) {
+          builtInType = type;
+          conversion = Conversion.TYPED_VALUE;
+        }
+
+        Converter<Object,? extends SqlObject> converter =
+          findConverter(type, builtInType);
+        if(converter != null) {
+          return new RegisteredConversion(converter);
+        }
+        return conversion;
+      }
+    };
+  }
+
+  /**
+   * @param type the type of value converted
+   * @param builtInType the type handled by the built-in conversion which
+   *                    applies to the given type, if any.  Only converters
+   *                    registered for this type (or its subtypes) are
+   *                    considered.
+   * @return the most specific registered converter for the given type, or
+   *         {@code null} if none applies
+   */
+  private Converter<Object,? extends SqlObject> findConverter(
+      Class<?> type, Class<?> builtInType)
+  {
+    if(_converters.isEmpty()) {
+      return null;
+    }
+
+    // superclasses first, then interfaces (breadth first)
+    Deque<Class<?>> ifaces = new ArrayDeque<Class<?>>();
+    for(Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+      if((builtInType != null) && !builtInType.isAssignableFrom(cls)) {
+        // any further classes are broader than the built-in type
+        break;
+      }
+      Converter<Object,? extends SqlObject> converter = _converters.get(cls);
+      if(converter != null) {
+        return converter;
+      }
+      for(Class<?> iface : cls.getInterfaces()) {
+        ifaces.add(iface);
+      }
+    }
+
+    Set<Class<?>> seen = new HashSet<Class<?>>();
+    while(!ifaces.isEmpty()) {
+      Class<?> iface = ifaces.remove();
+      if(!seen.add(iface) ||
+         ((builtInType != null) && !builtInType.isAssignableFrom(iface))) {
+        continue;
+      }
+      Converter<Object,? extends SqlObject> converter = _converters.get(iface);
+      if(converter != null) {
+        return converter;
+      }
+      for(Class<?> superIface : iface.getInterfaces()) {
+        ifaces.add(superIface);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The conversion applied to a given runtime type.
+   */
+  private static abstract class Conversion
+  {
+    private static final Conversion SQL_OBJECT = new Conversion() {
+      @Override
+      public SqlObject toValue(Object obj) {
+        return (SqlObject)obj;
+      }
+      @Override
+      public SqlObject toCustom(Object obj) {
+        return (SqlObject)obj;
+      }
+    };
+
+    private static final Conversion BOOLEAN = new Conversion() {
+      @Override
+      public SqlObject toValue(Object obj) {
+        return BooleanValueObject.valueOf((Boolean)obj);
+      }
+      @Override
+      public SqlObject toCustom(Object obj) {
+        return BooleanValueObject.valueOf((Boolean)obj);
+      }
+    };
+
+    private static final Conversion NUMBER = new Conversion() {
+      @Override
+      public SqlObject toValue(Object obj) {
+        return new NumberValueObject((Number)obj);
+      }
+      @Override
+      public SqlObject toCustom(Object obj) {
+        return new NumberValueObject((Number)obj);
+      }
+    };
+
+    private static final Conversion TYPED_VALUE = new Conversion() {
+      @Override
+      public SqlObject toValue(Object obj) {
+        return new TypedValueObject(obj);
+      }
+      @Override
+      public SqlObject toCustom(Object obj) {
+        return new CustomSql(obj);
+      }
+    };
+
+    private static final Conversion OTHER = new Conversion() {
+      @Override
+      public SqlObject toValue(Object obj) {
+        return new ValueObject(obj);
+      }
+      @Override
+      public SqlObject toCustom(Object obj) {
+        return new CustomSql(obj);
+      }
+    };
+
+    public abstract SqlObject toValue(Object obj);
+
+    public abstract SqlObject toCustom(Object obj);
+
+    public Converter<Object,? extends SqlObject> getConverter() {
+      return null;
+    }
+  }
+
+  /**
+   * Conversion using a registered Converter.
+   */
+  private static final class RegisteredConversion extends Conversion
+  {
+    private final Converter<Object,? extends SqlObject> _converter;
+
+    private RegisteredConversion(Converter<Object,? extends SqlObject> converter)
+    {
+      _converter = converter;
+    }
+
+    @Override
+    public SqlObject toValue(Object obj) {
+      return _converter.convert(obj);
+    }
+
+    @Override
+    public SqlObject toCustom(Object obj) {
+      return _converter.convert(obj);
+    }
+
+    @Override
+    public Converter<Object,? extends SqlObject> getConverter() {
+      return _converter;
+    }
+  }
+}
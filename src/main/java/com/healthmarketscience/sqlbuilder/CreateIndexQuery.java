@@ -101,6 +101,7 @@ public class CreateIndexQuery extends BaseCreateQuery<CreateIndexQuery>
    */
   public CreateIndexQuery setIndexType(IndexType indexType) {
     _indexType = indexType;
+    modified();
     return this;
   }
 
@@ -119,6 +120,7 @@ public class CreateIndexQuery extends BaseCreateQuery<CreateIndexQuery>
    */
   public CreateIndexQuery setCustomTableName(Object name) {
     _table = Converter.toCustomTableSqlObject(name);
+    modified();
     return this;
   }
 
@@ -141,6 +141,7 @@ public class CreateTableQuery extends BaseCreateQuery<CreateTableQuery>
    */
   public CreateTableQuery setTableType(TableType tableType) {
     _tableType = tableType;
+    modified();
     return this;
   }
 
@@ -71,6 +71,7 @@ public class CreateViewQuery extends BaseCreateQuery<CreateViewQuery>
   /** Sets the SELECT query which will generate the data in the view */
   public CreateViewQuery setSelectQuery(SelectQuery selectQuery) {
     _selectQuery = selectQuery;
+    modified();
     return this;
   }
 
@@ -80,6 +81,7 @@ public class CreateViewQuery extends BaseCreateQuery<CreateViewQuery>
    */
   public CreateViewQuery setWithCheckOption(boolean withCheckOption) {
     _withCheckOption = withCheckOption;
+    modified();
     return this;
   }
 
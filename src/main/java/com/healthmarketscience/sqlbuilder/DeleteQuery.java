@@ -74,6 +74,17 @@ public class DeleteQuery extends BaseCTEQuery<DeleteQuery>
     _condition.collectSchemaObjects(vContext);
   }
 
+  @Override
+  protected int estimateLength() {
+    // "DELETE FROM <table> WHERE <condition>"
+    long len = estimateCommonTableExpressionsLength() + 12L +
+      estimateLength(_table);
+    if(!_condition.isEmpty()) {
+      len += 7L + _condition.estimateLength();
+    }
+    return (int)Math.min(len, Integer.MAX_VALUE);
+  }
+
   @Override
   protected void appendTo(AppendableExt app, SqlContext newContext)
     throws IOException
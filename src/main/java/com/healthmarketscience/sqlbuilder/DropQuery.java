@@ -83,6 +83,7 @@ public class DropQuery extends Query<DropQuery>
   /** Sets the behavior for the drop query */
   public DropQuery setBehavior(Behavior newBehavior) {
     _behavior = newBehavior;
+    modified();
     return this;
   }
 
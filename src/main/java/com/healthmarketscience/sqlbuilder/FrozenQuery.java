@@ -0,0 +1,105 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.io.IOException;
+
+import com.healthmarketscience.common.util.AppendableExt;
+
+
+/**
+ * Immutable snapshot of a query, created by {@link Query#freeze}.  The SQL
+ * of the query is generated exactly once, when the snapshot is created, and
+ * the positions of any {@link QueryPreparer.PlaceHolder}s are recorded in
+ * the snapshot's {@link CompiledQuery} (instead of being read back from the
+ * PlaceHolders).  The snapshot does not reference the original query tree,
+ * so subsequent changes to that tree do not affect it.
+ * <p>
+ * Generating the SQL of a FrozenQuery has no side effects, so a FrozenQuery
+ * may be built once (e.g. at startup) and then shared and used concurrently
+ * by any number of threads.  A FrozenQuery is a SqlObject, so it may also be
+ * written wherever a statement is expected (e.g. to a
+ * {@link SqlScriptWriter}).  The recorded parameter indexes are relative to
+ * the frozen query itself, so a FrozenQuery with PlaceHolders which is
+ * generated within another query must be generated with a
+ * {@link ParameterMap} (in which case its PlaceHolders are recorded in that
+ * map).
+ *
+ * @author agent
+ */
+public final class FrozenQuery extends SqlObject
+{
+  private final CompiledQuery _compiled;
+
+  FrozenQuery(CompiledQuery compiled) {
+    _compiled = compiled;
+  }
+
+  /**
+   * @return the generated SQL
+   */
+  public String getSql() {
+    return _compiled.getSql();
+  }
+
+  /**
+   * @return the compiled form of this query, which may be used to bind
+   *         values for the PlaceHolders in this query
+   */
+  public CompiledQuery getCompiledQuery() {
+    return _compiled;
+  }
+
+  @Override
+  protected int estimateLength() {
+    return getSql().length();
+  }
+
+  @Override
+  protected void collectSchemaObjects(ValidationContext vContext) {
+    // the original query is no longer referenced
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException if this query has PlaceHolders and is
+   *         generated within another query without a ParameterMap (since the
+   *         positions of the PlaceHolders cannot be recorded)
+   */
+  @Override
+  public void appendTo(AppendableExt app) throws IOException {
+    ParameterMap params = ParameterMap.getParameterMap(app);
+    if(params != null) {
+      params.addSlots(_compiled.getParameterMap());
+    } else if((_compiled.getSlotCount() > 0) &&
+              (SqlContext.getContext(app).getQuery() != null)) {
+      throw new IllegalStateException(
+          "FrozenQuery with PlaceHolders must be generated within another " +
+          "query using a ParameterMap");
+    }
+    app.append(getSql());
+  }
+
+  /**
+   * Returns the generated SQL.
+   */
+  @Override
+  public String toString() {
+    return getSql();
+  }
+}
@@ -36,6 +36,7 @@ public class GrantQuery extends BaseGrantQuery<GrantQuery>
       others */
   public GrantQuery setAllowGranteeToGrant(boolean newAllowGranteeToGrant) {
     _allowGranteeToGrant = newAllowGranteeToGrant;
+    modified();
     return this;
   }
   
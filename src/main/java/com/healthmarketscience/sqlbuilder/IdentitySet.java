@@ -0,0 +1,249 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set which compares elements by identity (like an IdentityHashMap) and
+ * iterates in insertion order (like a LinkedHashSet).  Small sets are
+ * simply scanned, larger sets are indexed using an open addressed hash table
+ * with linear probing.  Used by the {@link ValidationContext} to collect
+ * schema objects, so that validation of large queries does not depend on the
+ * equals/hashCode implementations of (possibly user supplied) Table and
+ * Column objects.
+ * <p>
+ * Clearing the set retains the allocated storage, so a set may be cheaply
+ * reused.  Not thread-safe.
+ *
+ * @author agent
+ */
+class IdentitySet<E> extends AbstractSet<E>
+{
+  /** sets at most this large are simply scanned */
+  private static final int MAX_SCANNED_SIZE = 8;
+  private static final int INITIAL_CAPACITY = 4;
+  /** placeholder for elements removed during a bulk removal */
+  private static final Object REMOVED = new Object();
+
+  /** the elements of this set, in insertion order */
+  private Object[] _elems;
+  private int _size;
+  /** hash table of (element position + 1), 0 for an empty slot.
+      {@code null} while the set is small */
+  private int[] _index;
+  private int _modCount;
+
+  IdentitySet() {
+    this(INITIAL_CAPACITY);
+  }
+
+  IdentitySet(int initialCapacity) {
+    _elems = new Object[Math.max(initialCapacity, INITIAL_CAPACITY)];
+  }
+
+  @Override
+  public int size() {
+    return _size;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return (indexOf(o) >= 0);
+  }
+
+  @Override
+  public boolean add(E e) {
+    if(indexOf(e) >= 0) {
+      return false;
+    }
+    if(_size == _elems.length) {
+      _elems = Arrays.copyOf(_elems, _size * 2);
+    }
+    _elems[_size++] = e;
+    ++_modCount;
+    if(_index != null) {
+      if((_size * 2) > _index.length) {
+        rebuildIndex();
+      } else {
+        addToIndex(_index, e, _size);
+      }
+    } else if(_size > MAX_SCANNED_SIZE) {
+      rebuildIndex();
+    }
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    int pos = indexOf(o);
+    if(pos < 0) {
+      return false;
+    }
+    System.arraycopy(_elems, pos + 1, _elems, pos, _size - pos - 1);
+    _elems[--_size] = null;
+    ++_modCount;
+    if(_index != null) {
+      rebuildIndex();
+    }
+    return true;
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    // mark all the removed elements and compact once (instead of shifting
+    // and re-indexing for each removed element)
+    boolean modified = false;
+    for(Object o : c) {
+      int pos = indexOf(o);
+      if(pos >= 0) {
+        _elems[pos] = REMOVED;
+        modified = true;
+      }
+    }
+    if(modified) {
+      int newSize = 0;
+      for(int i = 0; i < _size; ++i) {
+        Object e = _elems[i];
+        if(e != REMOVED) {
+          _elems[newSize++] = e;
+        }
+      }
+      Arrays.fill(_elems, newSize, _size, null);
+      _size = newSize;
+      ++_modCount;
+      if(_index != null) {
+        rebuildIndex();
+      }
+    }
+    return modified;
+  }
+
+  @Override
+  public void clear() {
+    if(_size > 0) {
+      Arrays.fill(_elems, 0, _size, null);
+      _size = 0;
+      ++_modCount;
+    }
+    if(_index != null) {
+      Arrays.fill(_index, 0);
+    }
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private int _next;
+      private int _last = -1;
+      private int _expectedModCount = _modCount;
+
+      @Override
+      public boolean hasNext() {
+        return (_next < _size);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public E next() {
+        checkModCount();
+        if(_next >= _size) {
+          throw new NoSuchElementException();
+        }
+        _last = _next++;
+        return (E)_elems[_last];
+      }
+
+      @Override
+      public void remove() {
+        checkModCount();
+        if(_last < 0) {
+          throw new IllegalStateException();
+        }
+        IdentitySet.this.remove(_elems[_last]);
+        _next = _last;
+        _last = -1;
+        _expectedModCount = _modCount;
+      }
+
+      private void checkModCount() {
+        if(_expectedModCount != _modCount) {
+          throw new ConcurrentModificationException();
+        }
+      }
+    };
+  }
+
+  /**
+   * @return the position of the given object in the elements array, -1 if
+   *         not found
+   */
+  private int indexOf(Object o) {
+    int[] index = _index;
+    if(index == null) {
+      for(int i = 0; i < _size; ++i) {
+        if(_elems[i] == o) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    int mask = index.length - 1;
+    for(int slot = hash(o) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+      int pos = index[slot] - 1;
+      if(_elems[pos] == o) {
+        return pos;
+      }
+    }
+    return -1;
+  }
+
+  private void rebuildIndex() {
+    int capacity = ((_index != null) ? _index.length : 16);
+    while(capacity < (_size * 2)) {
+      capacity <<= 1;
+    }
+    if((_index == null) || (_index.length != capacity)) {
+      _index = new int[capacity];
+    } else {
+      Arrays.fill(_index, 0);
+    }
+    for(int i = 0; i < _size; ++i) {
+      addToIndex(_index, _elems[i], i + 1);
+    }
+  }
+
+  private static void addToIndex(int[] index, Object o, int posPlusOne) {
+    int mask = index.length - 1;
+    int slot = hash(o) & mask;
+    while(index[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    index[slot] = posPlusOne;
+  }
+
+  private static int hash(Object o) {
+    int h = System.identityHashCode(o);
+    return (h ^ (h >>> 16));
+  }
+}
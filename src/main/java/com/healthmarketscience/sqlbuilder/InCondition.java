@@ -27,14 +27,32 @@ import com.healthmarketscience.common.util.AppendableExt;
 /**
  * Outputs an "IN" condition
  * <code>"(&lt;column&gt; [NOT] IN (&lt;rightObj1&gt;, &lt;rightObj2&gt;, ...) )"</code>
+ * <p>
+ * Very large lists of values can be generated differently by setting a
+ * {@link Strategy} on the condition or (as the default for all conditions
+ * in a query) on the {@link SqlContext}, e.g. {@link #chunkedStrategy},
+ * {@link #valuesListStrategy} or
+ * {@link com.healthmarketscience.sqlbuilder.custom.postgresql.PgAnyArrayStrategy}.
  * 
  * @author Eric Bernstein
  */
 public class InCondition extends Condition {
 
+  /** the standard strategy which generates all the values in a single
+      list */
+  public static final Strategy DEFAULT_STRATEGY = new Strategy() {
+    @Override
+    protected void appendTo(InCondition cond, AppendableExt app)
+      throws IOException
+    {
+      appendDefaultTo(cond, app);
+    }
+  };
+
   private boolean _negate;
   private SqlObject _leftValue;
   private SqlObjectList<SqlObject> _rightValues = SqlObjectList.create();
+  private Strategy _strategy;
 
   /**
    * Column {@code Object} -&gt; {@code SqlObject} conversions handled by
@@ -87,6 +105,30 @@ public class InCondition extends Condition {
     return this;
   }
 
+  /** @return whether or not the in condition is negated */
+  public boolean isNegate() {
+    return _negate;
+  }
+
+  /**
+   * Sets the strategy used to generate this condition, overriding any
+   * default strategy set on the SqlContext.
+   */
+  public InCondition setStrategy(Strategy strategy) {
+    _strategy = strategy;
+    return this;
+  }
+
+  /** @return the value being tested */
+  public SqlObject getLeftValue() {
+    return _leftValue;
+  }
+
+  /** @return the values against which the left value is tested */
+  public SqlObjectList<SqlObject> getRightValues() {
+    return _rightValues;
+  }
+
   @Override
   public boolean isEmpty() {
     // if the condition is negated and the list is empty, this is essentially
@@ -121,19 +163,178 @@ public class InCondition extends Condition {
   @Override
   public void appendTo(AppendableExt app) throws IOException {
     if(!isEmpty()) {
-      // (x in (y1,y2,y3) )
-      openParen(app);
-      app.append(_leftValue)
-        .append(_negate ? " NOT IN " : " IN ");
-
-      // expressions will have their own "()"
-      if(isSingleExpression()) {
-        app.append(_rightValues);
-      } else {
-        app.append("(").append(_rightValues).append(")");
+      Strategy strategy = _strategy;
+      if(strategy == null) {
+        SqlContext context = (SqlContext)app.getContext();
+        if(context != null) {
+          strategy = context.getInConditionStrategy();
+        }
+      }
+      if((strategy == null) || isSingleExpression()) {
+        strategy = DEFAULT_STRATEGY;
+      }
+      strategy.appendTo(this, app);
+    }
+  }
+
+  /**
+   * Appends the "IN" list for the given range of the right values
+   * <code>"&lt;column&gt; [NOT] IN (&lt;rightObj1&gt;, ...)"</code>.
+   */
+  private void appendInList(AppendableExt app, int start, int end)
+    throws IOException
+  {
+    app.append(_leftValue)
+      .append(_negate ? " NOT IN " : " IN ");
+
+    // expressions will have their own "()"
+    if(isSingleExpression()) {
+      app.append(_rightValues);
+    } else if((start == 0) && (end == _rightValues.size())) {
+      app.append("(").append(_rightValues).append(")");
+    } else {
+      app.append("(");
+      appendValues(app, start, end, _rightValues.getDelimiter(), "", "");
+      app.append(")");
+    }
+  }
+
+  /**
+   * Appends the given range of the right values using the given delimiter,
+   * prefix and suffix.
+   */
+  private void appendValues(AppendableExt app, int start, int end,
+                            String delimiter, String prefix, String suffix)
+    throws IOException
+  {
+    for(int i = start; i < end; ++i) {
+      if(i > start) {
+        app.append(delimiter);
+      }
+      app.append(prefix).append(_rightValues.get(i)).append(suffix);
+    }
+  }
+
+  /**
+   * Returns a strategy which generates lists with more than the given number
+   * of values as multiple "IN" lists of at most that many values,
+   * {@code "(x IN (a,b) OR x IN (c,d) )"} (or
+   * {@code "(x NOT IN (a,b) AND x NOT IN (c,d) )"} if negated).  Useful for
+   * databases which limit the number of values in an "IN" list (e.g. 1000
+   * for Oracle).
+   *
+   * @param maxListSize the max number of values in each "IN" list
+   */
+  public static Strategy chunkedStrategy(final int maxListSize) {
+    if(maxListSize < 1) {
+      throw new IllegalArgumentException("Invalid max size " + maxListSize);
+    }
+    return new Strategy() {
+      @Override
+      protected void appendTo(InCondition cond, AppendableExt app)
+        throws IOException
+      {
+        int numValues = cond._rightValues.size();
+        if(numValues <= maxListSize) {
+          appendDefaultTo(cond, app);
+          return;
+        }
+
+        String op = (cond._negate ? " AND " : " OR ");
+        cond.openParen(app);
+        for(int start = 0; start < numValues; start += maxListSize) {
+          if(start > 0) {
+            app.append(op);
+          }
+          cond.appendInList(app, start,
+                            Math.min(start + maxListSize, numValues));
+        }
+        cond.closeParen(app);
       }
+    };
+  }
+
+  /**
+   * Returns a strategy which generates lists with more than the given number
+   * of values as a VALUES list (derived table),
+   * {@code "(x IN (VALUES (a),(b),(c)) )"}.  This form is supported by
+   * PostgreSQL (where it often plans better than a huge "IN" list), DB2,
+   * H2 and HSQLDB, among others.
+   *
+   * @param threshold lists with at most this many values are generated
+   *                  normally
+   */
+  public static Strategy valuesListStrategy(final int threshold) {
+    return new Strategy() {
+      @Override
+      protected void appendTo(InCondition cond, AppendableExt app)
+        throws IOException
+      {
+        int numValues = cond._rightValues.size();
+        if(numValues <= threshold) {
+          appendDefaultTo(cond, app);
+          return;
+        }
+
+        cond.openParen(app);
+        app.append(cond._leftValue)
+          .append(cond._negate ? " NOT IN " : " IN ")
+          .append("(VALUES ");
+        cond.appendValues(app, 0, numValues,
+                          cond._rightValues.getDelimiter(), "(", ")");
+        app.append(")");
+        cond.closeParen(app);
+      }
+    };
+  }
+
+  /**
+   * Strategy for generating the SQL for an InCondition.  Strategies are only
+   * used for non-empty conditions whose values are not a single
+   * (sub-query) expression.  Note that strategies count the values in the
+   * condition, so a single {@link QueryPreparer.ListPlaceHolder} is counted
+   * as one value.
+   */
+  public static abstract class Strategy
+  {
+    protected Strategy() {}
+
+    /**
+     * Appends the SQL for the given condition to the given AppendableExt.
+     */
+    protected abstract void appendTo(InCondition cond, AppendableExt app)
+      throws IOException;
+
+    /**
+     * Appends the given condition in the standard form
+     * <code>"(&lt;column&gt; [NOT] IN (&lt;rightObj1&gt;, ...) )"</code>.
+     */
+    protected static void appendDefaultTo(InCondition cond,
+                                          AppendableExt app)
+      throws IOException
+    {
+      // (x in (y1,y2,y3) )
+      cond.openParen(app);
+      cond.appendInList(app, 0, cond._rightValues.size());
+      cond.closeParen(app);
+    }
+
+    /**
+     * Appends the opening paren of the given condition (if enabled).
+     */
+    protected static void openParen(InCondition cond, AppendableExt app)
+      throws IOException
+    {
+      cond.openParen(app);
+    }
 
-      closeParen(app);
+    /**
+     * Appends the closing paren of the given condition (if enabled).
+     */
+    protected static void closeParen(InCondition cond, AppendableExt app)
+      throws IOException
+    {
+      cond.closeParen(app);
     }
   }
 }
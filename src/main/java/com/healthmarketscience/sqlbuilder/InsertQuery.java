@@ -146,6 +146,13 @@ public class InsertQuery extends BaseInsertQuery<InsertQuery>
     _values.collectSchemaObjects(vContext);
   }
 
+  @Override
+  protected int estimateLength() {
+    // "<prefix> VALUES (<values>)"
+    return (int)Math.min(estimatePrefixLength() + 9L +
+                         _values.estimateLength(), Integer.MAX_VALUE);
+  }
+
   @Override
   protected void appendTo(AppendableExt app, SqlContext newContext)
     throws IOException
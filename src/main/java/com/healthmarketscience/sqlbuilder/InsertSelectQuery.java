@@ -52,6 +52,7 @@ public class InsertSelectQuery extends BaseInsertQuery<InsertSelectQuery>
       table */
   public InsertSelectQuery setSelectQuery(SelectQuery selectQuery) {
     _selectQuery = selectQuery;
+    modified();
     return this;
   }
 
@@ -80,6 +81,12 @@ public class InsertSelectQuery extends BaseInsertQuery<InsertSelectQuery>
     vContext.collectNestedQuerySchemaObjects(_selectQuery);
   }
 
+  @Override
+  protected int estimateLength() {
+    return (int)Math.min(estimatePrefixLength() + estimateLength(_selectQuery),
+                         Integer.MAX_VALUE);
+  }
+
   @Override
   public void validate(ValidationContext vContext)
     throws ValidationException
@@ -0,0 +1,387 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.healthmarketscience.common.util.AppendableExt;
+import com.healthmarketscience.common.util.StringAppendableExt;
+import com.healthmarketscience.sqlbuilder.dbspec.Column;
+import com.healthmarketscience.sqlbuilder.dbspec.Table;
+
+
+/**
+ * Query which generates an INSERT statement with multiple rows of values,
+ * e.g. {@code "INSERT INTO t (a,b) VALUES (1,2),(3,4)"}.
+ * <p>
+ * Large numbers of rows can be split into multiple statements which respect
+ * the limits of the target database on the number of parameters per
+ * statement (e.g. 65535 for PostgreSQL, 2100 for SQL Server) and/or the
+ * length of a statement, using {@link #split} or {@link #toStatements}.
+ * Parameters are counted as the PlaceHolders and
+ * {@link SqlObject#QUESTION_MARK}s in each row (found the same way as the
+ * schema objects are collected for validation), so every PlaceHolder of a
+ * ListPlaceHolder and any parameters nested within other value expressions
+ * are counted.  The text of custom SQL objects is not examined, so any
+ * {@code ?} within custom SQL is not counted.
+ * <p>
+ * Note, the queries returned by {@link #split} may contain PlaceHolders
+ * (each query should be generated with its own ParameterMap, e.g. via
+ * {@link CompiledQuery#compile}).  {@link #toStatements} does not support
+ * PlaceHolders, since their indexes would span all the generated
+ * statements.  When generating the statements of a prepared insert, use
+ * {@link #addPreparedRows} and bind the values for each statement
+ * positionally (all the full statements will have identical SQL).
+ *
+ * @author agent
+ */
+public class MultiRowInsertQuery extends BaseInsertQuery<MultiRowInsertQuery>
+{
+  private SqlObjectList<Row> _rows = SqlObjectList.create();
+
+  /** @param table table into which to insert the values. */
+  public MultiRowInsertQuery(Table table) {
+    this((Object)table);
+  }
+
+  /**
+   * @param tableStr name of the table into which to insert the values.
+   *
+   * {@code Object} -&gt; {@code SqlObject} conversions handled by
+   * {@link Converter#toCustomTableSqlObject(Object)}.
+   */
+  public MultiRowInsertQuery(Object tableStr) {
+    super(Converter.toCustomTableSqlObject(tableStr));
+  }
+
+  /** creates a chunk of the given query containing the given rows */
+  private MultiRowInsertQuery(MultiRowInsertQuery src, List<Row> rows) {
+    super(src.getTableObject());
+    shareCommonTableExpressions(src);
+    _columns.addObjects(src._columns);
+    _rows = new SqlObjectList<Row>(SqlObjectList.DEFAULT_DELIMITER, rows);
+  }
+
+  /**
+   * Adds the given columns to the query.
+   * <p>
+   * {@code Object} -&gt; {@code SqlObject} conversions handled by
+   * {@link Converter#CUSTOM_COLUMN_TO_OBJ}.
+   */
+  public MultiRowInsertQuery addCustomColumns(Object... columnStrs) {
+    _columns.addObjects(Converter.CUSTOM_COLUMN_TO_OBJ, columnStrs);
+    return this;
+  }
+
+  /** Adds the given columns to the query. */
+  public MultiRowInsertQuery addColumns(Column... columns) {
+    return addCustomColumns((Object[])columns);
+  }
+
+  /**
+   * Adds a row with the given values to the query (one for each column).
+   * <p>
+   * {@code Object} -&gt; {@code SqlObject} conversions handled by
+   * {@link Converter#VALUE_TO_OBJ}.
+   */
+  public MultiRowInsertQuery addRow(Object... values) {
+    Row row = new Row();
+    row._values.addObjects(Converter.VALUE_TO_OBJ, values);
+    _rows.addObject(row);
+    return this;
+  }
+
+  /**
+   * Adds a row with the given values to the query (one for each column).
+   * <p>
+   * {@code Object} -&gt; {@code SqlObject} conversions handled by
+   * {@link Converter#VALUE_TO_OBJ}.
+   */
+  public MultiRowInsertQuery addRow(Collection<?> values) {
+    Row row = new Row();
+    row._values.addObjects(Converter.VALUE_TO_OBJ, values);
+    _rows.addObject(row);
+    return this;
+  }
+
+  /**
+   * Adds the given number of rows, each containing an
+   * {@link SqlObject#QUESTION_MARK} for every column, to the query.  The
+   * columns must already have been added.
+   */
+  public MultiRowInsertQuery addPreparedRows(int numRows) {
+    SqlObject[] values = new SqlObject[_columns.size()];
+    Arrays.fill(values, QUESTION_MARK);
+    for(int i = 0; i < numRows; ++i) {
+      addRow((Object[])values);
+    }
+    return this;
+  }
+
+  /**
+   * @return the number of rows in this query
+   */
+  public int getRowCount() {
+    return _rows.size();
+  }
+
+  /**
+   * @return the number of parameters in this query (see class comments for
+   *         details)
+   */
+  public int getParameterCount() {
+    int numParams = 0;
+    for(Row row : _rows) {
+      numParams += row.getParameterCount();
+    }
+    return numParams;
+  }
+
+  /**
+   * Splits this query into multiple queries, each of which has at most the
+   * given number of parameters.  The returned queries share the table,
+   * common table expressions and rows of this query (and have a copy of the
+   * columns).  If this query
+   * does not need to be split, the returned list contains only this query.
+   *
+   * @param maxParams the max number of parameters per query, {@code <= 0}
+   *                  for no limit
+   * @return the split queries, in row order
+   * @throws IllegalArgumentException if a single row exceeds the max
+   *         parameters
+   */
+  public List<MultiRowInsertQuery> split(int maxParams) {
+    maxParams = toLimit(maxParams);
+    if(maxParams == Integer.MAX_VALUE) {
+      return new ArrayList<MultiRowInsertQuery>(Arrays.asList(this));
+    }
+
+    List<MultiRowInsertQuery> queries = new ArrayList<MultiRowInsertQuery>();
+    List<Row> rows = new ArrayList<Row>();
+    int numParams = 0;
+    for(Row row : _rows) {
+      int rowParams = checkRowParameters(row.getParameterCount(), maxParams);
+      if(!rows.isEmpty() && ((numParams + rowParams) > maxParams)) {
+        queries.add(new MultiRowInsertQuery(this, rows));
+        rows = new ArrayList<Row>();
+        numParams = 0;
+      }
+      rows.add(row);
+      numParams += rowParams;
+    }
+    if(queries.isEmpty()) {
+      // everything fits, no need to split
+      return new ArrayList<MultiRowInsertQuery>(Arrays.asList(this));
+    }
+    if(!rows.isEmpty()) {
+      queries.add(new MultiRowInsertQuery(this, rows));
+    }
+    return queries;
+  }
+
+  /**
+   * Generates the SQL for this query as one or more statements, each of
+   * which has at most the given number of parameters and the given length.
+   * Each row is generated exactly once.  The query may not contain any
+   * PlaceHolders (see class comments).
+   *
+   * @param maxParams the max number of parameters per statement, {@code <=
+   *                  0} for no limit
+   * @param maxLength the max length of each statement, {@code <= 0} for no
+   *                  limit
+   * @return the generated statements, in row order
+   * @throws IllegalArgumentException if a single row exceeds the max
+   *         parameters or max length, or the query contains PlaceHolders
+   */
+  public List<String> toStatements(int maxParams, int maxLength) {
+    maxParams = toLimit(maxParams);
+    maxLength = toLimit(maxLength);
+
+    // any PlaceHolders are recorded in a scratch map (so they are not
+    // modified) and rejected
+    ParameterMap params = new ParameterMap();
+    SqlContext headerContext = new SqlContext();
+    headerContext.setParameterMap(params);
+    String header = toHeaderString(headerContext);
+    checkNoPlaceHolders(params);
+
+    StringBuilder sb = new StringBuilder(
+        (int)Math.min(Math.min(maxLength,
+                               SqlRenderer.MAX_RETAINED_BUFFER_SIZE),
+                      (long)header.length() + _rows.estimateLength()));
+    SqlContext context = new SqlContext();
+    context.setUseTableAliases(false);
+    context.setQuery(this);
+    context.setParameterMap(params);
+    StringAppendableExt app = new StringAppendableExt(sb, context);
+
+    List<String> stmts = new ArrayList<String>();
+    int numRows = 0;
+    int numParams = 0;
+    for(Row row : _rows) {
+      int rowStart = sb.length();
+      if(numRows == 0) {
+        sb.append(header);
+      } else {
+        sb.append(SqlObjectList.DEFAULT_DELIMITER);
+      }
+      app.append(row);
+      checkNoPlaceHolders(params);
+      int rowParams = checkRowParameters(row.getParameterCount(), maxParams);
+
+      if((numRows > 0) &&
+         (((numParams + rowParams) > maxParams) ||
+          (sb.length() > maxLength))) {
+        // this row does not fit, move it to a new statement
+        String rowStr = sb.substring(
+            rowStart + SqlObjectList.DEFAULT_DELIMITER.length());
+        sb.setLength(rowStart);
+        stmts.add(sb.toString());
+        sb.setLength(0);
+        sb.append(header).append(rowStr);
+        numRows = 0;
+        numParams = 0;
+      }
+
+      if(sb.length() > maxLength) {
+        throw new IllegalArgumentException(
+            "Single row statement length " + sb.length() +
+            " exceeds max length " + maxLength);
+      }
+
+      ++numRows;
+      numParams += rowParams;
+    }
+
+    if(numRows > 0) {
+      stmts.add(sb.toString());
+    }
+    return stmts;
+  }
+
+  /**
+   * Does Query.validate() and additionally verifies that there are an equal
+   * number of columns and values in every row.
+   */
+  @Override
+  public void validate(ValidationContext vContext)
+    throws ValidationException
+  {
+    // check super
+    super.validate(vContext);
+
+    if(_rows.isEmpty()) {
+      throw new ValidationException("no rows for insert");
+    }
+
+    for(Row row : _rows) {
+      if(_columns.size() != row._values.size()) {
+        throw new ValidationException("mismatched columns and values for insert, found " +
+                                      _columns.size() + " columns for " +
+                                      row._values.size() + " values");
+      }
+    }
+  }
+
+  @Override
+  protected void collectSchemaObjects(ValidationContext vContext) {
+    super.collectSchemaObjects(vContext);
+    _rows.collectSchemaObjects(vContext);
+  }
+
+  @Override
+  protected int estimateLength() {
+    // "<prefix> VALUES <rows>"
+    return (int)Math.min(estimatePrefixLength() + 7L +
+                         _rows.estimateLength(), Integer.MAX_VALUE);
+  }
+
+  @Override
+  protected void appendTo(AppendableExt app, SqlContext newContext)
+    throws IOException
+  {
+    newContext.setUseTableAliases(false);
+
+    appendPrefixTo(app);
+    app.append("VALUES ").append(_rows);
+  }
+
+  /**
+   * @return the SQL for this query without any rows
+   */
+  private String toHeaderString(SqlContext context) {
+    // generate an empty copy so that this query is not modified
+    return new MultiRowInsertQuery(this, Collections.<Row>emptyList())
+      .toString(SqlRenderer.DEFAULT_BUFFER_SIZE, context);
+  }
+
+  private static int toLimit(int limit) {
+    return ((limit > 0) ? limit : Integer.MAX_VALUE);
+  }
+
+  private static int checkRowParameters(int rowParams, int maxParams) {
+    if(rowParams > maxParams) {
+      throw new IllegalArgumentException(
+          "Single row parameter count " + rowParams +
+          " exceeds max parameters " + maxParams);
+    }
+    return rowParams;
+  }
+
+  private static void checkNoPlaceHolders(ParameterMap params) {
+    if(params.getSlotCount() > 0) {
+      throw new IllegalArgumentException(
+          "PlaceHolders are not supported when generating multiple " +
+          "statements");
+    }
+  }
+
+  /**
+   * Outputs a single row of values {@code "(<value1>,<value2>,...)"}.
+   */
+  private static final class Row extends SqlObject
+  {
+    private final SqlObjectList<SqlObject> _values = SqlObjectList.create();
+
+    private int getParameterCount() {
+      ValidationContext vContext = new ValidationContext();
+      vContext.countParameters();
+      collectSchemaObjects(vContext);
+      return vContext.getParameterCount();
+    }
+
+    @Override
+    protected void collectSchemaObjects(ValidationContext vContext) {
+      _values.collectSchemaObjects(vContext);
+    }
+
+    @Override
+    protected int estimateLength() {
+      return (int)Math.min(_values.estimateLength() + 2L, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void appendTo(AppendableExt app) throws IOException {
+      app.append("(").append(_values).append(")");
+    }
+  }
+}
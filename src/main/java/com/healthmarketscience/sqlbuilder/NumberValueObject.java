@@ -24,7 +24,10 @@ import com.healthmarketscience.common.util.AppendableExt;
 
 
 /**
- * Outputs a number literal <code>&lt;value&gt;</code>.
+ * Outputs a number literal <code>&lt;value&gt;</code>.  If a
+ * {@link SqlContext#setLiteralFormat literal format} is set, BigDecimal
+ * values are generated by the format (without exponential notation by
+ * default).
  *
  * @author James Ahlborn
  */
@@ -40,6 +43,11 @@ public class NumberValueObject extends Expression
     _value = value;
   }
 
+  /** @return the number output by this object */
+  public Number getValue() {
+    return _value;
+  }
+
   @Override
   public boolean hasParens() { return false; }
 
@@ -80,6 +88,16 @@ public class NumberValueObject extends Expression
   
   @Override
   public void appendTo(AppendableExt app) throws IOException {
+    SqlContext context = SqlContext.getContext(app);
+    if(context.getUseLiteralParameters()) {
+      app.append(QUESTION_MARK);
+      return;
+    }
+    TypedValueObject.Format format = context.getLiteralFormat();
+    if((format != null) && (_value instanceof BigDecimal)) {
+      format.appendDecimal((BigDecimal)_value, app);
+      return;
+    }
     app.append(_value);
   }
 }
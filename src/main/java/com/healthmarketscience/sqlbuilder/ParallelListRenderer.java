@@ -0,0 +1,179 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.healthmarketscience.common.util.AppendableExt;
+
+
+/**
+ * Generates the SQL for a large SqlObjectList by generating chunks of the
+ * list in parallel and then concatenating them in order (see
+ * {@link SqlContext#setParallelListThreshold}).
+ * <p>
+ * Each chunk is generated using a copy of the current SqlContext with its
+ * own ParameterMap, so any PlaceHolders within the chunk are only recorded
+ * (not modified).  Once the chunks are complete, the recorded PlaceHolders
+ * are added to the actual ParameterMap (or assigned their indexes) in
+ * order, exactly as if the list had been generated serially.  If the
+ * current SqlContext has no ParameterMap, the chunk's map is hidden from
+ * the objects being generated (see {@link SqlContext#getParameterMap}), so
+ * they are generated exactly as they would be serially.
+ *
+ * @author agent
+ */
+final class ParallelListRenderer
+{
+  /** the minimum number of objects in a chunk */
+  private static final int MIN_CHUNK_SIZE = 64;
+  /** the number of chunks per pool thread (for load balancing) */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private ParallelListRenderer() {}
+
+  /**
+   * Appends the given objects separated by the given delimiter.
+   */
+  static void appendTo(List<? extends SqlObject> objects, String delimiter,
+                       SqlContext context, AppendableExt app)
+    throws IOException
+  {
+    ForkJoinPool pool = context.getParallelListPool();
+    if(pool == null) {
+      pool = ForkJoinPool.commonPool();
+    }
+
+    int numObjs = objects.size();
+    int numChunks = Math.max(1, Math.min(
+        pool.getParallelism() * CHUNKS_PER_THREAD, numObjs / MIN_CHUNK_SIZE));
+    if(numChunks == 1) {
+      // not worth the overhead
+      app.append(objects, delimiter);
+      return;
+    }
+    int chunkSize = (numObjs + numChunks - 1) / numChunks;
+
+    // make sure the shared, per generation state exists before it is used
+    // by multiple threads
+    context.getScopeTables();
+
+    List<ForkJoinTask<Chunk>> tasks =
+      new ArrayList<ForkJoinTask<Chunk>>(numChunks);
+    boolean success = false;
+    try {
+      for(int start = 0; start < numObjs; start += chunkSize) {
+        tasks.add(pool.submit(new Chunk(
+                                  objects.subList(
+                                      start, Math.min(start + chunkSize,
+                                                      numObjs)),
+                                  delimiter, context)));
+      }
+
+      ParameterMap params = context.getParameterMap();
+      for(int i = 0; i < tasks.size(); ++i) {
+        Chunk chunk = join(tasks.get(i));
+        if(i > 0) {
+          app.append(delimiter);
+        }
+        app.append(chunk._sql);
+        chunk.addPlaceHolders(params);
+      }
+      success = true;
+    } finally {
+      if(!success) {
+        // don't waste time generating chunks which will never be used
+        for(ForkJoinTask<Chunk> task : tasks) {
+          task.cancel(false);
+        }
+      }
+    }
+  }
+
+  private static Chunk join(ForkJoinTask<Chunk> task) throws IOException {
+    try {
+      return task.join();
+    } catch(UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Generates the SQL for a chunk of the list.
+   */
+  private static final class Chunk implements Callable<Chunk>
+  {
+    private final List<? extends SqlObject> _objects;
+    private final String _delimiter;
+    private final SqlContext _context;
+    private String _sql;
+
+    private Chunk(List<? extends SqlObject> objects, String delimiter,
+                  SqlContext context) {
+      _objects = objects;
+      _delimiter = delimiter;
+      // each chunk gets its own copy of the context (which records, but does
+      // not modify, any PlaceHolders)
+      _context = context.clone();
+      if(context.getParameterMap() != null) {
+        _context.setParameterMap(new ParameterMap());
+      } else {
+        _context.setChunkParameterMap(new ParameterMap());
+      }
+      _context.setParallelListThreshold(0);
+    }
+
+    @Override
+    public Chunk call() {
+      long len = (_objects.size() - 1L) * _delimiter.length();
+      for(SqlObject obj : _objects) {
+        len += SqlObject.estimateLength(obj);
+      }
+      StringBuilder sb = new StringBuilder(
+          (int)Math.min(len, SqlRenderer.MAX_RETAINED_BUFFER_SIZE));
+      try {
+        new AppendableExt(sb, _context).append(_objects, _delimiter);
+      } catch(IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      _sql = sb.toString();
+      return this;
+    }
+
+    /**
+     * Adds the PlaceHolders written by this chunk (in order) to the given
+     * ParameterMap, or assigns their indexes if {@code null}.
+     */
+    private void addPlaceHolders(ParameterMap params) {
+      ParameterMap chunkParams = _context.getSlotParameterMap();
+      if(params != null) {
+        params.addSlots(chunkParams);
+      } else {
+        for(int i = 0; i < chunkParams.getSlotCount(); ++i) {
+          chunkParams.getPlaceHolder(i).addNextIndex();
+        }
+      }
+    }
+  }
+}
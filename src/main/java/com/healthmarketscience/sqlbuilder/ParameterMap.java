@@ -0,0 +1,319 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.healthmarketscience.common.util.AppendableExt;
+import com.healthmarketscience.sqlbuilder.QueryPreparer.ListPlaceHolder;
+import com.healthmarketscience.sqlbuilder.QueryPreparer.PlaceHolder;
+import com.healthmarketscience.sqlbuilder.QueryPreparer.StaticPlaceHolder;
+
+
+/**
+ * Collects the parameter indexes of the {@link QueryPreparer.PlaceHolder}s
+ * written during a single SQL generation.  When a ParameterMap is set on
+ * the SqlContext used for generation (see
+ * {@link SqlContext#setParameterMap}), PlaceHolders record their indexes in
+ * the map instead of in themselves.  The PlaceHolders are therefore not
+ * modified, so the same query may be generated any number of times (and
+ * concurrently, each generation with its own ParameterMap).
+ * <p>
+ * Each occurrence of a PlaceHolder in the generated SQL is a "slot".  Slots
+ * are numbered from 0 in the order in which they appear in the SQL, and each
+ * slot maps to the 1-based PreparedStatement parameter index assigned to it.
+ * Note that only PlaceHolders are tracked, any plain
+ * {@link SqlObject#QUESTION_MARK} objects in the query are not.
+ * <p>
+ * Example:
+ * <pre>
+ *   ParameterMap params = new ParameterMap();
+ *   SqlContext context = new SqlContext();
+ *   context.setParameterMap(params);
+ *   String sql = query.toString(256, context);
+ *
+ *   PreparedStatement ps = conn.prepareStatement(sql);
+ *   params.setObject(idPH, 42, ps);
+ *   params.setStaticValues(ps);
+ * </pre>
+ * A ParameterMap is not thread-safe while the SQL is being generated, but
+ * may be read concurrently once generation is complete (see
+ * {@link CompiledQuery}).
+ *
+ * @author agent
+ */
+public class ParameterMap
+{
+  private static final int[] NO_INDEXES = new int[0];
+
+  /** the index that will be assigned to the next PlaceHolder */
+  private int _nextIndex;
+  /** the number of slots */
+  private int _numSlots;
+  /** the PlaceHolder for each slot */
+  private PlaceHolder[] _placeHolders = new PlaceHolder[8];
+  /** the parameter index for each slot */
+  private int[] _indexes = new int[8];
+  /** all the parameter indexes for each PlaceHolder */
+  private final Map<PlaceHolder,int[]> _placeHolderIndexes =
+    new IdentityHashMap<PlaceHolder,int[]>();
+  /** whether or not more slots may be added */
+  private boolean _readOnly;
+
+  public ParameterMap() {
+    this(QueryPreparer.DEFAULT_START_INDEX);
+  }
+
+  /**
+   * Creates a ParameterMap with a different start index from the default.
+   * This may be useful if there are other parameters in the
+   * PreparedStatement which are not part of the generated SQL.
+   */
+  public ParameterMap(int startIndex) {
+    if(startIndex < QueryPreparer.DEFAULT_START_INDEX) {
+      throw new IllegalArgumentException("invalid start index");
+    }
+    _nextIndex = startIndex;
+  }
+
+  /**
+   * @return the ParameterMap of the SqlContext of the given AppendableExt,
+   *         if any
+   */
+  static ParameterMap getParameterMap(AppendableExt app) {
+    Object context = app.getContext();
+    return ((context instanceof SqlContext) ?
+            ((SqlContext)context).getSlotParameterMap() : null);
+  }
+
+  /**
+   * Assigns the next parameter index to the given PlaceHolder.
+   * @return the assigned index
+   */
+  int addSlot(PlaceHolder ph) {
+    if(_readOnly) {
+      throw new UnsupportedOperationException(
+          "ParameterMap is read-only, it may not be used for SQL generation");
+    }
+    int index = _nextIndex++;
+    if(_numSlots == _placeHolders.length) {
+      int newLen = _numSlots * 2;
+      _placeHolders = Arrays.copyOf(_placeHolders, newLen);
+      _indexes = Arrays.copyOf(_indexes, newLen);
+    }
+    _placeHolders[_numSlots] = ph;
+    _indexes[_numSlots] = index;
+    ++_numSlots;
+
+    // note, a MultiPlaceHolder may occupy more than one slot
+    int[] idxs = _placeHolderIndexes.get(ph);
+    idxs = ((idxs == null) ? new int[1] :
+            Arrays.copyOf(idxs, idxs.length + 1));
+    idxs[idxs.length - 1] = index;
+    _placeHolderIndexes.put(ph, idxs);
+    return index;
+  }
+
+  /**
+   * Prevents any more slots from being added to this map (e.g. by using it
+   * for another SQL generation).
+   */
+  void setReadOnly() {
+    _readOnly = true;
+  }
+
+  /**
+   * @return {@code true} if no more slots may be added to this map,
+   *         {@code false} otherwise
+   */
+  public boolean isReadOnly() {
+    return _readOnly;
+  }
+
+  /**
+   * Adds all the slots of the given map (in order) to this map.
+   */
+  void addSlots(ParameterMap params) {
+    for(int i = 0; i < params._numSlots; ++i) {
+      addSlot(params._placeHolders[i]);
+    }
+  }
+
+  /**
+   * @return the number of PlaceHolder slots in the generated SQL
+   */
+  public int getSlotCount() {
+    return _numSlots;
+  }
+
+  /**
+   * @param slot 0-based slot number
+   * @return the PlaceHolder which was written at the given slot
+   */
+  public PlaceHolder getPlaceHolder(int slot) {
+    checkSlot(slot);
+    return _placeHolders[slot];
+  }
+
+  /**
+   * @param slot 0-based slot number
+   * @return the 1-based parameter index of the given slot
+   */
+  public int getIndex(int slot) {
+    checkSlot(slot);
+    return _indexes[slot];
+  }
+
+  /**
+   * @return {@code true} if the given PlaceHolder was written to the
+   *         generated SQL, {@code false} otherwise
+   */
+  public boolean isInQuery(PlaceHolder ph) {
+    return (getIndexesInternal(ph).length > 0);
+  }
+
+  /**
+   * @return all the 1-based parameter indexes at which the given PlaceHolder
+   *         (or, for a ListPlaceHolder, its PlaceHolders) was written (empty
+   *         if the PlaceHolder is not in the query)
+   */
+  public int[] getIndexes(PlaceHolder ph) {
+    int[] idxs = getIndexesInternal(ph);
+    return ((idxs.length > 0) ? idxs.clone() : idxs);
+  }
+
+  int[] getIndexesInternal(PlaceHolder ph) {
+    if(ph instanceof ListPlaceHolder) {
+      int[] idxs = NO_INDEXES;
+      for(PlaceHolder delegate : ((ListPlaceHolder)ph).getDelegates()) {
+        int[] delIdxs = getIndexesInternal(delegate);
+        if(delIdxs.length > 0) {
+          int oldLen = idxs.length;
+          idxs = Arrays.copyOf(idxs, oldLen + delIdxs.length);
+          System.arraycopy(delIdxs, 0, idxs, oldLen, delIdxs.length);
+        }
+      }
+      return idxs;
+    }
+    int[] idxs = _placeHolderIndexes.get(ph);
+    return ((idxs != null) ? idxs : NO_INDEXES);
+  }
+
+  /**
+   * Calls setNull on the given PreparedStatement with the given sql type for
+   * all the positions of the given PlaceHolder.
+   */
+  public void setNull(PlaceHolder ph, int sqlType, PreparedStatement ps)
+    throws SQLException
+  {
+    for(int idx : getIndexesInternal(ph)) {
+      ps.setNull(idx, sqlType);
+    }
+  }
+
+  /**
+   * Calls setObject on the given PreparedStatement with the given value for
+   * all the positions of the given PlaceHolder.
+   */
+  public void setObject(PlaceHolder ph, Object value, PreparedStatement ps)
+    throws SQLException
+  {
+    for(int idx : getIndexesInternal(ph)) {
+      ps.setObject(idx, value);
+    }
+  }
+
+  /**
+   * Calls setObject on the given PreparedStatement with the given value and
+   * the given sql type for all the positions of the given PlaceHolder.  If
+   * given value is <code>null</code>, calls setNull with the given sql type.
+   */
+  public void setObject(PlaceHolder ph, Object value, int sqlType,
+                        PreparedStatement ps)
+    throws SQLException
+  {
+    for(int idx : getIndexesInternal(ph)) {
+      setObjectAt(idx, value, sqlType, ps);
+    }
+  }
+
+  /**
+   * Calls {@link StaticPlaceHolder#setValue(PreparedStatement,int)} for all
+   * the StaticPlaceHolders in the generated SQL with the given
+   * PreparedStatement.
+   */
+  public void setStaticValues(PreparedStatement ps)
+    throws SQLException
+  {
+    for(int i = 0; i < _numSlots; ++i) {
+      PlaceHolder ph = _placeHolders[i];
+      if(ph instanceof StaticPlaceHolder) {
+        ((StaticPlaceHolder)ph).setValue(ps, _indexes[i]);
+      }
+    }
+  }
+
+  /**
+   * @throws IllegalArgumentException if any of the StaticPlaceHolders in the
+   *         generated SQL do not support binding by index (see
+   *         {@link StaticPlaceHolder#setValue(PreparedStatement,int)})
+   */
+  void checkStaticPlaceHolders() {
+    for(int i = 0; i < _numSlots; ++i) {
+      PlaceHolder ph = _placeHolders[i];
+      if((ph instanceof StaticPlaceHolder) &&
+         !StaticPlaceHolder.isIndexBindable((StaticPlaceHolder)ph)) {
+        throw new IllegalArgumentException(
+            ph.getClass().getName() + " does not support binding by index");
+      }
+    }
+  }
+
+  static void setObjectAt(int idx, Object value, int sqlType,
+                          PreparedStatement ps)
+    throws SQLException
+  {
+    if(value != null) {
+      ps.setObject(idx, value, sqlType);
+    } else {
+      ps.setNull(idx, sqlType);
+    }
+  }
+
+  private void checkSlot(int slot) {
+    if((slot < 0) || (slot >= _numSlots)) {
+      throw new IndexOutOfBoundsException("Invalid slot " + slot);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("ParameterMap[");
+    for(int i = 0; i < _numSlots; ++i) {
+      if(i > 0) {
+        sb.append(", ");
+      }
+      sb.append(_indexes[i]).append("=")
+        .append(_placeHolders[i].getClass().getSimpleName());
+    }
+    return sb.append("]").toString();
+  }
+}
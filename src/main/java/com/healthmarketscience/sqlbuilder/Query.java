@@ -17,10 +17,14 @@ limitations under the License.
 package com.healthmarketscience.sqlbuilder;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.healthmarketscience.common.util.AppendableExt;
+import com.healthmarketscience.sqlbuilder.custom.HookAnchor;
+import com.healthmarketscience.sqlbuilder.custom.HookType;
 import com.healthmarketscience.sqlbuilder.dbspec.Table;
 
 
@@ -36,13 +40,48 @@ import com.healthmarketscience.sqlbuilder.dbspec.Table;
 public abstract class Query<ThisType extends Query<ThisType>>
   extends CustomizableSqlObject implements Verifiable<ThisType>
 {
+  /** the length of the SQL most recently generated by each Query class,
+      used to pre-size the output buffer */
+  private static final ClassValue<AtomicInteger> LENGTH_HINTS =
+    new ClassValue<AtomicInteger>() {
+      @Override
+      protected AtomicInteger computeValue(Class<?> type) {
+        return new AtomicInteger();
+      }
+    };
+
+  /** number of modifications made to this query (other than to its lists,
+      which track their own modifications) */
+  private int _modCount;
+  /** the modification counts of the contents of this query as of the last
+      successful call to validate(), if any */
+  private volatile ModStamp _validStamp;
+
   protected Query() {}
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * A query which was previously validated successfully is not validated
+   * again unless it has been modified since.  Modifications are detected
+   * for the methods of this query and any nested queries, as well as for
+   * objects added to (or removed from) any lists within the query (e.g. the
+   * {@link SelectQuery#getWhereClause where clause}).  Other modifications
+   * to objects which are already part of the query (e.g. replacing the
+   * query of a {@link CommonTableExpression}) are not detected.
+   */
   @Override
   public final ThisType validate()
     throws ValidationException
   {
-    doValidate();
+    ModStamp stamp = _validStamp;
+    if((stamp == null) || !stamp.isCurrent()) {
+      ValidationContext vContext = new ValidationContext();
+      stamp = vContext.recordModCounts();
+      collectSchemaObjects(vContext);
+      vContext.validateAll();
+      _validStamp = stamp;
+    }
     return getThisType();
   }
 
@@ -64,20 +103,17 @@ public abstract class Query<ThisType extends Query<ThisType>>
   protected void validateTables(ValidationContext vContext)
     throws ValidationException
   {
-    Collection<Table> allTables = vContext.getTables();
-    if(vContext.getParent() != null) {
-      // tables could be defined in any outer contexts, so need to track back
-      allTables = new HashSet<Table>(allTables);
-      ValidationContext tmpVContext = vContext;
-      while((tmpVContext = tmpVContext.getParent()) != null) {
-        allTables.addAll(tmpVContext.getTables());
-      }
-    }
-
-    // make sure all column tables are referenced by a table (if desired)
+    // make sure all column tables are referenced by a table (if desired).
+    // tables could be defined in any outer contexts, so need to track back
+    // (without copying the tables of all the outer contexts for every
+    // nested query)
     Collection<Table> contextTables = vContext.getColumnTables();
-    if(!allTables.containsAll(contextTables)) {
-      contextTables.removeAll(allTables);
+    ValidationContext tmpVContext = vContext;
+    while((tmpVContext != null) && !contextTables.isEmpty()) {
+      contextTables.removeAll(tmpVContext.getTables());
+      tmpVContext = tmpVContext.getParent();
+    }
+    if(!contextTables.isEmpty()) {
       throw new ValidationException("Columns used for unreferenced tables " + contextTables);
     }
   }
@@ -86,9 +122,49 @@ public abstract class Query<ThisType extends Query<ThisType>>
   protected void collectSchemaObjects(ValidationContext vContext) {
     // always add this query to the list of things to verify
     vContext.addVerifiable(this);
+    vContext.addModCount(this, _modCount);
     super.collectSchemaObjects(vContext);
   }
 
+  @Override
+  protected void addCustomization(HookAnchor anchor, HookType type,
+                                  Object obj) {
+    super.addCustomization(anchor, type, obj);
+    modified();
+  }
+
+  /**
+   * Should be called by any method which modifies this query, other than
+   * by adding to (or removing from) one of its {@link SqlObjectList}s (which
+   * track their own modifications).  Causes the next call to
+   * {@link #validate()} to fully validate this query (and any queries which
+   * contain it).
+   */
+  protected final void modified() {
+    ++_modCount;
+  }
+
+  /**
+   * Returns the length of the SQL most recently generated (at the top level)
+   * by any query of the same class as the given object.  Only used for the
+   * top level object, since the hint is the length of an entire statement.
+   * @return the length hint, 0 if none or the given object is not a Query
+   */
+  static int getLengthHint(SqlObject obj) {
+    return ((obj instanceof Query<?>) ?
+            LENGTH_HINTS.get(obj.getClass()).get() : 0);
+  }
+
+  /**
+   * Records the length of the SQL generated for the given object (if it is a
+   * Query) for subsequent length estimates.
+   */
+  static void recordLength(SqlObject obj, int length) {
+    if(obj instanceof Query<?>) {
+      LENGTH_HINTS.get(obj.getClass()).set(length);
+    }
+  }
+
   @Override
   public final void appendTo(AppendableExt app) throws IOException {
     prependTo(app);
@@ -102,6 +178,37 @@ public abstract class Query<ThisType extends Query<ThisType>>
     SqlContext.popContext(app, newContext);
   }
 
+  /**
+   * Returns an immutable snapshot of this query which may be shared and
+   * generated concurrently by multiple threads.  The indexes of any
+   * PlaceHolders in this query are recorded in the snapshot, the
+   * PlaceHolders themselves are not modified.
+   *
+   * @return the frozen query
+   * @see FrozenQuery
+   */
+  public FrozenQuery freeze() {
+    return freeze(null);
+  }
+
+  /**
+   * Returns an immutable snapshot of this query which may be shared and
+   * generated concurrently by multiple threads.  The indexes of any
+   * PlaceHolders in this query are recorded in the snapshot, the
+   * PlaceHolders themselves are not modified.
+   *
+   * @param namedPlaceHolders optional names for PlaceHolders in the query,
+   *                          which may be used for subsequently binding
+   *                          values by name
+   * @return the frozen query
+   * @see FrozenQuery
+   */
+  public FrozenQuery freeze(
+      Map<String,? extends QueryPreparer.PlaceHolder> namedPlaceHolders)
+  {
+    return new FrozenQuery(CompiledQuery.compile(this, namedPlaceHolders));
+  }
+
   /** @return the handle to this object as the subclass type */
   @SuppressWarnings("unchecked")
   protected final ThisType getThisType() {
@@ -129,5 +236,52 @@ public abstract class Query<ThisType extends Query<ThisType>>
   protected abstract void appendTo(AppendableExt app, SqlContext newContext)
     throws IOException;
 
+  /**
+   * The modification counts of the lists and queries within a query at the
+   * time they were collected for validation.
+   */
+  static final class ModStamp
+  {
+    private Object[] _objs = new Object[8];
+    private int[] _modCounts = new int[8];
+    private int _size;
+    /** whether any of the objects do not track their modifications */
+    private boolean _untracked;
+
+    void add(SqlObject obj, int modCount) {
+      if(modCount < 0) {
+        _untracked = true;
+        return;
+      }
+      if(_size == _objs.length) {
+        _objs = Arrays.copyOf(_objs, _size * 2);
+        _modCounts = Arrays.copyOf(_modCounts, _size * 2);
+      }
+      _objs[_size] = obj;
+      _modCounts[_size] = modCount;
+      ++_size;
+    }
+
+    /**
+     * @return {@code true} if none of the recorded objects have been modified
+     *         since they were recorded, {@code false} otherwise
+     */
+    boolean isCurrent() {
+      if(_untracked) {
+        return false;
+      }
+      for(int i = 0; i < _size; ++i) {
+        Object obj = _objs[i];
+        int modCount = ((obj instanceof Query<?>) ?
+                        ((Query<?>)obj)._modCount :
+                        ((SqlObjectList<?>)obj).getModCount());
+        if(modCount != _modCounts[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
 
 }
@@ -541,13 +541,28 @@ public class QueryPreparer
 
     @Override
     protected void collectSchemaObjects(ValidationContext vContext) {
+      vContext.addParameter();
     }
 
     @Override
     public void appendTo(AppendableExt app) throws IOException {
-      addIndex(_outer._curIndex++);
+      ParameterMap params = ParameterMap.getParameterMap(app);
+      if(params != null) {
+        // record the index in the map, leaving this PlaceHolder untouched
+        params.addSlot(this);
+      } else {
+        addNextIndex();
+      }
       SqlObject.QUESTION_MARK.appendTo(app);
     }
+
+    /**
+     * Assigns the next index of the owning QueryPreparer to this PlaceHolder
+     * (as if it were written at the current position of the query).
+     */
+    void addNextIndex() {
+      addIndex(_outer._curIndex++);
+    }
   }
 
 
@@ -693,6 +708,22 @@ public class QueryPreparer
    */
   public static abstract class StaticPlaceHolder extends PlaceHolder
   {
+    /** whether or not each StaticPlaceHolder class overrides
+        {@link #setValue(PreparedStatement,int)} */
+    private static final ClassValue<Boolean> INDEX_BINDABLE =
+      new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+          try {
+            return (type.getMethod("setValue", PreparedStatement.class,
+                                   int.class).getDeclaringClass() !=
+                    StaticPlaceHolder.class);
+          } catch(NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+      };
+
     public StaticPlaceHolder(QueryPreparer outer)
     {
       super(outer);
@@ -705,6 +736,31 @@ public class QueryPreparer
     public abstract void setValue(PreparedStatement ps)
       throws SQLException;
 
+    /**
+     * Calls the appropriate set method on the given PreparedStatement with
+     * the saved static value for the given position (as recorded in a
+     * {@link ParameterMap}).  All the built-in StaticPlaceHolders implement
+     * this method.  The default implementation throws
+     * UnsupportedOperationException, and (since this method was added after
+     * the class was published) queries containing StaticPlaceHolders which
+     * do not override it are rejected by {@link CompiledQuery#compile}.
+     */
+    public void setValue(PreparedStatement ps, int index)
+      throws SQLException
+    {
+      throw new UnsupportedOperationException(
+          getClass().getSimpleName() + " does not support binding by index");
+    }
+
+    /**
+     * @return {@code true} if the given StaticPlaceHolder overrides
+     *         {@link #setValue(PreparedStatement,int)}, {@code false}
+     *         otherwise
+     */
+    static boolean isIndexBindable(StaticPlaceHolder ph) {
+      return INDEX_BINDABLE.get(ph.getClass());
+    }
+
     /**
      * Displays the value of this place holder as a String
      */
@@ -721,11 +777,23 @@ public class QueryPreparer
    * Note: a ListPlaceHolder may not be used in more than one place in the
    * query unless all the underlying PlaceHolders are instances of {@link
    * MultiPlaceHolder}.
+   * <p>
+   * Since every distinct number of PlaceHolders results in distinct SQL,
+   * lists of varying size can defeat prepared statement caching (in both
+   * the JDBC driver and the database).  The {@link #addPaddedPlaceHolders}
+   * methods round the number of PlaceHolders up to a fixed set of "bucket"
+   * sizes and enable padding mode, in which the set methods fill any extra
+   * positions by repeating the last given value (or with <code>null</code>
+   * if no values are given).  Repeating a value does not change the result
+   * of an "IN" condition, however a "NOT IN" condition should always be
+   * given at least one value.
    */
   public static class ListPlaceHolder extends PlaceHolder
   {
     /** the delegate placeholders */
     private final SqlObjectList<PlaceHolder> _delegates = SqlObjectList.create();
+    /** whether or not the set methods pad missing values */
+    private boolean _padded;
 
     public ListPlaceHolder(QueryPreparer outer) {
       super(outer);
@@ -799,11 +867,135 @@ public class QueryPreparer
       return this;
     }
 
+    /**
+     * Adds enough PlaceHolders to this list for the given number of values,
+     * rounded up to the next power of two, and enables padding mode.
+     * @see #getPaddedSize(int)
+     */
+    public ListPlaceHolder addPaddedPlaceHolders(int size) {
+      return addPlaceHolders(getPaddedSize(size)).setPadded(true);
+    }
+
+    /**
+     * Adds enough PlaceHolders to this list for the given number of values,
+     * rounded up to the given bucket sizes, and enables padding mode.
+     * @see #getPaddedSize(int,int...)
+     */
+    public ListPlaceHolder addPaddedPlaceHolders(int size,
+                                                 int... bucketSizes) {
+      return addPlaceHolders(getPaddedSize(size, bucketSizes)).setPadded(true);
+    }
+
+    /**
+     * @return whether or not padding mode is enabled
+     */
+    public boolean isPadded() {
+      return _padded;
+    }
+
+    /**
+     * Enables or disables padding mode.  When enabled, the set methods may
+     * be given fewer values than the number of PlaceHolders in this list,
+     * and the remaining positions are filled by repeating the last given
+     * value (or with <code>null</code> if no values are given).
+     */
+    public ListPlaceHolder setPadded(boolean padded) {
+      _padded = padded;
+      return this;
+    }
+
     private <P extends PlaceHolder> P addPlaceHolder(P ph) {
       _delegates.addObject(ph);
       return ph;
     }
 
+    SqlObjectList<PlaceHolder> getDelegates() {
+      return _delegates;
+    }
+
+    /**
+     * @return the index of the value to use for the given position, -1 for
+     *         <code>null</code>
+     */
+    private int getValueIndex(int idx, int numValues) {
+      return((_padded && (idx >= numValues)) ? (numValues - 1) : idx);
+    }
+
+    /**
+     * @return the given iterator, wrapped to repeat the last value (or
+     *         <code>null</code>) indefinitely if padding mode is enabled
+     */
+    private <T> Iterator<T> getValues(Iterable<T> values) {
+      final Iterator<T> iter = values.iterator();
+      if(!_padded) {
+        return iter;
+      }
+      return new Iterator<T>() {
+        private T _last;
+        @Override
+        public boolean hasNext() {
+          return true;
+        }
+        @Override
+        public T next() {
+          if(iter.hasNext()) {
+            _last = iter.next();
+          }
+          return _last;
+        }
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    /**
+     * @return the given number of values rounded up to the next power of two
+     *         (0 for non-positive sizes)
+     */
+    public static int getPaddedSize(int size) {
+      if(size <= 1) {
+        return Math.max(size, 0);
+      }
+      int padded = Integer.highestOneBit(size - 1) << 1;
+      // don't overflow for huge sizes
+      return ((padded > 0) ? padded : size);
+    }
+
+    /**
+     * @param size the number of values
+     * @param bucketSizes the allowed number of PlaceHolders, in ascending
+     *                    order
+     * @return the smallest bucket size which can hold the given number of
+     *         values, or, if all the buckets are too small, the given number
+     *         of values rounded up to a multiple of the largest bucket size
+     */
+    public static int getPaddedSize(int size, int... bucketSizes) {
+      int maxBucket = 0;
+      for(int bucketSize : bucketSizes) {
+        if(bucketSize <= maxBucket) {
+          throw new IllegalArgumentException(
+              "Bucket sizes must be positive and ascending " +
+              Arrays.toString(bucketSizes));
+        }
+        maxBucket = bucketSize;
+      }
+      if(maxBucket == 0) {
+        throw new IllegalArgumentException("No bucket sizes given");
+      }
+      if(size <= 0) {
+        return 0;
+      }
+      for(int bucketSize : bucketSizes) {
+        if(size <= bucketSize) {
+          return bucketSize;
+        }
+      }
+      int numBuckets = ((size - 1) / maxBucket) + 1;
+      return numBuckets * maxBucket;
+    }
+
     /**
      * Adds StaticPlaceHolders for the given String values.
      * @see QueryPreparer#setStaticValues
@@ -972,7 +1164,12 @@ public class QueryPreparer
       if(isInQuery()) {
         int idx = 0;
         for(PlaceHolder ph : _delegates) {
-          ph.setInt(values[idx++], ps);
+          int valIdx = getValueIndex(idx++, values.length);
+          if(valIdx >= 0) {
+            ph.setInt(values[valIdx], ps);
+          } else {
+            ph.setNull(Types.INTEGER, ps);
+          }
         }
       }
     }
@@ -987,7 +1184,7 @@ public class QueryPreparer
       throws SQLException
     {
       if(isInQuery()) {
-        Iterator<? extends Integer> iter = values.iterator();
+        Iterator<? extends Integer> iter = getValues(values);
         for(PlaceHolder ph : _delegates) {
           ph.setInt(iter.next(), ps);
         }
@@ -1004,7 +1201,12 @@ public class QueryPreparer
       if(isInQuery()) {
         int idx = 0;
         for(PlaceHolder ph : _delegates) {
-          ph.setLong(values[idx++], ps);
+          int valIdx = getValueIndex(idx++, values.length);
+          if(valIdx >= 0) {
+            ph.setLong(values[valIdx], ps);
+          } else {
+            ph.setNull(Types.BIGINT, ps);
+          }
         }
       }
     }
@@ -1018,7 +1220,7 @@ public class QueryPreparer
       throws SQLException
     {
       if(isInQuery()) {
-        Iterator<? extends Long> iter = values.iterator();
+        Iterator<? extends Long> iter = getValues(values);
         for(PlaceHolder ph : _delegates) {
           ph.setLong(iter.next(), ps);
         }
@@ -1035,7 +1237,12 @@ public class QueryPreparer
       if(isInQuery()) {
         int idx = 0;
         for(PlaceHolder ph : _delegates) {
-          ph.setBoolean(values[idx++], ps);
+          int valIdx = getValueIndex(idx++, values.length);
+          if(valIdx >= 0) {
+            ph.setBoolean(values[valIdx], ps);
+          } else {
+            ph.setNull(Types.BOOLEAN, ps);
+          }
         }
       }
     }
@@ -1050,7 +1257,7 @@ public class QueryPreparer
       throws SQLException
     {
       if(isInQuery()) {
-        Iterator<? extends Boolean> iter = values.iterator();
+        Iterator<? extends Boolean> iter = getValues(values);
         for(PlaceHolder ph : _delegates) {
           ph.setBoolean(iter.next(), ps);
         }
@@ -1089,7 +1296,7 @@ public class QueryPreparer
                                 Iterable<? extends String> values)
       throws SQLException
     {
-      Iterator<? extends String> iter = values.iterator();
+      Iterator<? extends String> iter = getValues(values);
       for(PlaceHolder ph : _delegates) {
         ph.setString(iter.next(), ps);
       }
@@ -1134,7 +1341,7 @@ public class QueryPreparer
     private void setObjectsImpl(PreparedStatement ps, Iterable<?> values)
       throws SQLException
     {
-      Iterator<?> iter = values.iterator();
+      Iterator<?> iter = getValues(values);
       for(PlaceHolder ph : _delegates) {
         ph.setObject(iter.next(), ps);
       }
@@ -1169,12 +1376,17 @@ public class QueryPreparer
                                 Iterable<?> values)
       throws SQLException
     {
-      Iterator<?> iter = values.iterator();
+      Iterator<?> iter = getValues(values);
       for(PlaceHolder ph : _delegates) {
         ph.setObject(iter.next(), sqlType, ps);
       }
     }
 
+    @Override
+    protected void collectSchemaObjects(ValidationContext vContext) {
+      _delegates.collectSchemaObjects(vContext);
+    }
+
     @Override
     public final void appendTo(AppendableExt app) throws IOException {
       _delegates.appendTo(app);
@@ -1203,6 +1415,13 @@ public class QueryPreparer
       setNull(_sqlType, ps);
     }
 
+    @Override
+    public void setValue(PreparedStatement ps, int index)
+      throws SQLException
+    {
+      ps.setNull(index, _sqlType);
+    }
+
     @Override
     public String displayToString() {
       return "NullSqlType=" + _sqlType;
@@ -1231,6 +1450,13 @@ public class QueryPreparer
       setObject(_val, ps);
     }
 
+    @Override
+    public void setValue(PreparedStatement ps, int index)
+      throws SQLException
+    {
+      ps.setObject(index, _val);
+    }
+
     @Override
     public String displayToString() {
       return "'" + _val + "'";
@@ -1258,6 +1484,13 @@ public class QueryPreparer
     {
       setObject(_val, _sqlType, ps);
     }
+
+    @Override
+    public void setValue(PreparedStatement ps, int index)
+      throws SQLException
+    {
+      ParameterMap.setObjectAt(index, _val, _sqlType, ps);
+    }
   }
 
   /**
@@ -1278,6 +1511,17 @@ public class QueryPreparer
     {
       setString(_val, ps);
     }
+
+    @Override
+    public void setValue(PreparedStatement ps, int index)
+      throws SQLException
+    {
+      if(_val != null) {
+        ps.setString(index, _val);
+      } else {
+        ps.setNull(index, Types.VARCHAR);
+      }
+    }
   }
 
   /**
@@ -1301,6 +1545,13 @@ public class QueryPreparer
       setLong(_val, ps);
     }
 
+    @Override
+    public void setValue(PreparedStatement ps, int index)
+      throws SQLException
+    {
+      ps.setLong(index, _val);
+    }
+
     @Override
     public String displayToString() {
       return "'" + _val + "'";
@@ -1328,6 +1579,13 @@ public class QueryPreparer
       setInt(_val, ps);
     }
 
+    @Override
+    public void setValue(PreparedStatement ps, int index)
+      throws SQLException
+    {
+      ps.setInt(index, _val);
+    }
+
     @Override
     public String displayToString() {
       return "'" + _val + "'";
@@ -1355,6 +1613,13 @@ public class QueryPreparer
       setBoolean(_val, ps);
     }
 
+    @Override
+    public void setValue(PreparedStatement ps, int index)
+      throws SQLException
+    {
+      ps.setBoolean(index, _val);
+    }
+
     @Override
     public String displayToString() {
       return "'" + _val + "'";
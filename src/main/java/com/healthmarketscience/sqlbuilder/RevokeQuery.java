@@ -36,6 +36,7 @@ public class RevokeQuery extends BaseGrantQuery<RevokeQuery>
   /** Sets the behavior for the revoke query */
   public RevokeQuery setBehavior(DropQuery.Behavior newBehavior) {
     _behavior = newBehavior;
+    modified();
     return this;
   }  
 
@@ -20,10 +20,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.healthmarketscience.common.util.AppendableExt;
@@ -161,12 +160,14 @@ public class SelectQuery extends BaseCTEQuery<SelectQuery>
     }
     // track all join from tables in case the user does validation
     _joinFromTables.add(fromTable);
+    modified();
   }
 
   /** Iff isDistinct is <code>true</code>, adds the DISTINCT keyword to the
       SELECT clause so that only unique rows are returned */
   public SelectQuery setIsDistinct(boolean isDistinct) {
     _isDistinct = isDistinct;
+    modified();
     return this;
   }
 
@@ -174,6 +175,7 @@ public class SelectQuery extends BaseCTEQuery<SelectQuery>
       end of the SELECT clause */
   public SelectQuery setForUpdate(boolean forUpdate) {
     _forUpdate = forUpdate;
+    modified();
     return this;
   }
 
@@ -465,6 +467,7 @@ public class SelectQuery extends BaseCTEQuery<SelectQuery>
    */
   public SelectQuery setOffset(Object offset) {
     _offset = Converter.toValueSqlObject(offset);
+    modified();
     return this;
   }
 
@@ -478,6 +481,7 @@ public class SelectQuery extends BaseCTEQuery<SelectQuery>
    */
   public SelectQuery setFetchNext(Object fetchCount) {
     _fetchCount = Converter.toValueSqlObject(fetchCount);
+    modified();
     return this;
   }
 
@@ -526,6 +530,42 @@ public class SelectQuery extends BaseCTEQuery<SelectQuery>
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * A SelectQuery estimates its length as the sum of the estimates of its
+   * clauses plus the keywords (not including any customizations).  If the
+   * joins are generated automatically, a single table is assumed.
+   */
+  @Override
+  protected int estimateLength() {
+    // "SELECT ... FROM ..."
+    long len = estimateCommonTableExpressionsLength() + 13L +
+      _columns.estimateLength();
+    len += (_joins.isEmpty() ? DEFAULT_ESTIMATED_LENGTH :
+            _joins.estimateLength());
+    // " WHERE ", " GROUP BY ", " HAVING ", " WINDOW ", " ORDER BY "
+    len += estimateClauseLength(7, _condition);
+    len += estimateClauseLength(10, _grouping);
+    len += estimateClauseLength(8, _having);
+    len += estimateClauseLength(8, _windows);
+    len += estimateClauseLength(10, _ordering);
+    // " OFFSET <offset> ROWS", " FETCH NEXT <count> ROWS ONLY"
+    len += estimateClauseLength(13, _offset);
+    len += estimateClauseLength(22, _fetchCount);
+    return (int)Math.min(len, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @return the estimated length of the given clause plus the given length
+   *         of its keywords, or 0 if the clause is empty
+   */
+  private static long estimateClauseLength(int keywordsLen,
+                                           SqlObject clause) {
+    int clauseLen = estimateLength(clause);
+    return ((clauseLen > 0) ? (keywordsLen + (long)clauseLen) : 0L);
+  }
+
   @Override
   public void validate(ValidationContext vContext)
     throws ValidationException
@@ -553,9 +593,9 @@ public class SelectQuery extends BaseCTEQuery<SelectQuery>
       // _joins  = F0, T0, T1, T2 ...
       // _joinFromTables = F0, F1, F2 ...
       //
-      Set<Table> joinTables = new HashSet<Table>();
-      Set<Table> fromTable = new HashSet<Table>();
-      Set<Column> joinColumns = new HashSet<Column>();
+      Set<Table> joinTables = new IdentitySet<Table>();
+      Set<Table> fromTable = new IdentitySet<Table>();
+      Set<Column> joinColumns = new IdentitySet<Column>();
       Iterator<SqlObject> fromIter = _joinFromTables.iterator();
       Iterator<SqlObject> toIter = _joins.iterator();
 
@@ -713,12 +753,14 @@ public class SelectQuery extends BaseCTEQuery<SelectQuery>
     // auto generate the join tables from all the referenced columns
     SqlObjectList<SqlObject> joins = SqlObjectList.create();
 
-    // note, we don't cache this collection because we don't want the
-    // appendTo() method to mutate object state.
-    // note, we use LinkedHashSet to preserve the order that the tables were
-    // referenced (for lack of a better choice of ordering)
-    ValidationContext tmpVContext = new ValidationContext(
-        null, new LinkedHashSet<Column>());
+    // note, we don't cache this collection on the query because we don't want
+    // the appendTo() method to mutate object state (it is only cached for
+    // the duration of the current sql generation, see below).
+    // note, IdentitySet preserves the order that the tables were referenced
+    // (for lack of a better choice of ordering).
+    // note, we do "local only" collection because any nested queries collect
+    // into their own nested contexts anyway
+    ValidationContext tmpVContext = new ValidationContext(true);
     collectSchemaObjects(tmpVContext);
 
     if(tmpVContext.getColumns().isEmpty()) {
@@ -726,26 +768,32 @@ public class SelectQuery extends BaseCTEQuery<SelectQuery>
       return joins;
     }
 
-    Collection<Table> columnTables = tmpVContext.getColumnTables(
-        new LinkedHashSet<Table>());
+    Collection<Table> columnTables = tmpVContext.getColumnTables();
 
     if(newContext.getParent() != null) {
 
       // this query is nested.  some of the column refs may be from tables
-      // in the outer queries.  note, we do "local only" collection as we
-      // are going up the nesting chain and do not need to descend past the
-      // relevant local context
-      ValidationContext outerVContext = new ValidationContext(true);
+      // in the outer queries.  the tables referenced by each query are
+      // shared by all the queries nested within it during this sql
+      // generation, so each query is only collected once (instead of once
+      // for every nested query)
+      Map<Query<?>,Collection<Table>> scopeTables =
+        newContext.getScopeTables();
+      scopeTables.put(this, columnTables);
+      Collection<Table> localTables = columnTables;
+      columnTables = new IdentitySet<Table>(localTables.size());
+      columnTables.addAll(localTables);
+
+      Query<?> prevQuery = this;
       SqlContext tmpContext = newContext;
       while((tmpContext = tmpContext.getParent()) != null) {
         Query<?> parentQuery = tmpContext.getQuery();
-        if(parentQuery != null) {
-          parentQuery.collectSchemaObjects(outerVContext);
+        if((parentQuery != null) && (parentQuery != prevQuery)) {
+          // remove any outer tables from the columnTables collection
+          columnTables.removeAll(getScopeTables(parentQuery, scopeTables));
+          prevQuery = parentQuery;
         }
       }
-
-      // remove any outer tables from the columnTables collection
-      columnTables.removeAll(outerVContext.getColumnTables());
     }
 
     for(Table table : columnTables) {
@@ -755,6 +803,26 @@ public class SelectQuery extends BaseCTEQuery<SelectQuery>
     return joins;
   }
 
+  /**
+   * Returns the tables of the columns referenced locally by the given (outer)
+   * query, collecting them if they have not already been collected during
+   * the current sql generation.
+   */
+  private static Collection<Table> getScopeTables(
+      Query<?> query, Map<Query<?>,Collection<Table>> scopeTables)
+  {
+    Collection<Table> tables = scopeTables.get(query);
+    if(tables == null) {
+      // note, we do "local only" collection as we are going up the nesting
+      // chain and do not need to descend past the relevant local context
+      ValidationContext outerVContext = new ValidationContext(true);
+      query.collectSchemaObjects(outerVContext);
+      tables = outerVContext.getColumnTables();
+      scopeTables.put(query, tables);
+    }
+    return tables;
+  }
+
   /**
    * Returns <code>true</code> iff the given column list contains some sort of
    * "*" syntax as a column placeholder.
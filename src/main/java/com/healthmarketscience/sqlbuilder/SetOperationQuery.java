@@ -219,6 +219,15 @@ public class SetOperationQuery<ThisType extends SetOperationQuery<ThisType>>
     _queries.collectSchemaObjects(vContext);
   }
 
+  @Override
+  protected int estimateLength() {
+    long len = _queries.estimateLength();
+    if(!_ordering.isEmpty()) {
+      len += 10L + _ordering.estimateLength();
+    }
+    return (int)Math.min(len, Integer.MAX_VALUE);
+  }
+
   @Override
   protected void appendTo(AppendableExt app, SqlContext newContext)
     throws IOException
@@ -341,6 +350,13 @@ public class SetOperationQuery<ThisType extends SetOperationQuery<ThisType>>
       return _query;
     }
 
+    @Override
+    protected int estimateLength() {
+      return (int)Math.min(estimateLength(_query) +
+                           ((_type != null) ? _type.toString().length() : 0L),
+                           Integer.MAX_VALUE);
+    }
+
     @Override
     public void appendTo(AppendableExt app) throws IOException {
       // type is null for the first query
@@ -0,0 +1,219 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+
+/**
+ * Generates the SQL for a list of independent statements in parallel (on a
+ * ForkJoinPool), while producing the results in the original order.
+ * Useful for generating large scripts, e.g. the DDL for an entire schema.
+ * <p>
+ * The statements are split into chunks which are generated by the pool
+ * threads (each using its own buffer, see {@link SqlRenderer}).  The
+ * completed chunks are handed back to the calling thread in order, and only
+ * a bounded number of chunks are generated ahead of the one being written,
+ * so memory use does not grow with the size of the script.
+ * <p>
+ * The statements must be independent: they may share dbspec objects, but
+ * must not share mutable SqlObjects (e.g. PlaceHolders, which are modified
+ * when the SQL is generated).  Any given SqlContext is cloned for each
+ * statement, so it should not contain state which is accumulated during SQL
+ * generation (e.g. a {@link ParameterMap}).
+ * <p>
+ * Example:
+ * <pre>
+ *   List&lt;SqlObject&gt; statements = new ArrayList&lt;SqlObject&gt;();
+ *   for(DbTable table : schema.getTables()) {
+ *     statements.add(new CreateTableQuery(table, true));
+ *   }
+ *   try(SqlScriptWriter script = new SqlScriptWriter(
+ *           Files.newOutputStream(path))) {
+ *     new SqlBatchRenderer().write(statements, script);
+ *   }
+ * </pre>
+ *
+ * @author agent
+ */
+public class SqlBatchRenderer
+{
+  /** the default number of statements generated by each task */
+  public static final int DEFAULT_CHUNK_SIZE = 64;
+
+  private final ForkJoinPool _pool;
+  private final int _chunkSize;
+  private final int _maxPendingChunks;
+
+  /**
+   * Generates statements using the common ForkJoinPool.
+   */
+  public SqlBatchRenderer() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public SqlBatchRenderer(ForkJoinPool pool) {
+    this(pool, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * @param pool the pool on which to generate the statements
+   * @param chunkSize the number of statements generated by each task
+   */
+  public SqlBatchRenderer(ForkJoinPool pool, int chunkSize) {
+    if(chunkSize < 1) {
+      throw new IllegalArgumentException("Invalid chunk size " + chunkSize);
+    }
+    _pool = pool;
+    _chunkSize = chunkSize;
+    _maxPendingChunks = Math.max(2, pool.getParallelism() * 2);
+  }
+
+  /**
+   * @return the pool on which the statements are generated
+   */
+  public ForkJoinPool getPool() {
+    return _pool;
+  }
+
+  /**
+   * @return the number of statements generated by each task
+   */
+  public int getChunkSize() {
+    return _chunkSize;
+  }
+
+  /**
+   * @param statements the statements to generate
+   * @param context optional custom SqlContext for the SQL generation (cloned
+   *                for each statement)
+   * @return the SQL generated by each of the given statements, in order
+   */
+  public List<String> render(List<? extends SqlObject> statements,
+                             SqlContext context)
+  {
+    final List<String> sqls = new ArrayList<String>(statements.size());
+    try {
+      renderChunks(statements, context, new ChunkHandler() {
+          @Override
+          public void handle(String[] chunk) {
+            sqls.addAll(Arrays.asList(chunk));
+          }
+        });
+    } catch(IOException e) {
+      // the handler does no io
+      throw new IllegalStateException(e);
+    }
+    return sqls;
+  }
+
+  /**
+   * Writes the SQL for each of the given statements (generated within the
+   * context of the given script writer), each followed by the statement
+   * separator.
+   *
+   * @param statements the statements to write, in order
+   * @param script the script to which the statements are written
+   */
+  public void write(List<? extends SqlObject> statements,
+                    final SqlScriptWriter script)
+    throws IOException
+  {
+    renderChunks(statements, script.getContext(), new ChunkHandler() {
+        @Override
+        public void handle(String[] chunk) throws IOException {
+          for(String sql : chunk) {
+            script.writeRendered(sql);
+          }
+        }
+      });
+  }
+
+  private void renderChunks(List<? extends SqlObject> statements,
+                            SqlContext context, ChunkHandler handler)
+    throws IOException
+  {
+    int numStatements = statements.size();
+    int numChunks = (numStatements + _chunkSize - 1) / _chunkSize;
+    Deque<ForkJoinTask<String[]>> pending =
+      new ArrayDeque<ForkJoinTask<String[]>>(_maxPendingChunks);
+    int nextChunk = 0;
+    try {
+      for(int i = 0; i < numChunks; ++i) {
+        // keep the pool busy while the completed chunks are handled
+        while((nextChunk < numChunks) &&
+              (pending.size() < _maxPendingChunks)) {
+          int start = nextChunk * _chunkSize;
+          int end = Math.min(start + _chunkSize, numStatements);
+          pending.add(_pool.submit(
+                          new ChunkTask(statements.subList(start, end),
+                                        context)));
+          ++nextChunk;
+        }
+        // join rethrows any exception thrown by the SQL generation (possibly
+        // wrapped in an exception of the same type)
+        handler.handle(pending.remove().join());
+      }
+    } finally {
+      for(ForkJoinTask<String[]> task : pending) {
+        task.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Generates the SQL for a chunk of statements.
+   */
+  private static final class ChunkTask implements Callable<String[]>
+  {
+    private final List<? extends SqlObject> _statements;
+    private final SqlContext _context;
+
+    private ChunkTask(List<? extends SqlObject> statements,
+                      SqlContext context) {
+      _statements = statements;
+      _context = context;
+    }
+
+    @Override
+    public String[] call() {
+      String[] sqls = new String[_statements.size()];
+      for(int i = 0; i < sqls.length; ++i) {
+        sqls[i] = SqlRenderer.render(
+            _statements.get(i), ((_context != null) ? _context.clone() : null));
+      }
+      return sqls;
+    }
+  }
+
+  /**
+   * Handles completed chunks (in order) on the calling thread.
+   */
+  private static abstract class ChunkHandler
+  {
+    public abstract void handle(String[] chunk) throws IOException;
+  }
+}
@@ -16,7 +16,14 @@ limitations under the License.
 
 package com.healthmarketscience.sqlbuilder;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
 import com.healthmarketscience.common.util.AppendableExt;
+import com.healthmarketscience.sqlbuilder.dbspec.Table;
 
 /**
  * Object which maintains context for the sqlbuilder classes when a SQL
@@ -48,7 +55,45 @@ public class SqlContext implements Cloneable
 
   /** handle to the immediate wrapping query */
   private Query<?> _query;
-  
+
+  /** collector for the indexes of the PlaceHolders written during the
+      current SQL generation, if any (shared by all nested contexts) */
+  private ParameterMap _parameterMap;
+  /** collector for the PlaceHolders written within a chunk of a list which
+      is generated in parallel when the actual generation has no
+      ParameterMap (not visible via getParameterMap()) */
+  private ParameterMap _chunkParameterMap;
+
+  /** default strategy for generating InConditions which do not have their
+      own strategy */
+  private InCondition.Strategy _inConditionStrategy;
+
+  /** the tables referenced locally by each query during the current SQL
+      generation (only set on the context of the outermost query) */
+  private Map<Query<?>,Collection<Table>> _scopeTables;
+
+  /** format for generating TypedValueObjects, if not the default */
+  private TypedValueObject.Format _literalFormat;
+
+  /** SqlObjectLists with at least this many objects are generated in
+      parallel, 0 if disabled */
+  private int _parallelListThreshold;
+
+  /** the pool used to generate SqlObjectLists in parallel, if not the
+      common pool */
+  private ForkJoinPool _parallelListPool;
+
+  /** flag indicating whether quotes within ValueObjects should be
+      escaped */
+  private boolean _escapeLiterals = ValueObject.DEFAULT_ESCAPE_LITERALS;
+
+  /** escaper for ValueObjects, if not the default */
+  private ValueObject.Escaper _literalEscaper;
+
+  /** flag indicating whether literal values should be generated as
+      <code>?</code> (used to generate the "shape" of a query) */
+  private boolean _useLiteralParameters;
+
   public SqlContext() {
   }
 
@@ -113,7 +158,199 @@ public class SqlContext implements Cloneable
   public void setQuery(Query<?> newQuery) {
     _query = newQuery;
   }
+
+  /**
+   * Gets the map in which the indexes of the PlaceHolders written during the
+   * current SQL generation are recorded, if any.
+   */
+  public ParameterMap getParameterMap() {
+    return _parameterMap;
+  }
+
+  /**
+   * Sets the map in which the indexes of the PlaceHolders written during the
+   * current SQL generation are recorded.  When set, the PlaceHolders
+   * themselves are not modified by the SQL generation.
+   * @see ParameterMap
+   */
+  public void setParameterMap(ParameterMap newParameterMap) {
+    _parameterMap = newParameterMap;
+  }
+
+  /**
+   * Sets the map in which the PlaceHolders written within a chunk of a list
+   * generated in parallel are recorded when the actual generation has no
+   * ParameterMap (the PlaceHolders are assigned their indexes once all the
+   * chunks are complete).  Unlike {@link #setParameterMap}, the map is not
+   * returned by {@link #getParameterMap}, so all the other objects are
+   * generated exactly as they would be without a ParameterMap.
+   */
+  void setChunkParameterMap(ParameterMap newChunkParameterMap) {
+    _chunkParameterMap = newChunkParameterMap;
+  }
+
+  /**
+   * @return the map in which PlaceHolders should record their indexes, if
+   *         any
+   */
+  ParameterMap getSlotParameterMap() {
+    return ((_parameterMap != null) ? _parameterMap : _chunkParameterMap);
+  }
+
+  /**
+   * Gets the default strategy for generating InConditions which do not have
+   * their own strategy, if any.
+   */
+  public InCondition.Strategy getInConditionStrategy() {
+    return _inConditionStrategy;
+  }
+
+  /**
+   * Sets the default strategy for generating InConditions which do not have
+   * their own strategy (e.g. a strategy appropriate for the target
+   * database).
+   */
+  public void setInConditionStrategy(InCondition.Strategy newStrategy) {
+    _inConditionStrategy = newStrategy;
+  }
+
+  /**
+   * Gets the format for generating typed literal values (see
+   * {@link TypedValueObject}), if any.
+   */
+  public TypedValueObject.Format getLiteralFormat() {
+    return _literalFormat;
+  }
+
+  /**
+   * Sets the format for generating typed literal values (see
+   * {@link TypedValueObject}), e.g. a format appropriate for the target
+   * database.  If no format is set (the default), typed values are
+   * generated as plain quoted strings.
+   */
+  public void setLiteralFormat(TypedValueObject.Format newLiteralFormat) {
+    _literalFormat = newLiteralFormat;
+  }
+
+  /**
+   * Gets the minimum size of the SqlObjectLists which are generated in
+   * parallel, 0 if parallel generation is disabled (the default).
+   */
+  public int getParallelListThreshold() {
+    return _parallelListThreshold;
+  }
+
+  /**
+   * Sets the minimum size of the SqlObjectLists (e.g. the columns of a
+   * select query or the conditions of a ComboCondition) which are generated
+   * in parallel, 0 to disable parallel generation (the default).  Chunks of
+   * the list are generated into separate buffers (each with a copy of the
+   * current context) which are then concatenated in order, so the generated
+   * SQL (and the indexes of any PlaceHolders) are the same as when generated
+   * serially.  Nested lists within a list which is generated in parallel are
+   * generated serially.
+   * <p>
+   * Note, the objects within the list must not modify any shared state
+   * (other than the indexes of PlaceHolders) when generated, e.g. an
+   * InCondition strategy which adds StaticPlaceHolders to a QueryPreparer.
+   */
+  public void setParallelListThreshold(int newParallelListThreshold) {
+    _parallelListThreshold = newParallelListThreshold;
+  }
+
+  /**
+   * Gets the pool used to generate SqlObjectLists in parallel, if not the
+   * common ForkJoinPool.
+   */
+  public ForkJoinPool getParallelListPool() {
+    return _parallelListPool;
+  }
+
+  /**
+   * Sets the pool used to generate SqlObjectLists in parallel ({@code null}
+   * to use the common ForkJoinPool).
+   * @see #setParallelListThreshold
+   */
+  public void setParallelListPool(ForkJoinPool newParallelListPool) {
+    _parallelListPool = newParallelListPool;
+  }
+
+  /**
+   * Gets whether or not quotes within literal values (see
+   * {@link ValueObject}) are escaped.
+   */
+  public boolean getEscapeLiterals() {
+    return _escapeLiterals;
+  }
+
+  /**
+   * Sets whether or not quotes within literal values (see
+   * {@link ValueObject}) are escaped, as appropriate for the current
+   * {@link #setLiteralEscaper literal escaper}.  Defaults to the value of the
+   * system property {@value ValueObject#ESCAPE_LITERALS_PROPERTY}.
+   */
+  public void setEscapeLiterals(boolean newEscapeLiterals) {
+    _escapeLiterals = newEscapeLiterals;
+  }
+
+  /**
+   * Gets the escaper for literal values (see {@link ValueObject}), if any.
+   */
+  public ValueObject.Escaper getLiteralEscaper() {
+    return _literalEscaper;
+  }
+
+  /**
+   * Sets the escaper used for literal values (see {@link ValueObject}) when
+   * {@link #setEscapeLiterals escaping} is enabled, e.g. an escaper
+   * appropriate for the target database.  If no escaper is set (the
+   * default), the {@link ValueObject#STANDARD_ESCAPER} is used.  The escaper
+   * is independent of the {@link #setLiteralFormat literal format}.
+   */
+  public void setLiteralEscaper(ValueObject.Escaper newLiteralEscaper) {
+    _literalEscaper = newLiteralEscaper;
+  }
+
+  /**
+   * Gets whether or not literal values (see {@link ValueObject} and
+   * {@link NumberValueObject}) are generated as <code>?</code>.
+   */
+  public boolean getUseLiteralParameters() {
+    return _useLiteralParameters;
+  }
+
+  /**
+   * Sets whether or not literal values (see {@link ValueObject} and
+   * {@link NumberValueObject}) are generated as <code>?</code>.  This may
+   * be used to generate the "shape" of a query, independent of the literal
+   * values (the generated SQL will not have values for the literals).
+   */
+  public void setUseLiteralParameters(boolean newUseLiteralParameters) {
+    _useLiteralParameters = newUseLiteralParameters;
+  }
   
+  /**
+   * Gets the cache of the tables referenced locally by each query during the
+   * current SQL generation (see {@link SelectQuery}).  The cache is kept in
+   * the context of the outermost query, which is unique to the current SQL
+   * generation, so it is shared by all nested queries (which may be
+   * generated in parallel, see {@link #setParallelListThreshold}).
+   */
+  Map<Query<?>,Collection<Table>> getScopeTables() {
+    SqlContext queryContext = this;
+    for(SqlContext context = this; context != null;
+        context = context.getParent()) {
+      if(context.getQuery() != null) {
+        queryContext = context;
+      }
+    }
+    if(queryContext._scopeTables == null) {
+      queryContext._scopeTables = Collections.synchronizedMap(
+          new IdentityHashMap<Query<?>,Collection<Table>>());
+    }
+    return queryContext._scopeTables;
+  }
+
   @Override
   public SqlContext clone() {
     try {
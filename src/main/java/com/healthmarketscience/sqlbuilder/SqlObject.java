@@ -20,7 +20,6 @@ import java.io.IOException;
 
 import com.healthmarketscience.common.util.AppendableExt;
 import com.healthmarketscience.common.util.AppendeeObject;
-import com.healthmarketscience.common.util.StringAppendableExt;
 
 
 
@@ -44,7 +43,9 @@ public abstract class SqlObject extends AppendeeObject
         app.append("?");
       }
       @Override
-      protected void collectSchemaObjects(ValidationContext vContext) {}
+      protected void collectSchemaObjects(ValidationContext vContext) {
+        vContext.addParameter();
+      }
     };
 
   /** SqlObject which represents a <code>*</code> string for generating
@@ -70,21 +71,66 @@ public abstract class SqlObject extends AppendeeObject
       protected void collectSchemaObjects(ValidationContext vContext) {}
     };
 
+  /** estimated length of the SQL generated by an object which does not
+      provide a better estimate */
+  protected static final int DEFAULT_ESTIMATED_LENGTH = 8;
+
   protected SqlObject() {
   }
 
+  /**
+   * Creates a SQL string from this object using the reusable per-thread
+   * buffer of {@link SqlRenderer}.
+   * @return the generated SQL query
+   */
+  @Override
+  public String toString() {
+    return toString(SqlRenderer.DEFAULT_BUFFER_SIZE, null);
+  }
+
+  /**
+   * Creates a SQL string from this object using the reusable per-thread
+   * buffer of {@link SqlRenderer}.
+   * @param size initial size of the output buffer (if a new one is needed)
+   * @return the generated SQL query
+   */
+  @Override
+  public String toString(int size) {
+    return toString(size, null);
+  }
+
   /**
    * Creates a SQL string from this object using the given initial size for
    * the AppendableExt buffer and the given SqlContext.  Useful for
    * introducing custom contexts or context settings to the SQL generation.
-   * @param size initial size of the output buffer
+   * @param size initial size of the output buffer (if a new one is needed)
    * @param context optional custom SqlContext for the SQL generation
    * @return the generated SQL query
    */
   public String toString(int size, SqlContext context) {
-    StringAppendableExt app = new StringAppendableExt(size);
-    app.setContext(context);
-    return app.append(this).toString();
+    return SqlRenderer.render(this, size, context);
+  }
+
+  /**
+   * Returns an estimate of the length of the SQL generated by this object,
+   * used to pre-size the output buffer when generating SQL.  The default
+   * implementation returns {@link #DEFAULT_ESTIMATED_LENGTH}.  Composite
+   * objects may sum the estimates of their children (which should be cheap
+   * relative to actually generating the SQL).
+   * @return the estimated number of characters generated by this object
+   */
+  protected int estimateLength() {
+    return DEFAULT_ESTIMATED_LENGTH;
+  }
+
+  /**
+   * Utility method for classes which may not be in this package to invoke
+   * {@link #estimateLength()} on a SqlObject.
+   * @param obj relevant sql object, may be {@code null}
+   * @return the estimated length of the given object, 0 if {@code null}
+   */
+  public static int estimateLength(SqlObject obj) {
+    return ((obj != null) ? obj.estimateLength() : 0);
   }
 
   /**
@@ -37,6 +37,9 @@ import com.healthmarketscience.common.util.AppendableExt;
  * said, sometimes it is desirable to have the more readable separator of
  * ", ".  This can be enabled by setting the system property
  * {@value USE_SPACE_AFTER_DELIMITER_PROPERTY} to {@code true}.
+ * <p>
+ * Very large lists may optionally be generated in parallel, see
+ * {@link SqlContext#setParallelListThreshold}.
  *
  * @author James Ahlborn
  */
@@ -54,11 +57,11 @@ public class SqlObjectList<ObjType extends SqlObject> extends SqlObject
   private final List<ObjType> _objects;
 
   public SqlObjectList() {
-    this(DEFAULT_DELIMITER, new ArrayList<ObjType>(4));
+    this(DEFAULT_DELIMITER, new ObjectList<ObjType>());
   }
 
   public SqlObjectList(String delimiter) {
-    this(delimiter, new ArrayList<ObjType>(4));
+    this(delimiter, new ObjectList<ObjType>());
   }
 
   public SqlObjectList(String delimiter, List<ObjType> objects) {
@@ -106,6 +109,19 @@ public class SqlObjectList<ObjType extends SqlObject> extends SqlObject
    */
   public void clear() { _objects.clear(); }
 
+  /**
+   * Returns the number of structural modifications (additions and removals)
+   * made to this list so far, used to detect modifications since a query
+   * was last validated.  Note that replacing objects (via
+   * {@link ListIterator#set}) is not counted.
+   * @return the modification count, or -1 if modifications are not tracked
+   *         (the list was given to the constructor)
+   */
+  int getModCount() {
+    return ((_objects instanceof ObjectList<?>) ?
+            ((ObjectList<?>)_objects).getModCount() : -1);
+  }
+
   /**
    * Returns the object at the specified index.
    */
@@ -204,14 +220,59 @@ public class SqlObjectList<ObjType extends SqlObject> extends SqlObject
 
   @Override
   protected void collectSchemaObjects(ValidationContext vContext) {
+    vContext.addModCount(this, getModCount());
     for(ObjType obj : _objects) {
       obj.collectSchemaObjects(vContext);
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * A list estimates its length as the sum of the estimates of its objects
+   * plus the delimiters (limited to {@code Integer.MAX_VALUE}).
+   */
+  @Override
+  protected int estimateLength() {
+    int numObjs = _objects.size();
+    if(numObjs == 0) {
+      return 0;
+    }
+    long len = (numObjs - 1L) * _delimiter.length();
+    for(ObjType obj : _objects) {
+      len += estimateLength(obj);
+    }
+    return (int)Math.min(len, Integer.MAX_VALUE);
+  }
+
   @Override
   public void appendTo(AppendableExt app) throws IOException
   {
+    Object context = app.getContext();
+    if(context instanceof SqlContext) {
+      int threshold = ((SqlContext)context).getParallelListThreshold();
+      if((threshold > 0) && (_objects.size() >= threshold)) {
+        ParallelListRenderer.appendTo(_objects, _delimiter,
+                                      (SqlContext)context, app);
+        return;
+      }
+    }
     app.append(this, _delimiter);
   }
+
+  /**
+   * ArrayList which exposes its structural modification count.
+   */
+  private static final class ObjectList<E> extends ArrayList<E>
+  {
+    private static final long serialVersionUID = 0L;
+
+    private ObjectList() {
+      super(4);
+    }
+
+    private int getModCount() {
+      return modCount;
+    }
+  }
 }
@@ -0,0 +1,175 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder;
+
+import com.healthmarketscience.common.util.StringAppendableExt;
+
+
+/**
+ * Utility for generating SQL strings using a reusable, per-thread buffer.
+ * After the first call on a given thread, generating SQL allocates nothing
+ * beyond the final String (and whatever the individual SqlObjects allocate
+ * internally).  This is the mechanism used by the {@code toString} methods
+ * of {@link SqlObject}.
+ * <p>
+ * New buffers are pre-sized using {@link SqlObject#estimateLength}, and the
+ * length of the SQL generated for each {@link Query} class is remembered for
+ * subsequent estimates, so large queries do not repeatedly grow the buffer
+ * (up to {@link #MAX_RETAINED_BUFFER_SIZE}).
+ * <p>
+ * Nested calls on the same thread (e.g. a custom object which generates SQL
+ * within its own {@code toString} method) are handled by using a temporary
+ * buffer for the nested call.  Buffers which grow beyond
+ * {@link #MAX_RETAINED_BUFFER_SIZE} characters are not retained in order to
+ * avoid pinning large amounts of memory to long-lived threads.  This limit
+ * can be changed by setting the system property
+ * {@value #MAX_RETAINED_BUFFER_SIZE_PROPERTY}.
+ *
+ * @author agent
+ */
+public class SqlRenderer
+{
+  public static final String MAX_RETAINED_BUFFER_SIZE_PROPERTY =
+    "com.healthmarketscience.sqlbuilder.maxRetainedBufferSize";
+
+  /** the maximum capacity of a buffer retained between calls */
+  public static final int MAX_RETAINED_BUFFER_SIZE =
+    Integer.getInteger(MAX_RETAINED_BUFFER_SIZE_PROPERTY, 64 * 1024);
+
+  /** default initial size of a new buffer */
+  static final int DEFAULT_BUFFER_SIZE = 256;
+
+  private static final ThreadLocal<RenderBuffer> BUFFERS =
+    new ThreadLocal<RenderBuffer>();
+
+  private SqlRenderer() {}
+
+  /**
+   * @return the SQL generated by the given object
+   */
+  public static String render(SqlObject obj) {
+    return render(obj, DEFAULT_BUFFER_SIZE, null);
+  }
+
+  /**
+   * @param obj the object for which to generate the SQL
+   * @param context optional custom SqlContext for the SQL generation
+   * @return the SQL generated by the given object
+   */
+  public static String render(SqlObject obj, SqlContext context) {
+    return render(obj, DEFAULT_BUFFER_SIZE, context);
+  }
+
+  /**
+   * @param obj the object for which to generate the SQL
+   * @param size initial size of the output buffer (if a new one is needed)
+   * @param context optional custom SqlContext for the SQL generation
+   * @return the SQL generated by the given object
+   */
+  public static String render(SqlObject obj, int size, SqlContext context) {
+    RenderBuffer buf = acquire(getInitialSize(obj, size));
+    try {
+      StringAppendableExt app = buf.getAppendable();
+      app.setContext(context);
+      String sql = app.append(obj).toString();
+      Query.recordLength(obj, sql.length());
+      return sql;
+    } finally {
+      release(buf);
+    }
+  }
+
+  /**
+   * Discards the buffer retained for the current thread, if any.
+   */
+  public static void clearThreadBuffer() {
+    BUFFERS.remove();
+  }
+
+  /**
+   * Returns the initial buffer size to use for generating the SQL for the
+   * given object, the larger of the given size and the object's
+   * {@link SqlObject#estimateLength estimated length} (or the length last
+   * generated by a Query of the same class).  The estimate is limited to
+   * {@link #MAX_RETAINED_BUFFER_SIZE} so that an oversized estimate does not
+   * repeatedly allocate a buffer which will not be retained.
+   */
+  static int getInitialSize(SqlObject obj, int size) {
+    int estimate = Math.max(Query.getLengthHint(obj),
+                            SqlObject.estimateLength(obj));
+    return Math.max(size, Math.min(estimate, MAX_RETAINED_BUFFER_SIZE));
+  }
+
+  /**
+   * Returns a cleared buffer (with at least the given capacity) for use by
+   * the current thread, which must be returned via {@link #release}.
+   */
+  static RenderBuffer acquire(int size) {
+    RenderBuffer buf = BUFFERS.get();
+    if(buf == null) {
+      buf = new RenderBuffer(size, true);
+      BUFFERS.set(buf);
+    } else if(buf._inUse) {
+      // nested call, use a temporary buffer
+      return new RenderBuffer(size, false);
+    } else {
+      buf._builder.setLength(0);
+      buf._builder.ensureCapacity(size);
+    }
+    buf._inUse = true;
+    return buf;
+  }
+
+  /**
+   * Returns a buffer acquired via {@link #acquire}.
+   */
+  static void release(RenderBuffer buf) {
+    if(!buf._retained) {
+      return;
+    }
+    buf._inUse = false;
+    buf._app.setContext(null);
+    if(buf._builder.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+      BUFFERS.remove();
+    }
+  }
+
+  /**
+   * A reusable StringBuilder and the StringAppendableExt which wraps it.
+   */
+  static final class RenderBuffer
+  {
+    private final StringBuilder _builder;
+    private final StringAppendableExt _app;
+    private final boolean _retained;
+    private boolean _inUse;
+
+    private RenderBuffer(int size, boolean retained) {
+      _builder = new StringBuilder(size);
+      _app = new StringAppendableExt(_builder);
+      _retained = retained;
+    }
+
+    StringBuilder getBuilder() {
+      return _builder;
+    }
+
+    StringAppendableExt getAppendable() {
+      return _app;
+    }
+  }
+}
@@ -0,0 +1,230 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import com.healthmarketscience.common.util.AppendableExt;
+
+
+/**
+ * Writes a script of SQL statements directly to a Writer (or byte stream),
+ * generating each statement straight into the output without building
+ * intermediate Strings.  Scripts of any size can therefore be written with
+ * constant memory.  Each statement is followed by the statement separator
+ * (by default {@code ";\n"}).
+ * <p>
+ * Unlike {@link Object#toString}, any IOException from the underlying output
+ * is propagated to the caller.
+ * <p>
+ * Example:
+ * <pre>
+ *   try(SqlScriptWriter script = new SqlScriptWriter(
+ *           Files.newOutputStream(path))) {
+ *     for(DbTable table : schema.getTables()) {
+ *       script.write(new CreateTableQuery(table, true));
+ *     }
+ *   }
+ * </pre>
+ * <p>
+ * Large scripts of independent statements may be generated in parallel
+ * using a {@link SqlBatchRenderer}.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author agent
+ */
+public class SqlScriptWriter implements Closeable, Flushable
+{
+  /** the default statement separator */
+  public static final String DEFAULT_SEPARATOR = ";\n";
+
+  private static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+  private final Writer _writer;
+  private final AppendableExt _app;
+  private final String _separator;
+  private SqlContext _context;
+  private int _statementCount;
+
+  /**
+   * Writes UTF-8 encoded SQL to the given stream.
+   */
+  public SqlScriptWriter(OutputStream out) {
+    this(out, DEFAULT_SEPARATOR);
+  }
+
+  /**
+   * Writes UTF-8 encoded SQL to the given stream, using the given statement
+   * separator.
+   */
+  public SqlScriptWriter(OutputStream out, String separator) {
+    this(new BufferedWriter(
+             new OutputStreamWriter(out, StandardCharsets.UTF_8),
+             DEFAULT_BUFFER_SIZE),
+         separator);
+  }
+
+  /**
+   * Writes UTF-8 encoded SQL to the given channel.
+   */
+  public SqlScriptWriter(WritableByteChannel channel) {
+    this(channel, DEFAULT_SEPARATOR);
+  }
+
+  /**
+   * Writes UTF-8 encoded SQL to the given channel, using the given statement
+   * separator.
+   */
+  public SqlScriptWriter(WritableByteChannel channel, String separator) {
+    this(new BufferedWriter(
+             Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(),
+                                -1),
+             DEFAULT_BUFFER_SIZE),
+         separator);
+  }
+
+  /**
+   * Writes SQL to the given Writer (which should generally be buffered).
+   */
+  public SqlScriptWriter(Writer writer) {
+    this(writer, DEFAULT_SEPARATOR);
+  }
+
+  /**
+   * Writes SQL to the given Writer (which should generally be buffered),
+   * using the given statement separator.
+   */
+  public SqlScriptWriter(Writer writer, String separator) {
+    _writer = writer;
+    _app = new AppendableExt(writer);
+    _separator = separator;
+  }
+
+  /**
+   * @return the statement separator written after each statement
+   */
+  public String getSeparator() {
+    return _separator;
+  }
+
+  /**
+   * @return the default SqlContext used when writing statements, if any
+   */
+  public SqlContext getContext() {
+    return _context;
+  }
+
+  /**
+   * Sets the default SqlContext used when writing statements.
+   */
+  public SqlScriptWriter setContext(SqlContext context) {
+    _context = context;
+    return this;
+  }
+
+  /**
+   * @return the number of statements written so far
+   */
+  public int getStatementCount() {
+    return _statementCount;
+  }
+
+  /**
+   * Writes the SQL for the given statement followed by the statement
+   * separator.
+   */
+  public SqlScriptWriter write(SqlObject statement) throws IOException {
+    return write(statement, _context);
+  }
+
+  /**
+   * Writes the SQL for the given statement (generated within the given
+   * context) followed by the statement separator.
+   */
+  public SqlScriptWriter write(SqlObject statement, SqlContext context)
+    throws IOException
+  {
+    _app.setContext(context);
+    _app.append(statement);
+    _writer.write(_separator);
+    ++_statementCount;
+    return this;
+  }
+
+  /**
+   * Writes the SQL for each of the given statements, each followed by the
+   * statement separator.
+   */
+  public SqlScriptWriter writeAll(Iterable<? extends SqlObject> statements)
+    throws IOException
+  {
+    for(SqlObject statement : statements) {
+      write(statement);
+    }
+    return this;
+  }
+
+  /**
+   * Writes the given, previously generated, SQL statement followed by the
+   * statement separator.  Used by {@link SqlBatchRenderer}.
+   */
+  SqlScriptWriter writeRendered(String sql) throws IOException {
+    _writer.write(sql);
+    _writer.write(_separator);
+    ++_statementCount;
+    return this;
+  }
+
+  /**
+   * Writes the given text as a SQL comment line (or lines).
+   */
+  public SqlScriptWriter writeComment(String comment) throws IOException {
+    int start = 0;
+    int len = comment.length();
+    do {
+      int end = comment.indexOf('\n', start);
+      if(end < 0) {
+        end = len;
+      }
+      _writer.write("-- ");
+      _writer.write(comment, start, end - start);
+      _writer.write('\n');
+      start = end + 1;
+    } while(start < len);
+    return this;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    _writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    _writer.close();
+  }
+}
@@ -52,6 +52,12 @@ public class Subquery extends Expression
   protected void collectSchemaObjects(ValidationContext vContext) {
     vContext.collectNestedQuerySchemaObjects(_query);
   }
+
+  @Override
+  protected int estimateLength() {
+    // the query plus the (possible) wrapping parens
+    return (int)Math.min(estimateLength(_query) + 2L, Integer.MAX_VALUE);
+  }
     
   @Override
   public void appendTo(AppendableExt app) throws IOException {
@@ -0,0 +1,386 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import com.healthmarketscience.common.util.AppendableExt;
+
+
+/**
+ * Outputs a typed literal value, e.g. <code>"DATE '2024-01-31'"</code>.
+ * Supports {@link LocalDate}, {@link LocalTime}, {@link LocalDateTime},
+ * {@link Instant}, {@link UUID} and {@code byte[]} values, which are
+ * written directly to the output (without intermediate Strings).  Typed
+ * literals are only generated if a {@link Format} appropriate for the
+ * target database (e.g. {@link #ANSI_FORMAT}) has been set on the
+ * {@link SqlContext}, otherwise the value is generated as a quoted string
+ * as by a {@link ValueObject}.
+ * <p>
+ * Values of these types are converted to TypedValueObjects by
+ * {@link Converter#toValueSqlObject(Object)}.
+ *
+ * @author agent
+ */
+public class TypedValueObject extends Expression
+{
+  /** Format which generates standard SQL typed literals:
+      <ul>
+      <li>{@code DATE 'yyyy-mm-dd'}</li>
+      <li>{@code TIME 'hh:mm:ss[.fffffffff]'}</li>
+      <li>{@code TIMESTAMP 'yyyy-mm-dd hh:mm:ss[.fffffffff]'}</li>
+      <li>{@code TIMESTAMP 'yyyy-mm-dd hh:mm:ss[.fffffffff] +00:00'}
+          (Instant)</li>
+      <li>{@code 'xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx'} (UUID)</li>
+      <li>{@code X'0123456789ABCDEF'} (byte[])</li>
+      </ul> */
+  public static final Format ANSI_FORMAT = new Format();
+
+  /** Format which generates date/time values using JDBC escape syntax (see
+      {@link JdbcEscape}), {@code {d 'yyyy-mm-dd'}},
+      {@code {t 'hh:mm:ss'}}, and {@code {ts 'yyyy-mm-dd hh:mm:ss[.f...]'}}
+      (Instants are written in UTC).  Note that the time escape does not
+      support fractional seconds, so they are <b>dropped</b> from
+      LocalTime values (use LocalDateTime values if they are significant).
+      Other values are written as in the {@link #ANSI_FORMAT}. */
+  public static final Format JDBC_ESCAPE_FORMAT = new Format() {
+      @Override
+      protected void appendDate(LocalDate value, AppendableExt app)
+        throws IOException
+      {
+        app.append("{d '");
+        appendDateDigits(value, app);
+        app.append("'}");
+      }
+
+      @Override
+      protected void appendTime(LocalTime value, AppendableExt app)
+        throws IOException
+      {
+        // the time escape does not support fractional seconds
+        app.append("{t '");
+        appendTimeDigits(value.withNano(0), app);
+        app.append("'}");
+      }
+
+      @Override
+      protected void appendTimestamp(LocalDateTime value, AppendableExt app)
+        throws IOException
+      {
+        app.append("{ts '");
+        appendDateDigits(value.toLocalDate(), app);
+        app.append(' ');
+        appendTimeDigits(value.toLocalTime(), app);
+        app.append("'}");
+      }
+
+      @Override
+      protected void appendInstant(Instant value, AppendableExt app)
+        throws IOException
+      {
+        appendTimestamp(toUtcDateTime(value), app);
+      }
+    };
+
+  private static final char[] UPPER_HEX_DIGITS =
+    "0123456789ABCDEF".toCharArray();
+  private static final char[] LOWER_HEX_DIGITS =
+    "0123456789abcdef".toCharArray();
+
+  private Object _value;
+
+  public TypedValueObject(LocalDate value) {
+    this((Object)value);
+  }
+
+  public TypedValueObject(LocalTime value) {
+    this((Object)value);
+  }
+
+  public TypedValueObject(LocalDateTime value) {
+    this((Object)value);
+  }
+
+  public TypedValueObject(Instant value) {
+    this((Object)value);
+  }
+
+  public TypedValueObject(UUID value) {
+    this((Object)value);
+  }
+
+  public TypedValueObject(byte[] value) {
+    this((Object)value);
+  }
+
+  /**
+   * @param value a value of one of the {@link #isSupported supported} types
+   */
+  public TypedValueObject(Object value) {
+    if((value == null) || !isSupported(value.getClass())) {
+      throw new IllegalArgumentException("Unsupported typed value " + value);
+    }
+    _value = value;
+  }
+
+  /** @return the value output by this object */
+  public Object getValue() {
+    return _value;
+  }
+
+  /**
+   * @return {@code true} if values of the given type may be output by a
+   *         TypedValueObject, {@code false} otherwise
+   */
+  public static boolean isSupported(Class<?> type) {
+    return ((type == LocalDate.class) || (type == LocalTime.class) ||
+            (type == LocalDateTime.class) || (type == Instant.class) ||
+            (type == UUID.class) || (type == byte[].class));
+  }
+
+  @Override
+  public boolean hasParens() { return false; }
+
+  @Override
+  protected void collectSchemaObjects(ValidationContext vContext) {
+  }
+
+  @Override
+  public void appendTo(AppendableExt app) throws IOException {
+    SqlContext context = SqlContext.getContext(app);
+    if(context.getUseLiteralParameters()) {
+      app.append(QUESTION_MARK);
+      return;
+    }
+    Format format = context.getLiteralFormat();
+    if(format == null) {
+      // typed literals are opt-in
+      ValueObject.appendValue(_value, context, app);
+      return;
+    }
+    format.appendTo(_value, app);
+  }
+
+  /**
+   * Format for generating the SQL for TypedValueObjects (escaping of string
+   * literals is configured separately, see {@link ValueObject.Escaper}).
+   * The default
+   * implementations generate standard SQL (see {@link #ANSI_FORMAT}),
+   * subclasses may override the methods for specific types as appropriate
+   * for the target database.
+   */
+  public static class Format
+  {
+    protected Format() {}
+
+    /**
+     * Appends the SQL for the given value (of a supported type) to the given
+     * AppendableExt.
+     */
+    protected void appendTo(Object value, AppendableExt app)
+      throws IOException
+    {
+      if(value instanceof LocalDate) {
+        appendDate((LocalDate)value, app);
+      } else if(value instanceof LocalTime) {
+        appendTime((LocalTime)value, app);
+      } else if(value instanceof LocalDateTime) {
+        appendTimestamp((LocalDateTime)value, app);
+      } else if(value instanceof Instant) {
+        appendInstant((Instant)value, app);
+      } else if(value instanceof UUID) {
+        appendUuid((UUID)value, app);
+      } else {
+        appendBinary((byte[])value, app);
+      }
+    }
+
+    protected void appendDate(LocalDate value, AppendableExt app)
+      throws IOException
+    {
+      app.append("DATE '");
+      appendDateDigits(value, app);
+      app.append('\'');
+    }
+
+    protected void appendTime(LocalTime value, AppendableExt app)
+      throws IOException
+    {
+      app.append("TIME '");
+      appendTimeDigits(value, app);
+      app.append('\'');
+    }
+
+    protected void appendTimestamp(LocalDateTime value, AppendableExt app)
+      throws IOException
+    {
+      app.append("TIMESTAMP '");
+      appendDateDigits(value.toLocalDate(), app);
+      app.append(' ');
+      appendTimeDigits(value.toLocalTime(), app);
+      app.append('\'');
+    }
+
+    protected void appendInstant(Instant value, AppendableExt app)
+      throws IOException
+    {
+      LocalDateTime dateTime = toUtcDateTime(value);
+      app.append("TIMESTAMP '");
+      appendDateDigits(dateTime.toLocalDate(), app);
+      app.append(' ');
+      appendTimeDigits(dateTime.toLocalTime(), app);
+      app.append(" +00:00'");
+    }
+
+    protected void appendUuid(UUID value, AppendableExt app)
+      throws IOException
+    {
+      app.append('\'');
+      appendUuidDigits(value, app);
+      app.append('\'');
+    }
+
+    protected void appendBinary(byte[] value, AppendableExt app)
+      throws IOException
+    {
+      app.append("X'");
+      appendHexDigits(value, app);
+      app.append('\'');
+    }
+
+    /**
+     * Appends the given decimal value (used by {@link NumberValueObject}).
+     * The default implementation avoids exponential notation (e.g.
+     * {@code "1E+3"}), which is not valid in all databases.
+     */
+    protected void appendDecimal(BigDecimal value, AppendableExt app)
+      throws IOException
+    {
+      app.append(value.toPlainString());
+    }
+
+    /**
+     * Appends the given date as {@code yyyy-mm-dd}.
+     */
+    protected static void appendDateDigits(LocalDate value, AppendableExt app)
+      throws IOException
+    {
+      int year = value.getYear();
+      if((year >= 0) && (year <= 9999)) {
+        appendDigits(year, 4, app);
+      } else {
+        app.append(Integer.toString(year));
+      }
+      app.append('-');
+      appendDigits(value.getMonthValue(), 2, app);
+      app.append('-');
+      appendDigits(value.getDayOfMonth(), 2, app);
+    }
+
+    /**
+     * Appends the given time as {@code hh:mm:ss[.fffffffff]} (the fractional
+     * seconds are omitted if zero and trailing zeros are trimmed).
+     */
+    protected static void appendTimeDigits(LocalTime value, AppendableExt app)
+      throws IOException
+    {
+      appendDigits(value.getHour(), 2, app);
+      app.append(':');
+      appendDigits(value.getMinute(), 2, app);
+      app.append(':');
+      appendDigits(value.getSecond(), 2, app);
+      int nano = value.getNano();
+      if(nano != 0) {
+        int width = 9;
+        while((nano % 10) == 0) {
+          nano /= 10;
+          --width;
+        }
+        app.append('.');
+        appendDigits(nano, width, app);
+      }
+    }
+
+    /**
+     * Appends the given UUID in its standard (lower case) hex form.
+     */
+    protected static void appendUuidDigits(UUID value, AppendableExt app)
+      throws IOException
+    {
+      long msb = value.getMostSignificantBits();
+      long lsb = value.getLeastSignificantBits();
+      appendHexDigits(msb >>> 32, 8, app);
+      app.append('-');
+      appendHexDigits(msb >>> 16, 4, app);
+      app.append('-');
+      appendHexDigits(msb, 4, app);
+      app.append('-');
+      appendHexDigits(lsb >>> 48, 4, app);
+      app.append('-');
+      appendHexDigits(lsb, 12, app);
+    }
+
+    /**
+     * Appends the given bytes as (upper case) hex digits.
+     */
+    protected static void appendHexDigits(byte[] value, AppendableExt app)
+      throws IOException
+    {
+      for(byte b : value) {
+        app.append(UPPER_HEX_DIGITS[(b >> 4) & 0x0F])
+          .append(UPPER_HEX_DIGITS[b & 0x0F]);
+      }
+    }
+
+    private static void appendDigits(int value, int width, AppendableExt app)
+      throws IOException
+    {
+      int div = 1;
+      for(int i = 1; i < width; ++i) {
+        div *= 10;
+      }
+      for(; div > 0; div /= 10) {
+        app.append((char)('0' + ((value / div) % 10)));
+      }
+    }
+
+    private static void appendHexDigits(long value, int width,
+                                        AppendableExt app)
+      throws IOException
+    {
+      for(int shift = (width - 1) * 4; shift >= 0; shift -= 4) {
+        app.append(LOWER_HEX_DIGITS[(int)((value >>> shift) & 0x0F)]);
+      }
+    }
+
+    /**
+     * @return the given Instant as a date/time in UTC
+     */
+    protected static LocalDateTime toUtcDateTime(Instant value) {
+      return LocalDateTime.ofEpochSecond(value.getEpochSecond(),
+                                         value.getNano(), ZoneOffset.UTC);
+    }
+  }
+}
@@ -101,6 +101,17 @@ public class UpdateQuery extends BaseCTEQuery<UpdateQuery>
     _condition.collectSchemaObjects(vContext);
   }
 
+  @Override
+  protected int estimateLength() {
+    // "UPDATE <table> SET <sets> WHERE <condition>"
+    long len = estimateCommonTableExpressionsLength() + 12L +
+      estimateLength(_table) + _sets.estimateLength();
+    if(!_condition.isEmpty()) {
+      len += 7L + _condition.estimateLength();
+    }
+    return (int)Math.min(len, Integer.MAX_VALUE);
+  }
+
   @Override
   protected void appendTo(AppendableExt app, SqlContext newContext)
     throws IOException
@@ -135,6 +146,12 @@ public class UpdateQuery extends BaseCTEQuery<UpdateQuery>
       _column.collectSchemaObjects(vContext);
       _value.collectSchemaObjects(vContext);
     }
+
+    @Override
+    protected int estimateLength() {
+      return (int)Math.min(estimateLength(_column) + 3L +
+                           estimateLength(_value), Integer.MAX_VALUE);
+    }
     
     @Override
     public void appendTo(AppendableExt app) throws IOException {
@@ -19,7 +19,6 @@ package com.healthmarketscience.sqlbuilder;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Map;
 
 import com.healthmarketscience.sqlbuilder.dbspec.Column;
@@ -27,6 +26,12 @@ import com.healthmarketscience.sqlbuilder.dbspec.Table;
 
 /**
  * Object used to accummulate state during query validation.
+ * <p>
+ * Unless otherwise specified, the tables and columns are collected into sets
+ * which compare by identity (Table and Column objects are never considered
+ * equal unless they are the same object).  A ValidationContext may be
+ * {@link #reset} and reused for multiple validations (see
+ * {@link #validate(SqlObject)}), which avoids re-allocating the collections.
  *
  * @author james
  */
@@ -42,6 +47,12 @@ public class ValidationContext {
       subqueries */
   private boolean _localOnly;
   private Collection<Map.Entry<ValidationContext,? extends Verifiable<?>>> _verifiables;
+  /** the modification counts of the collected lists and queries, if they
+      are being recorded (shared with any nested contexts) */
+  private Query.ModStamp _modStamp;
+  /** the number of parameters collected, if they are being counted (shared
+      with any nested contexts) */
+  private int[] _numParams;
 
   public ValidationContext() {
     this(null, null, null, DEFAULT_LOCAL_ONLY);
@@ -65,11 +76,15 @@ public class ValidationContext {
                            Collection<Column> columns,
                            boolean localOnly) {
     _parent = parent;
-    _tables = ((tables != null) ? tables : new HashSet<Table>());
-    _columns = ((columns != null) ? columns : new HashSet<Column>());
+    _tables = ((tables != null) ? tables : new IdentitySet<Table>());
+    _columns = ((columns != null) ? columns : new IdentitySet<Column>());
     _localOnly = localOnly;
     _verifiables = ((_parent != null) ? _parent._verifiables :
                     new ArrayList<Map.Entry<ValidationContext,? extends Verifiable<?>>>(2));
+    if(_parent != null) {
+      _modStamp = _parent._modStamp;
+      _numParams = _parent._numParams;
+    }
   }
 
   public ValidationContext getParent() {
@@ -108,6 +123,52 @@ public class ValidationContext {
     _localOnly = newLocalOnly;
   }
 
+  /**
+   * Starts recording the modification counts of the lists and queries
+   * collected by this context (and any nested contexts).
+   * @return the stamp into which the counts are recorded
+   */
+  Query.ModStamp recordModCounts() {
+    _modStamp = new Query.ModStamp();
+    return _modStamp;
+  }
+
+  /**
+   * Records the given modification count of the given object, if
+   * modifications are being recorded.
+   */
+  void addModCount(SqlObject obj, int modCount) {
+    if(_modStamp != null) {
+      _modStamp.add(obj, modCount);
+    }
+  }
+
+  /**
+   * Starts counting the parameters (PlaceHolders and
+   * {@link SqlObject#QUESTION_MARK}s) collected by this context (and any
+   * nested contexts).
+   */
+  void countParameters() {
+    _numParams = new int[1];
+  }
+
+  /**
+   * Counts a collected parameter, if parameters are being counted.
+   */
+  void addParameter() {
+    if(_numParams != null) {
+      ++_numParams[0];
+    }
+  }
+
+  /**
+   * @return the number of parameters collected since
+   *         {@link #countParameters} was called (0 if not counting)
+   */
+  int getParameterCount() {
+    return ((_numParams != null) ? _numParams[0] : 0);
+  }
+
   public void addVerifiable(Verifiable<?> verifiable)
   {
     if(verifiable == null) {
@@ -116,6 +177,32 @@ public class ValidationContext {
     _verifiables.add(new AbstractMap.SimpleImmutableEntry<>(this, verifiable));
   }
 
+  /**
+   * Clears all the state accumulated by this context so that it may be
+   * reused for another validation.  Should only be called on a context with
+   * no parent (the verifiables are shared with any nested contexts).
+   */
+  public void reset() {
+    _tables.clear();
+    _columns.clear();
+    _verifiables.clear();
+    _modStamp = null;
+    _numParams = null;
+  }
+
+  /**
+   * Resets this context and then validates the given object using it.  Reusing
+   * a ValidationContext for multiple validations avoids re-allocating the
+   * collections used to accumulate the schema objects.
+   *
+   * @param obj the object to validate
+   */
+  public void validate(SqlObject obj) throws ValidationException {
+    reset();
+    obj.collectSchemaObjects(this);
+    validateAll();
+  }
+
   public void validateAll() throws ValidationException {
     for(Map.Entry<ValidationContext,? extends Verifiable<?>> verifiable : _verifiables) {
       try {
@@ -159,7 +246,7 @@ public class ValidationContext {
   protected Collection<Table> getColumnTables(Collection<Table> columnTables)
   {
     if(columnTables == null) {
-      columnTables = new HashSet<Table>();
+      columnTables = new IdentitySet<Table>(_columns.size());
     }
     // get the tables from the columns referenced
     for(Column column : _columns) {
@@ -23,17 +23,42 @@ import com.healthmarketscience.common.util.AppendableExt;
 
 /**
  * Outputs a quoted value <code>"'&lt;value&gt;'"</code>.
+ * <p>
+ * By default, the value is output as is (any quotes within the value must
+ * already be escaped).  If escaping is enabled (see
+ * {@link SqlContext#setEscapeLiterals}, which defaults to the value of the
+ * system property {@value #ESCAPE_LITERALS_PROPERTY}), quotes within the
+ * value are escaped by the current
+ * {@link SqlContext#setLiteralEscaper literal escaper} (by default, quotes
+ * are doubled, see {@link #STANDARD_ESCAPER}).  The escaper is independent
+ * of the {@link SqlContext#setLiteralFormat literal format} used for typed
+ * values.
  *
  * @author James Ahlborn
  */
 public class ValueObject extends Expression
 {
+  public static final String ESCAPE_LITERALS_PROPERTY =
+    "com.healthmarketscience.sqlbuilder.escapeLiterals";
+
+  /** the default for {@link SqlContext#getEscapeLiterals} */
+  static final boolean DEFAULT_ESCAPE_LITERALS =
+    Boolean.getBoolean(ESCAPE_LITERALS_PROPERTY);
+
+  /** Escaper which doubles any quotes within a value (standard SQL) */
+  public static final Escaper STANDARD_ESCAPER = new Escaper();
+
   private Object _value;
 
   public ValueObject(Object value) {
     _value = value;
   }
 
+  /** @return the value output by this object */
+  public Object getValue() {
+    return _value;
+  }
+
   @Override
   public boolean hasParens() { return false; }
 
@@ -43,6 +68,79 @@ public class ValueObject extends Expression
   
   @Override
   public void appendTo(AppendableExt app) throws IOException {
-    app.append("'").append(_value).append("'");
+    SqlContext context = SqlContext.getContext(app);
+    if(context.getUseLiteralParameters()) {
+      app.append(QUESTION_MARK);
+      return;
+    }
+    appendValue(_value, context, app);
+  }
+
+  /**
+   * Appends the given value as a quoted string literal (escaped if enabled
+   * in the given context).
+   */
+  static void appendValue(Object value, SqlContext context, AppendableExt app)
+    throws IOException
+  {
+    if(context.getEscapeLiterals()) {
+      Escaper escaper = context.getLiteralEscaper();
+      if(escaper == null) {
+        escaper = STANDARD_ESCAPER;
+      }
+      escaper.appendString(((value instanceof CharSequence) ?
+                            (CharSequence)value : String.valueOf(value)),
+                           app);
+      return;
+    }
+    app.append("'").append(value).append("'");
+  }
+
+  /**
+   * Policy for escaping the string values of ValueObjects (when escaping is
+   * {@link SqlContext#setEscapeLiterals enabled}).  The default
+   * implementation doubles any quotes within the value (see
+   * {@link #STANDARD_ESCAPER}), subclasses may escape as appropriate for the
+   * target database.
+   */
+  public static class Escaper
+  {
+    protected Escaper() {}
+
+    /**
+     * Appends the given string value as an escaped, quoted literal.
+     */
+    protected void appendString(CharSequence value, AppendableExt app)
+      throws IOException
+    {
+      app.append('\'');
+      appendEscaped(value, false, app);
+      app.append('\'');
+    }
+
+    /**
+     * Appends the given value with any quotes doubled and (optionally) any
+     * backslashes doubled.  The unescaped runs of the value are appended
+     * directly (without copying the value).
+     */
+    protected static void appendEscaped(CharSequence value,
+                                        boolean escapeBackslash,
+                                        AppendableExt app)
+      throws IOException
+    {
+      int len = value.length();
+      int start = 0;
+      for(int i = 0; i < len; ++i) {
+        char c = value.charAt(i);
+        if((c == '\'') || (escapeBackslash && (c == '\\'))) {
+          // append the run including this char, then the char again
+          app.append(value, start, i + 1).append(c);
+          start = i + 1;
+        }
+      }
+      if(start < len) {
+        app.append(value, start, len);
+      }
+    }
   }
 }
@@ -0,0 +1,56 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package com.healthmarketscience.sqlbuilder.custom.mysql;
+
+import java.io.IOException;
+
+import com.healthmarketscience.common.util.AppendableExt;
+import com.healthmarketscience.sqlbuilder.ValueObject;
+
+/**
+ * ValueObject escaper for MySQL, which (in addition to doubling quotes)
+ * doubles backslashes, since MySQL treats backslashes within string
+ * literals as escape characters (unless the {@code NO_BACKSLASH_ESCAPES}
+ * SQL mode is enabled).  May be used with or without the
+ * {@link MysLiteralFormat}.
+ * <p>
+ * Example:
+ * <pre>
+ *   SqlContext context = new SqlContext();
+ *   context.setEscapeLiterals(true);
+ *   context.setLiteralEscaper(MysLiteralEscaper.INSTANCE);
+ *   String sql = query.toString(256, context);
+ * </pre>
+ *
+ * @author agent
+ */
+public class MysLiteralEscaper extends ValueObject.Escaper
+{
+  public static final MysLiteralEscaper INSTANCE = new MysLiteralEscaper();
+
+  protected MysLiteralEscaper() {}
+
+  @Override
+  protected void appendString(CharSequence value, AppendableExt app)
+    throws IOException
+  {
+    app.append('\'');
+    appendEscaped(value, true, app);
+    app.append('\'');
+  }
+}
@@ -0,0 +1,59 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package com.healthmarketscience.sqlbuilder.custom.mysql;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import com.healthmarketscience.common.util.AppendableExt;
+import com.healthmarketscience.sqlbuilder.TypedValueObject;
+
+/**
+ * TypedValueObject format for MySQL.  Instants are generated with the zone
+ * offset immediately following the time (as required by MySQL 8.0.19+).
+ * Other values are generated as standard SQL typed literals.  Escaping of
+ * string literals is configured separately (see {@link MysLiteralEscaper}).
+ * <p>
+ * Example:
+ * <pre>
+ *   SqlContext context = new SqlContext();
+ *   context.setLiteralFormat(MysLiteralFormat.INSTANCE);
+ *   String sql = query.toString(256, context);
+ * </pre>
+ *
+ * @author agent
+ */
+public class MysLiteralFormat extends TypedValueObject.Format
+{
+  public static final MysLiteralFormat INSTANCE = new MysLiteralFormat();
+
+  protected MysLiteralFormat() {}
+
+  @Override
+  protected void appendInstant(Instant value, AppendableExt app)
+    throws IOException
+  {
+    LocalDateTime dateTime = toUtcDateTime(value);
+    app.append("TIMESTAMP '");
+    appendDateDigits(dateTime.toLocalDate(), app);
+    app.append(' ');
+    appendTimeDigits(dateTime.toLocalTime(), app);
+    app.append("+00:00'");
+  }
+}
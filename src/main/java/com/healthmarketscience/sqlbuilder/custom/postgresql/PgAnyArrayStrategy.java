@@ -0,0 +1,174 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.custom.postgresql;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import com.healthmarketscience.common.util.AppendableExt;
+import com.healthmarketscience.sqlbuilder.InCondition;
+import com.healthmarketscience.sqlbuilder.NumberValueObject;
+import com.healthmarketscience.sqlbuilder.ParameterMap;
+import com.healthmarketscience.sqlbuilder.QueryPreparer;
+import com.healthmarketscience.sqlbuilder.SqlContext;
+import com.healthmarketscience.sqlbuilder.SqlObject;
+import com.healthmarketscience.sqlbuilder.SqlObjectList;
+import com.healthmarketscience.sqlbuilder.ValueObject;
+
+/**
+ * InCondition strategy which generates lists with more than a given number
+ * of literal values as a single PostgreSQL array parameter,
+ * {@code "(x = ANY(?) )"} (or {@code "(x <> ALL(?) )"} if negated).  The
+ * generated SQL is therefore independent of the number of values (so
+ * statement caches are effective), and the values are bound as one
+ * {@link java.sql.Array} via a StaticPlaceHolder which is recorded in the
+ * {@link ParameterMap} of the current SqlContext.
+ * <p>
+ * Generating a condition has no side effects, the array placeholder only
+ * exists in the ParameterMap of the generation which wrote it.
+ * Conditions are generated normally if the current SqlContext has no
+ * ParameterMap, if literal values are being generated as parameters, or if
+ * the values are not all literal values (e.g. columns or PlaceHolders).
+ * String values are only bound if literals are being
+ * {@link SqlContext#setEscapeLiterals escaped} (otherwise the strings are
+ * assumed to be pre-escaped SQL, so the list is generated normally).
+ * <p>
+ * Example:
+ * <pre>
+ *   ParameterMap params = new ParameterMap();
+ *   SqlContext context = new SqlContext();
+ *   context.setInConditionStrategy(new PgAnyArrayStrategy("integer", 100));
+ *   context.setParameterMap(params);
+ *   String sql = query.toString(256, context);
+ *   PreparedStatement ps = conn.prepareStatement(sql);
+ *   params.setStaticValues(ps);
+ * </pre>
+ *
+ * @author agent
+ */
+public class PgAnyArrayStrategy extends InCondition.Strategy
+{
+  private final String _sqlArrayType;
+  private final int _threshold;
+
+  /**
+   * @param sqlArrayType the SQL type name of the array elements (as given to
+   *                     {@link java.sql.Connection#createArrayOf})
+   * @param threshold lists with at most this many values are generated
+   *                  normally
+   */
+  public PgAnyArrayStrategy(String sqlArrayType, int threshold) {
+    _sqlArrayType = sqlArrayType;
+    _threshold = threshold;
+  }
+
+  @Override
+  protected void appendTo(InCondition cond, AppendableExt app)
+    throws IOException
+  {
+    SqlContext context = SqlContext.getContext(app);
+    Object[] values = (((context.getParameterMap() != null) &&
+                        !context.getUseLiteralParameters()) ?
+                       getLiteralValues(cond.getRightValues(), context) :
+                       null);
+    if(values == null) {
+      appendDefaultTo(cond, app);
+      return;
+    }
+
+    // (x = ANY(?) )
+    openParen(cond, app);
+    app.append(cond.getLeftValue())
+      .append(cond.isNegate() ? " <> ALL(" : " = ANY(")
+      .append(new ArrayStaticPlaceHolder(values, _sqlArrayType))
+      .append(")");
+    closeParen(cond, app);
+  }
+
+  /**
+   * @return the literal values in the given list, or {@code null} if the
+   *         list is not over the threshold or contains non-literal values
+   */
+  private Object[] getLiteralValues(SqlObjectList<SqlObject> rightValues,
+                                    SqlContext context) {
+    int numValues = rightValues.size();
+    if(numValues <= _threshold) {
+      return null;
+    }
+    Object[] values = new Object[numValues];
+    for(int i = 0; i < numValues; ++i) {
+      SqlObject obj = rightValues.get(i);
+      if(obj instanceof NumberValueObject) {
+        values[i] = ((NumberValueObject)obj).getValue();
+      } else if(obj instanceof ValueObject) {
+        Object value = ((ValueObject)obj).getValue();
+        if((value instanceof CharSequence) && !context.getEscapeLiterals()) {
+          // the value is (presumably) pre-escaped SQL, not the actual value
+          return null;
+        }
+        values[i] = value;
+      } else {
+        return null;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * StaticPlaceHolder which binds the saved values as a single
+   * {@link java.sql.Array} created from the statement's Connection.
+   */
+  public static class ArrayStaticPlaceHolder
+    extends QueryPreparer.ObjectStaticPlaceHolder<Object[]>
+  {
+    private final String _sqlArrayType;
+
+    public ArrayStaticPlaceHolder(Object[] values, String sqlArrayType)
+    {
+      this(values, sqlArrayType, null);
+    }
+
+    public ArrayStaticPlaceHolder(Object[] values, String sqlArrayType,
+                                  QueryPreparer outer)
+    {
+      super(values, outer);
+      _sqlArrayType = sqlArrayType;
+    }
+
+    @Override
+    public void setValue(PreparedStatement ps)
+      throws SQLException
+    {
+      setObject(ps.getConnection().createArrayOf(_sqlArrayType, _val), ps);
+    }
+
+    @Override
+    public void setValue(PreparedStatement ps, int index)
+      throws SQLException
+    {
+      ps.setObject(index,
+                   ps.getConnection().createArrayOf(_sqlArrayType, _val));
+    }
+
+    @Override
+    public String displayToString() {
+      return _sqlArrayType + Arrays.toString(_val);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package com.healthmarketscience.sqlbuilder.custom.postgresql;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.healthmarketscience.common.util.AppendableExt;
+import com.healthmarketscience.sqlbuilder.TypedValueObject;
+
+/**
+ * TypedValueObject format for PostgreSQL, which generates UUIDs as
+ * {@code 'xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx'::uuid} and binary values as
+ * {@code '\x0123456789ABCDEF'::bytea} (in PostgreSQL, {@code X'...'} is a
+ * bit string).  Instants are generated as
+ * {@code TIMESTAMP WITH TIME ZONE '...'} literals (a PostgreSQL
+ * {@code TIMESTAMP} literal ignores the zone offset).  Other date/time
+ * values are generated as standard SQL typed literals.
+ * <p>
+ * Example:
+ * <pre>
+ *   SqlContext context = new SqlContext();
+ *   context.setLiteralFormat(PgLiteralFormat.INSTANCE);
+ *   String sql = query.toString(256, context);
+ * </pre>
+ *
+ * @author agent
+ */
+public class PgLiteralFormat extends TypedValueObject.Format
+{
+  public static final PgLiteralFormat INSTANCE = new PgLiteralFormat();
+
+  protected PgLiteralFormat() {}
+
+  @Override
+  protected void appendInstant(Instant value, AppendableExt app)
+    throws IOException
+  {
+    LocalDateTime dateTime = toUtcDateTime(value);
+    app.append("TIMESTAMP WITH TIME ZONE '");
+    appendDateDigits(dateTime.toLocalDate(), app);
+    app.append(' ');
+    appendTimeDigits(dateTime.toLocalTime(), app);
+    app.append("+00:00'");
+  }
+
+  @Override
+  protected void appendUuid(UUID value, AppendableExt app)
+    throws IOException
+  {
+    app.append('\'');
+    appendUuidDigits(value, app);
+    app.append("'::uuid");
+  }
+
+  @Override
+  protected void appendBinary(byte[] value, AppendableExt app)
+    throws IOException
+  {
+    app.append("'\\x");
+    appendHexDigits(value, app);
+    app.append("'::bytea");
+  }
+}
@@ -57,7 +57,8 @@ public class DbColumn extends DbObject<DbTable>
     
   private final String _typeName;
   private final List<Object> _qualifiers = new ArrayList<Object>();
-  private final List<DbConstraint> _constraints = new ArrayList<DbConstraint>();
+  private final List<DbConstraint> _constraints =
+    new SnapshotList<DbConstraint>();
   private Object _defaultValue;
 
   public DbColumn(DbTable parent, String name,
@@ -16,7 +16,6 @@ limitations under the License.
 
 package com.healthmarketscience.sqlbuilder.dbspec.basic;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -30,7 +29,7 @@ import java.util.List;
 public class DbFunctionPackage extends DbObject<DbSchema> {
   
   /** functions currently created for this db spec */
-  private final List<DbFunction> _functions = new ArrayList<DbFunction>();
+  private final List<DbFunction> _functions = new DbObjectList<DbFunction>();
 
   public DbFunctionPackage(DbSchema parent, String name) {
     super(parent, name);
@@ -39,6 +38,10 @@ public class DbFunctionPackage extends DbObject<DbSchema> {
   public DbSchema getSchema() {
     return getParent();
   }
+
+  public List<DbFunction> getFunctions() {
+    return _functions;
+  }
     
   /**
    * @param name name of the function to find
@@ -49,6 +52,16 @@ public class DbFunctionPackage extends DbObject<DbSchema> {
     return findObject(_functions, name);
   }
 
+  /**
+   * @param name name of the function to find
+   * @param ignoreCase whether or not to ignore case when comparing names
+   * @return the function previously added to this package with the given
+   *         name, or {@code null} if none.
+   */
+  public DbFunction findFunction(String name, boolean ignoreCase) {
+    return findObject(_functions, name, ignoreCase);
+  }
+
   /**
    * Creates and adds a function with the given name to this package.
    * <p>
@@ -101,6 +101,10 @@ public class DbObject<ParentType extends DbObject<?>>
    */
   protected static <T extends DbObject<?>> T findObject(
       Collection<T> objects, String name) {
+    if(objects instanceof DbObjectList<?>) {
+      // use the name index
+      return ((DbObjectList<T>)objects).find(name);
+    }
     for(T obj : objects) {
       if((name == obj.getName()) ||
          ((name != null) && name.equals(obj.getName()))) {
@@ -110,6 +114,31 @@ public class DbObject<ParentType extends DbObject<?>>
     return null;
   }
 
+  /**
+   * @param objects collection to search
+   * @param name name of the object to find
+   * @param ignoreCase whether or not to ignore case when comparing names
+   * @return the DbObject with the given name from the given collection, if
+   *         any, {@code null} otherwise.
+   */
+  protected static <T extends DbObject<?>> T findObject(
+      Collection<T> objects, String name, boolean ignoreCase) {
+    if(!ignoreCase) {
+      return findObject(objects, name);
+    }
+    if(objects instanceof DbObjectList<?>) {
+      // use the name index
+      return ((DbObjectList<T>)objects).find(name, true);
+    }
+    for(T obj : objects) {
+      if((name == obj.getName()) ||
+         ((name != null) && name.equalsIgnoreCase(obj.getName()))) {
+        return obj;
+      }
+    }
+    return null;
+  }
+
   /**
    * Adds the given objects to the given collection after verifying that they
    * are owned by the given parent.
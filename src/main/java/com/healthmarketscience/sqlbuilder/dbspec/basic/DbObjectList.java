@@ -0,0 +1,371 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.dbspec.basic;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe list of DbObjects (see {@link SnapshotList}) which maintains
+ * (lazily built) indexes of the objects by name, so that finding an object
+ * by name does not require a scan of the list.  As with a linear scan, the first object in the list
+ * with a given name is found.  Objects with a {@code null} name (e.g. the
+ * default schema) are not indexed, finding them always scans the list.  All
+ * modifications through the List interface keep the indexes up to date.
+ * <p>
+ * The initial contents of the list may optionally be supplied lazily by a
+ * {@link Loader}, which is invoked on the first access of the list.
+ *
+ * @author agent
+ */
+class DbObjectList<T extends DbObject<?>>
+  extends AbstractList<T> implements RandomAccess
+{
+  /** lists smaller than this are simply scanned */
+  private static final int MIN_INDEXED_SIZE = 8;
+
+  private final SnapshotList<T> _objects = new SnapshotList<T>();
+  /** index by exact name, {@code null} until needed (or after a removal) */
+  private volatile Map<String,T> _index;
+  /** index by case-insensitive name, {@code null} until needed (or after a
+      removal) */
+  private volatile Map<String,T> _ciIndex;
+  /** supplier of the initial contents of this list, {@code null} once
+      loaded */
+  private volatile Loader<T> _loader;
+  /** whether or not the loader is currently running (guarded by the lock of
+      the loader) */
+  private boolean _loading;
+
+  DbObjectList() {}
+
+  /**
+   * Sets the Loader which will supply the initial contents of this list on
+   * first access.
+   */
+  void setLoader(Loader<T> loader) {
+    _loader = loader;
+  }
+
+  /**
+   * @return {@code true} if the initial contents of this list have been
+   *         loaded (or there was no Loader), {@code false} otherwise
+   */
+  boolean isLoaded() {
+    return (_loader == null);
+  }
+
+  /**
+   * Invokes the Loader for this list, if it has not already been invoked.
+   * If the Loader is currently running in this thread, the partially loaded
+   * contents are used as is.
+   */
+  void ensureLoaded() {
+    Loader<T> loader = _loader;
+    if(loader == null) {
+      return;
+    }
+    synchronized(loader._lock) {
+      if((_loader == null) || _loading) {
+        return;
+      }
+      _loading = true;
+      try {
+        loader.load(this);
+        _loader = null;
+      } finally {
+        _loading = false;
+      }
+    }
+  }
+
+  @Override
+  public T get(int index) {
+    ensureLoaded();
+    return _objects.get(index);
+  }
+
+  @Override
+  public int size() {
+    ensureLoaded();
+    return _objects.size();
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    ensureLoaded();
+    return _objects.iterator();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    ensureLoaded();
+    return _objects.contains(o);
+  }
+
+  @Override
+  public int indexOf(Object o) {
+    ensureLoaded();
+    return _objects.indexOf(o);
+  }
+
+  @Override
+  public boolean add(T obj) {
+    ensureLoaded();
+    synchronized(this) {
+      _objects.add(obj);
+      addToIndexes(obj);
+      return true;
+    }
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends T> objs) {
+    ensureLoaded();
+    synchronized(this) {
+      boolean modified = _objects.addAll(objs);
+      for(T obj : objs) {
+        addToIndexes(obj);
+      }
+      return modified;
+    }
+  }
+
+  @Override
+  public void add(int index, T obj) {
+    ensureLoaded();
+    synchronized(this) {
+      _objects.add(index, obj);
+      if(index == (_objects.size() - 1)) {
+        addToIndexes(obj);
+      } else {
+        clearIndexes();
+      }
+    }
+  }
+
+  @Override
+  public T set(int index, T obj) {
+    ensureLoaded();
+    synchronized(this) {
+      T oldObj = _objects.set(index, obj);
+      clearIndexes();
+      return oldObj;
+    }
+  }
+
+  @Override
+  public T remove(int index) {
+    ensureLoaded();
+    synchronized(this) {
+      T oldObj = _objects.remove(index);
+      clearIndexes();
+      return oldObj;
+    }
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    ensureLoaded();
+    synchronized(this) {
+      boolean modified = _objects.remove(o);
+      if(modified) {
+        clearIndexes();
+      }
+      return modified;
+    }
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> objs) {
+    ensureLoaded();
+    synchronized(this) {
+      boolean modified = _objects.removeAll(objs);
+      if(modified) {
+        clearIndexes();
+      }
+      return modified;
+    }
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> objs) {
+    ensureLoaded();
+    synchronized(this) {
+      boolean modified = _objects.retainAll(objs);
+      if(modified) {
+        clearIndexes();
+      }
+      return modified;
+    }
+  }
+
+  @Override
+  public boolean removeIf(Predicate<? super T> filter) {
+    ensureLoaded();
+    synchronized(this) {
+      boolean modified = _objects.removeIf(filter);
+      if(modified) {
+        clearIndexes();
+      }
+      return modified;
+    }
+  }
+
+  @Override
+  public void clear() {
+    ensureLoaded();
+    synchronized(this) {
+      _objects.clear();
+      clearIndexes();
+    }
+  }
+
+  /**
+   * @return the first object in this list with the given name, {@code null}
+   *         if none
+   */
+  public T find(String name) {
+    return find(name, false);
+  }
+
+  /**
+   * @param name the name of the object to find
+   * @param ignoreCase whether or not to ignore case when comparing names
+   * @return the first object in this list with the given name, {@code null}
+   *         if none
+   */
+  public T find(String name, boolean ignoreCase) {
+    ensureLoaded();
+    if((name == null) || (_objects.size() < MIN_INDEXED_SIZE)) {
+      return scan(name, ignoreCase);
+    }
+    Map<String,T> index = (ignoreCase ? _ciIndex : _index);
+    if(index == null) {
+      index = buildIndex(ignoreCase);
+    }
+    return index.get(toKey(name, ignoreCase));
+  }
+
+  private T scan(String name, boolean ignoreCase) {
+    for(T obj : _objects) {
+      String objName = obj.getName();
+      if((name == objName) ||
+         ((name != null) && (objName != null) &&
+          toKey(name, ignoreCase).equals(toKey(objName, ignoreCase)))) {
+        return obj;
+      }
+    }
+    return null;
+  }
+
+  private synchronized Map<String,T> buildIndex(boolean ignoreCase) {
+    Map<String,T> index = (ignoreCase ? _ciIndex : _index);
+    if(index == null) {
+      index = new ConcurrentHashMap<String,T>(
+          Math.max((int)(_objects.size() / 0.75f) + 1, 16));
+      for(T obj : _objects) {
+        addToIndex(index, obj, ignoreCase);
+      }
+      if(ignoreCase) {
+        _ciIndex = index;
+      } else {
+        _index = index;
+      }
+    }
+    return index;
+  }
+
+  private void addToIndexes(T obj) {
+    Map<String,T> index = _index;
+    if(index != null) {
+      addToIndex(index, obj, false);
+    }
+    index = _ciIndex;
+    if(index != null) {
+      addToIndex(index, obj, true);
+    }
+  }
+
+  private static <T extends DbObject<?>> void addToIndex(
+      Map<String,T> index, T obj, boolean ignoreCase) {
+    if(obj.getName() != null) {
+      index.putIfAbsent(toKey(obj.getName(), ignoreCase), obj);
+    }
+  }
+
+  private void clearIndexes() {
+    _index = null;
+    _ciIndex = null;
+  }
+
+  private static String toKey(String name, boolean ignoreCase) {
+    return (ignoreCase ? toCaseInsensitiveKey(name) : name);
+  }
+
+  /**
+   * Returns a key for the given name such that two names have equal keys if
+   * and only if they are equal according to
+   * {@link String#equalsIgnoreCase}, i.e. each character is upper cased and
+   * then lower cased.  Note that {@link String#toUpperCase} is <i>not</i>
+   * equivalent (e.g. it converts {@code "\u00df"} to {@code "SS"}).
+   */
+  static String toCaseInsensitiveKey(String name) {
+    int len = name.length();
+    int i = 0;
+    while((i < len) && (foldCase(name.charAt(i)) == name.charAt(i))) {
+      ++i;
+    }
+    if(i == len) {
+      // common case, already folded
+      return name;
+    }
+    char[] chars = name.toCharArray();
+    for(; i < len; ++i) {
+      chars[i] = foldCase(chars[i]);
+    }
+    return new String(chars);
+  }
+
+  private static char foldCase(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  /**
+   * Supplies the initial contents of a DbObjectList.  Loaders which may
+   * trigger each other (e.g. by looking up objects in other lazily loaded
+   * lists) must share the same lock.
+   */
+  abstract static class Loader<T extends DbObject<?>>
+  {
+    private final Object _lock;
+
+    protected Loader(Object lock) {
+      _lock = lock;
+    }
+
+    /**
+     * Adds the initial contents to the given list.
+     */
+    protected abstract void load(DbObjectList<T> list);
+  }
+}
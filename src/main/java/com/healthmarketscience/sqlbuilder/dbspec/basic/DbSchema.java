@@ -16,7 +16,6 @@ limitations under the License.
 
 package com.healthmarketscience.sqlbuilder.dbspec.basic;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -30,12 +29,12 @@ public class DbSchema extends DbObject<DbObject<?>> {
   /** the spec in which this schema exists */
   private final DbSpec _spec;
   /** tables currently created for this db spec */
-  private final List<DbTable> _tables = new ArrayList<DbTable>();
+  private final List<DbTable> _tables = new DbObjectList<DbTable>();
   /** indexes currently created for this db spec */
-  private final List<DbIndex> _indexes = new ArrayList<DbIndex>();
+  private final DbObjectList<DbIndex> _indexes = new DbObjectList<DbIndex>();
   /** function packages currently created for this db spec */
   private final List<DbFunctionPackage> _functionPackages =
-    new ArrayList<DbFunctionPackage>();
+    new DbObjectList<DbFunctionPackage>();
 
   public DbSchema(DbSpec spec, String name) {
     super(null, name);
@@ -58,6 +57,14 @@ public class DbSchema extends DbObject<DbObject<?>> {
   public List<DbFunctionPackage> getFunctionPackages() {
     return _functionPackages;
   }
+
+  /**
+   * Sets the Loader which will supply the indexes of this schema on first
+   * access.
+   */
+  void setIndexLoader(DbObjectList.Loader<DbIndex> loader) {
+    _indexes.setLoader(loader);
+  }
     
   /**
    * @param name name of the table to find
@@ -68,6 +75,16 @@ public class DbSchema extends DbObject<DbObject<?>> {
     return findObject(_tables, name);
   }
 
+  /**
+   * @param name name of the table to find
+   * @param ignoreCase whether or not to ignore case when comparing names
+   * @return the table previously added to this schema with the given name, or
+   *         {@code null} if none.
+   */
+  public DbTable findTable(String name, boolean ignoreCase) {
+    return findObject(_tables, name, ignoreCase);
+  }
+
   /**
    * Creates and adds a table with the given name to this schema.
    * <p>
@@ -145,6 +162,17 @@ public class DbSchema extends DbObject<DbObject<?>> {
     return DbObject.findObject(_functionPackages, name);
   }
 
+  /**
+   * @param name name of the package to find
+   * @param ignoreCase whether or not to ignore case when comparing names
+   * @return the package previously added to this spec with the given name, or
+   *         {@code null} if none.
+   */
+  public DbFunctionPackage findFunctionPackage(String name,
+                                               boolean ignoreCase) {
+    return DbObject.findObject(_functionPackages, name, ignoreCase);
+  }
+
   /**
    * Creates and adds a package with no name to this spec (often referred to
    * as the default package).
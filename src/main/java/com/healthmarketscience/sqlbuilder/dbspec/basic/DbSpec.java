@@ -16,8 +16,9 @@ limitations under the License.
 
 package com.healthmarketscience.sqlbuilder.dbspec.basic;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.healthmarketscience.sqlbuilder.Condition;
 
 /**
@@ -32,6 +33,17 @@ import com.healthmarketscience.sqlbuilder.Condition;
  * delegate object creation to the referenced DbSpec.  Thus, custom model
  * classes can easily be plugged in by creating a subclass of this class which
  * overrides the relevant creation methods.
+ * <p>
+ * The objects in this package may be built concurrently by multiple threads:
+ * alias allocation is atomic, and the child object lists of a DbSpec,
+ * DbSchema, DbTable, DbColumn and DbFunctionPackage are snapshot lists
+ * (appending is cheap, other modifications copy the list), so they may be
+ * added to while being read (or iterated) by other threads.
+ * The lists of schemas, tables, columns, indexes, function packages and
+ * functions also maintain an index by name, so the {@code find*} methods do
+ * not need to scan the lists (optionally ignoring case).
+ * Note that the {@code find*} methods return the first matching object, so
+ * concurrently adding objects with the same name is not deterministic.
  *
  * @author James Ahlborn
  */
@@ -40,14 +52,28 @@ public class DbSpec {
   /** the default alias prefix used by a db spec if none is specified */
   public static final String DEFAULT_ALIAS_PREFIX = "t";
 
+  /** number of pre-generated aliases using the default prefix */
+  private static final int NUM_CACHED_ALIASES = 256;
+  /** pre-generated aliases using the default prefix (shared by all specs) */
+  private static final String[] CACHED_ALIASES =
+    new String[NUM_CACHED_ALIASES];
+  static {
+    for(int i = 0; i < NUM_CACHED_ALIASES; ++i) {
+      CACHED_ALIASES[i] = DEFAULT_ALIAS_PREFIX + i;
+    }
+  }
+
   /** the alias prefix for this db spec */
   private final String _aliasPrefix;
   /** schemas currently created for this db spec */
-  private final List<DbSchema> _schemas = new ArrayList<DbSchema>();
+  private final List<DbSchema> _schemas = new DbObjectList<DbSchema>();
   /** joins currently created for this db spec */
-  private final List<DbJoin> _joins = new ArrayList<DbJoin>();
+  private final List<DbJoin> _joins = new SnapshotList<DbJoin>();
   /** unique id for the next alias for this db spec */
-  private int _nextAliasNum;
+  private final AtomicInteger _nextAliasNum = new AtomicInteger();
+  /** lock shared by all the lazy schemas of this db spec (since loading a
+      table in one schema may load tables in others) */
+  private final Object _lazyLoadLock = new Object();
 
   public DbSpec() {
     this(DEFAULT_ALIAS_PREFIX);
@@ -66,10 +92,51 @@ public class DbSpec {
   }
   
   /**
-   * @return the next unused alias for this group of db objects
+   * @return the next unused alias for this group of db objects (safe to call
+   *         concurrently)
    */
   public String getNextAlias() {
-    return _aliasPrefix + _nextAliasNum++;
+    int aliasNum = _nextAliasNum.getAndIncrement();
+    if((aliasNum < NUM_CACHED_ALIASES) &&
+       DEFAULT_ALIAS_PREFIX.equals(_aliasPrefix)) {
+      return CACHED_ALIASES[aliasNum];
+    }
+    return _aliasPrefix + aliasNum;
+  }
+
+  /**
+   * @return the alias prefix for this db spec
+   */
+  public String getAliasPrefix() {
+    return _aliasPrefix;
+  }
+
+  /**
+   * @return the number which will be used for the next alias
+   */
+  int getNextAliasNum() {
+    return _nextAliasNum.get();
+  }
+
+  /**
+   * @return the lock which must be held while lazily loading tables into any
+   *         schema of this db spec
+   */
+  Object getLazyLoadLock() {
+    return _lazyLoadLock;
+  }
+
+  /**
+   * Ensures that the next alias number is at least the given number (so
+   * that explicitly assigned aliases with lower numbers will not be
+   * reused).
+   */
+  void reserveAliases(int nextAliasNum) {
+    int curAliasNum = _nextAliasNum.get();
+    while((curAliasNum < nextAliasNum) &&
+          !_nextAliasNum.compareAndSet(curAliasNum, nextAliasNum)) {
+      curAliasNum = _nextAliasNum.get();
+    }
   }
 
   /**
@@ -89,6 +156,16 @@ public class DbSpec {
     return DbObject.findObject(_schemas, name);
   }
 
+  /**
+   * @param name name of the schema to find
+   * @param ignoreCase whether or not to ignore case when comparing names
+   * @return the schema previously added to this spec with the given name, or
+   *         {@code null} if none.
+   */
+  public DbSchema findSchema(String name, boolean ignoreCase) {
+    return DbObject.findObject(_schemas, name, ignoreCase);
+  }
+
   /**
    * Creates and adds a schema with no name to this spec (often referred to as
    * the default schema).
@@ -196,6 +273,16 @@ public class DbSpec {
   {
     return new DbTable(parent, name);
   }
+
+  /**
+   * Creates and returns a new {@link DbTable} with the given parameters.
+   * <p>
+   * This method can be overriden to utilize custom model subclasses.
+   */
+  public DbTable createTable(DbSchema parent, String name, String alias)
+  {
+    return new DbTable(parent, name, alias);
+  }
   
   /**
    * Creates and returns a new {@link DbColumn} with the given parameters.
@@ -0,0 +1,589 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.dbspec.basic;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.sql.DataSource;
+
+/**
+ * Populates the basic dbspec model from JDBC {@link DatabaseMetaData}:
+ * tables (and views), columns (with their {@link Types} codes and lengths),
+ * primary key, unique and foreign key constraints, and indexes.
+ * <p>
+ * The columns of all the tables in a schema are fetched with a single
+ * metadata call.  The key and index metadata can only be fetched per table
+ * (as per the JDBC api), and may be disabled if not needed.  Multiple
+ * schemas may be loaded in parallel using an ExecutorService, in which case
+ * each schema is loaded using its own Connection from the given DataSource
+ * (since connections are generally not safe for concurrent use).  Foreign
+ * keys are resolved after all the schemas are loaded, so they may reference
+ * tables in any of the loaded schemas.  The loaded tables (and indexes) are
+ * added to their schemas after all the schemas are loaded, and the new
+ * tables are assigned aliases in schema order (so the aliases do not depend
+ * on which schema finishes loading first).
+ * <p>
+ * Example:
+ * <pre>
+ *   DbSpec spec = new DbSpec();
+ *   new DbSpecLoader(spec)
+ *     .load(dataSource, executor, "sales", "inventory");
+ * </pre>
+ *
+ * @author agent
+ */
+public class DbSpecLoader
+{
+  /** the default table types loaded */
+  public static final String[] DEFAULT_TABLE_TYPES = {"TABLE", "VIEW"};
+
+  private final DbSpec _spec;
+  private String _catalog;
+  private String[] _tableTypes = DEFAULT_TABLE_TYPES;
+  private boolean _loadKeys = true;
+  private boolean _loadIndexes = true;
+
+  public DbSpecLoader(DbSpec spec) {
+    _spec = spec;
+  }
+
+  public DbSpec getSpec() {
+    return _spec;
+  }
+
+  /**
+   * Sets the catalog from which the schemas are loaded ({@code null}, the
+   * default, does not restrict the catalog).
+   */
+  public DbSpecLoader setCatalog(String catalog) {
+    _catalog = catalog;
+    return this;
+  }
+
+  /**
+   * Sets the types of tables which are loaded (defaults to
+   * {@link #DEFAULT_TABLE_TYPES}, {@code null} loads all types).
+   */
+  public DbSpecLoader setTableTypes(String... tableTypes) {
+    _tableTypes = tableTypes;
+    return this;
+  }
+
+  /**
+   * Sets whether or not primary key and foreign key constraints are loaded
+   * (defaults to {@code true}).
+   */
+  public DbSpecLoader setLoadKeys(boolean loadKeys) {
+    _loadKeys = loadKeys;
+    return this;
+  }
+
+  /**
+   * Sets whether or not indexes (and unique constraints) are loaded
+   * (defaults to {@code true}).
+   */
+  public DbSpecLoader setLoadIndexes(boolean loadIndexes) {
+    _loadIndexes = loadIndexes;
+    return this;
+  }
+
+  /**
+   * Loads the given schemas using the given Connection.
+   *
+   * @param conn the Connection used to read the metadata
+   * @param schemaNames the names of the schemas to load ({@code null} for
+   *                    the current schema of the Connection, see
+   *                    {@link Connection#getSchema})
+   * @return the loaded schemas, in the given order
+   */
+  public List<DbSchema> load(Connection conn, String... schemaNames)
+    throws SQLException
+  {
+    List<SchemaLoader> loaders = createLoaders(schemaNames);
+    DatabaseMetaData metaData = conn.getMetaData();
+    for(SchemaLoader loader : loaders) {
+      loader.load(metaData);
+    }
+    return finish(loaders);
+  }
+
+  /**
+   * Loads the given schemas in parallel using the given executor, where
+   * each schema is loaded using a separate Connection from the given
+   * DataSource.  Blocks until all the schemas are loaded.
+   *
+   * @param dataSource source of the Connections used to read the metadata
+   * @param executor the executor on which the schemas are loaded
+   * @param schemaNames the names of the schemas to load ({@code null} for
+   *                    the current schema of the Connections, see
+   *                    {@link Connection#getSchema})
+   * @return the loaded schemas, in the given order
+   */
+  public List<DbSchema> load(final DataSource dataSource,
+                             ExecutorService executor,
+                             String... schemaNames)
+    throws SQLException
+  {
+    List<SchemaLoader> loaders = createLoaders(schemaNames);
+    List<Future<Void>> futures = new ArrayList<Future<Void>>(loaders.size());
+    for(final SchemaLoader loader : loaders) {
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws SQLException {
+          Connection conn = dataSource.getConnection();
+          try {
+            loader.load(conn.getMetaData());
+          } finally {
+            conn.close();
+          }
+          return null;
+        }
+      }));
+    }
+
+    try {
+      for(Future<Void> future : futures) {
+        future.get();
+      }
+    } catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+      cancel(futures);
+      throw new SQLException("Interrupted while loading schemas", e);
+    } catch(ExecutionException e) {
+      cancel(futures);
+      Throwable cause = e.getCause();
+      if(cause instanceof SQLException) {
+        throw (SQLException)cause;
+      }
+      if(cause instanceof RuntimeException) {
+        throw (RuntimeException)cause;
+      }
+      if(cause instanceof Error) {
+        throw (Error)cause;
+      }
+      throw new SQLException(cause);
+    }
+
+    return finish(loaders);
+  }
+
+  private static void cancel(List<Future<Void>> futures) {
+    for(Future<Void> future : futures) {
+      future.cancel(true);
+    }
+  }
+
+  private List<SchemaLoader> createLoaders(String... schemaNames) {
+    if((schemaNames == null) || (schemaNames.length == 0)) {
+      schemaNames = new String[]{null};
+    }
+    // add the schemas to the spec up front so their order is deterministic
+    List<SchemaLoader> loaders = new ArrayList<SchemaLoader>();
+    for(String schemaName : schemaNames) {
+      DbSchema schema = _spec.findSchema(schemaName);
+      if(schema == null) {
+        schema = _spec.addSchema(schemaName);
+      }
+      loaders.add(new SchemaLoader(schema));
+    }
+    return loaders;
+  }
+
+  private List<DbSchema> finish(Collection<SchemaLoader> loaders) {
+    // the new tables are published in schema order (with deterministic
+    // aliases)
+    for(SchemaLoader loader : loaders) {
+      loader.addTables();
+    }
+
+    // the default schema is referenced by its actual name in the metadata
+    Map<String,DbSchema> loadedSchemas = new HashMap<String,DbSchema>();
+    for(SchemaLoader loader : loaders) {
+      if(loader._schemaName != null) {
+        loadedSchemas.put(loader._schemaName, loader._schema);
+      }
+    }
+    List<DbSchema> schemas = new ArrayList<DbSchema>(loaders.size());
+    for(SchemaLoader loader : loaders) {
+      loader.addForeignKeys(loadedSchemas);
+      schemas.add(loader._schema);
+    }
+    return schemas;
+  }
+
+  /**
+   * Adds a column with the given metadata to the given table.  May be
+   * overridden to customize the column definitions.
+   *
+   * @param table the table to which the column should be added
+   * @param name the column name
+   * @param type the column type (one of {@link Types})
+   * @param typeName the database specific column type name
+   * @param size the column size (may be {@code null})
+   * @param digits the number of fractional digits (may be {@code null})
+   * @return the added column
+   */
+  protected DbColumn addColumn(DbTable table, String name, int type,
+                               String typeName, Integer size,
+                               Integer digits)
+  {
+    String sqlTypeName = null;
+    try {
+      sqlTypeName = DbColumn.getTypeName(type);
+    } catch(IllegalArgumentException e) {
+      // vendor specific type, use the database's name
+      sqlTypeName = typeName;
+    }
+
+    switch(type) {
+    case Types.CHAR:
+    case Types.VARCHAR:
+    case Types.NCHAR:
+    case Types.NVARCHAR:
+    case Types.BINARY:
+    case Types.VARBINARY:
+      return table.addColumn(name, sqlTypeName, size);
+    case Types.DECIMAL:
+    case Types.NUMERIC:
+      return table.addColumn(name, sqlTypeName, size, digits);
+    default:
+      return table.addColumn(name, sqlTypeName, null);
+    }
+  }
+
+  private static Integer getInteger(ResultSet rs, String colName)
+    throws SQLException
+  {
+    int val = rs.getInt(colName);
+    return (rs.wasNull() ? null : val);
+  }
+
+  private static String[] toArray(Map<Integer,String> cols) {
+    return cols.values().toArray(new String[cols.size()]);
+  }
+
+  /**
+   * @return the given name with any search pattern characters escaped
+   *         using the given escape string (if any)
+   */
+  private static String escapePattern(String name, String escape) {
+    if((escape == null) || escape.isEmpty()) {
+      return name;
+    }
+    StringBuilder sb = new StringBuilder(name.length() + 8);
+    for(int i = 0; i < name.length(); ++i) {
+      char c = name.charAt(i);
+      if((c == '_') || (c == '%') || name.startsWith(escape, i)) {
+        sb.append(escape);
+      }
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return the current schema of the given Connection, or {@code null} if
+   *         it cannot be determined
+   */
+  private static String getCurrentSchema(Connection conn) {
+    if(conn == null) {
+      return null;
+    }
+    try {
+      return conn.getSchema();
+    } catch(SQLException e) {
+      // not supported by the driver
+    } catch(AbstractMethodError e) {
+      // pre-JDBC 4.1 driver
+    }
+    return null;
+  }
+
+  /**
+   * Loads the contents of a single schema.
+   */
+  private final class SchemaLoader
+  {
+    private final DbSchema _schema;
+    /** the loaded tables (existing or new) by name, in load order */
+    private final Map<String,DbTable> _tables =
+      new LinkedHashMap<String,DbTable>();
+    /** the new tables, which are created without an alias and not added to
+        the schema until all the schemas are loaded */
+    private final List<DbTable> _newTables = new ArrayList<DbTable>();
+    /** the new indexes, which are added with the new tables */
+    private final List<DbIndex> _indexes = new ArrayList<DbIndex>();
+    private final List<ForeignKey> _foreignKeys = new ArrayList<ForeignKey>();
+    /** the actual name of the loaded schema (resolved for the default
+        schema), if known */
+    private String _schemaName;
+
+    private SchemaLoader(DbSchema schema) {
+      _schema = schema;
+    }
+
+    private void load(DatabaseMetaData metaData) throws SQLException {
+      _schemaName = _schema.getName();
+      if(_schemaName == null) {
+        _schemaName = getCurrentSchema(metaData.getConnection());
+      }
+      // note, the schema arguments to getTables and getColumns are patterns
+      String schemaPattern = ((_schemaName != null) ?
+                              escapePattern(_schemaName,
+                                            metaData.getSearchStringEscape()) :
+                              null);
+
+      ResultSet rs = metaData.getTables(_catalog, schemaPattern, "%",
+                                        _tableTypes);
+      try {
+        while(rs.next()) {
+          if(!isInSchema(rs)) {
+            continue;
+          }
+          String tableName = rs.getString("TABLE_NAME");
+          if(_tables.containsKey(tableName)) {
+            continue;
+          }
+          DbTable table = _schema.findTable(tableName);
+          if(table == null) {
+            table = _spec.createTable(_schema, tableName, null);
+            _newTables.add(table);
+          }
+          _tables.put(tableName, table);
+        }
+      } finally {
+        rs.close();
+      }
+
+      // fetch all the columns for the schema at once
+      rs = metaData.getColumns(_catalog, schemaPattern, "%", "%");
+      try {
+        while(rs.next()) {
+          if(!isInSchema(rs)) {
+            // same named table in another schema matching the pattern
+            continue;
+          }
+          DbTable table = _tables.get(rs.getString("TABLE_NAME"));
+          if(table == null) {
+            // not one of the loaded table types
+            continue;
+          }
+          DbColumn column = addColumn(
+              table, rs.getString("COLUMN_NAME"), rs.getInt("DATA_TYPE"),
+              rs.getString("TYPE_NAME"), getInteger(rs, "COLUMN_SIZE"),
+              getInteger(rs, "DECIMAL_DIGITS"));
+          if(rs.getInt("NULLABLE") == DatabaseMetaData.columnNoNulls) {
+            column.notNull();
+          }
+        }
+      } finally {
+        rs.close();
+      }
+
+      for(DbTable table : _tables.values()) {
+        String[] pkCols = null;
+        if(_loadKeys) {
+          pkCols = loadPrimaryKey(metaData, table);
+          loadForeignKeys(metaData, table);
+        }
+        if(_loadIndexes) {
+          loadIndexes(metaData, table, pkCols);
+        }
+      }
+    }
+
+    /**
+     * @return {@code true} if the current row of the given table or column
+     *         metadata is in the loaded schema, {@code false} otherwise
+     *         (some drivers do not report a schema, in which case the row
+     *         is assumed to be in the loaded schema)
+     */
+    private boolean isInSchema(ResultSet rs) throws SQLException {
+      String rowSchemaName = rs.getString("TABLE_SCHEM");
+      return ((_schemaName == null) || (rowSchemaName == null) ||
+              _schemaName.equals(rowSchemaName));
+    }
+
+    private String[] loadPrimaryKey(DatabaseMetaData metaData, DbTable table)
+      throws SQLException
+    {
+      String pkName = null;
+      Map<Integer,String> pkCols = new TreeMap<Integer,String>();
+      ResultSet rs = metaData.getPrimaryKeys(_catalog, _schemaName,
+                                             table.getName());
+      try {
+        while(rs.next()) {
+          pkName = rs.getString("PK_NAME");
+          pkCols.put(rs.getInt("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+        }
+      } finally {
+        rs.close();
+      }
+
+      if(pkCols.isEmpty()) {
+        return null;
+      }
+      String[] colNames = toArray(pkCols);
+      table.primaryKey(pkName, colNames);
+      return colNames;
+    }
+
+    private void loadForeignKeys(DatabaseMetaData metaData, DbTable table)
+      throws SQLException
+    {
+      ResultSet rs = metaData.getImportedKeys(_catalog, _schemaName,
+                                              table.getName());
+      try {
+        // the columns of multiple foreign keys may be interleaved, so group
+        // them by name and referenced table
+        Map<List<String>,ForeignKey> fks =
+          new LinkedHashMap<List<String>,ForeignKey>();
+        while(rs.next()) {
+          int keySeq = rs.getInt("KEY_SEQ");
+          String fkName = rs.getString("FK_NAME");
+          String refSchemaName = rs.getString("PKTABLE_SCHEM");
+          String refTableName = rs.getString("PKTABLE_NAME");
+          List<String> key = Arrays.asList(fkName, refSchemaName,
+                                           refTableName);
+          ForeignKey fk = fks.get(key);
+          if((fk == null) ||
+             ((fkName == null) && fk._colNames.containsKey(keySeq))) {
+            // note, unnamed foreign keys to the same table can only be
+            // distinguished by the restarting key sequence
+            fk = new ForeignKey(table, fkName, refSchemaName, refTableName);
+            fks.put(key, fk);
+            _foreignKeys.add(fk);
+          }
+          fk._colNames.put(keySeq, rs.getString("FKCOLUMN_NAME"));
+          fk._refColNames.put(keySeq, rs.getString("PKCOLUMN_NAME"));
+        }
+      } finally {
+        rs.close();
+      }
+    }
+
+    private void loadIndexes(DatabaseMetaData metaData, DbTable table,
+                             String[] pkCols)
+      throws SQLException
+    {
+      Map<String,Map<Integer,String>> indexes =
+        new LinkedHashMap<String,Map<Integer,String>>();
+      Map<String,Boolean> uniqueIndexes = new LinkedHashMap<String,Boolean>();
+      ResultSet rs = metaData.getIndexInfo(_catalog, _schemaName,
+                                           table.getName(), false, true);
+      try {
+        while(rs.next()) {
+          String idxName = rs.getString("INDEX_NAME");
+          if((idxName == null) ||
+             (rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic)) {
+            continue;
+          }
+          Map<Integer,String> cols = indexes.get(idxName);
+          if(cols == null) {
+            cols = new TreeMap<Integer,String>();
+            indexes.put(idxName, cols);
+            uniqueIndexes.put(idxName, !rs.getBoolean("NON_UNIQUE"));
+          }
+          // note, expression indexes have no column name
+          cols.put((int)rs.getShort("ORDINAL_POSITION"),
+                   rs.getString("COLUMN_NAME"));
+        }
+      } finally {
+        rs.close();
+      }
+
+      for(Map.Entry<String,Map<Integer,String>> e : indexes.entrySet()) {
+        if(e.getValue().containsValue(null)) {
+          continue;
+        }
+        String idxName = e.getKey();
+        String[] colNames = toArray(e.getValue());
+        if(uniqueIndexes.get(idxName) && !Arrays.equals(colNames, pkCols)) {
+          table.unique(idxName, colNames);
+        }
+        _indexes.add(_spec.createIndex(table, idxName, colNames));
+      }
+    }
+
+    private void addTables() {
+      for(DbTable table : _newTables) {
+        table.setAlias(_spec.getNextAlias());
+        _schema.addTable(table);
+      }
+      for(DbIndex index : _indexes) {
+        _schema.addIndex(index);
+      }
+    }
+
+    private void addForeignKeys(Map<String,DbSchema> loadedSchemas) {
+      for(ForeignKey fk : _foreignKeys) {
+        DbSchema refSchema = loadedSchemas.get(fk._refSchemaName);
+        if(refSchema == null) {
+          refSchema = _spec.findSchema(fk._refSchemaName);
+        }
+        DbTable refTable = ((refSchema != null) ?
+                            refSchema.findTable(fk._refTableName) : null);
+        if(refTable == null) {
+          // referenced table was not loaded
+          continue;
+        }
+        fk._table.foreignKey(fk._name, fk._table.findColumns(
+                                 toArray(fk._colNames)),
+                             refTable, refTable.findColumns(
+                                 toArray(fk._refColNames)));
+      }
+    }
+  }
+
+  /**
+   * Foreign key metadata which is resolved after all the schemas are loaded.
+   */
+  private static final class ForeignKey
+  {
+    private final DbTable _table;
+    private final String _name;
+    private final String _refSchemaName;
+    private final String _refTableName;
+    private final Map<Integer,String> _colNames =
+      new TreeMap<Integer,String>();
+    private final Map<Integer,String> _refColNames =
+      new TreeMap<Integer,String>();
+
+    private ForeignKey(DbTable table, String name, String refSchemaName,
+                       String refTableName) {
+      _table = table;
+      _name = name;
+      _refSchemaName = refSchemaName;
+      _refTableName = refTableName;
+    }
+  }
+}
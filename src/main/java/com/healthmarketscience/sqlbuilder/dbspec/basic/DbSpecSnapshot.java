@@ -0,0 +1,901 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.dbspec.basic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.healthmarketscience.sqlbuilder.Condition;
+import com.healthmarketscience.sqlbuilder.CustomCondition;
+import com.healthmarketscience.sqlbuilder.CustomSql;
+import com.healthmarketscience.sqlbuilder.SqlContext;
+import com.healthmarketscience.sqlbuilder.SqlObject;
+import com.healthmarketscience.sqlbuilder.dbspec.Constraint;
+
+/**
+ * Compact binary snapshot of a {@link DbSpec}, which can be reloaded much
+ * faster than the original spec can be rebuilt.  A snapshot contains the
+ * schemas, tables, columns (with types, default values and constraints),
+ * table constraints, indexes, function packages and joins of a spec, as well
+ * as the table aliases.  All names (and other strings) are stored once in a
+ * shared string table.
+ * <p>
+ * When a snapshot is read, only the schemas, tables and function packages
+ * are created up front.  The columns (and constraints) of a table are
+ * created on first access of the table's columns or constraints, and the
+ * indexes of a schema are created on first access of the schema's indexes.
+ * Joins are created up front (which will load the columns of the joined
+ * tables).  The lazy loading is thread-safe.  Alternatively, a snapshot may
+ * be read into {@link LazyDbSchema}s (see {@link #readLazy(byte[])}), in
+ * which case the tables are not created until they are first used.
+ * <p>
+ * All objects are created through the factory methods of the DbSpec, so
+ * custom model subclasses may be used by reading into a custom DbSpec
+ * instance (see {@link #read(InputStream,DbSpec)}).
+ * <p>
+ * Default values and type qualifiers are stored with their type, so Strings,
+ * Booleans and Integer, Long, Short, Byte, Float, Double, BigInteger and
+ * BigDecimal values are reloaded as the same type with the same value.
+ * Other values are not supported, with one (lossy) exception: check
+ * constraint conditions and {@link SqlObject} default values and type
+ * qualifiers can only be stored as their generated SQL, so they are
+ * reloaded as {@link CustomCondition}/{@link CustomSql} instances (which
+ * generate the same SQL as the originals, but are not otherwise equivalent).
+ *
+ * @author agent
+ */
+public class DbSpecSnapshot
+{
+  /** identifies a spec snapshot ("SQBS") */
+  private static final int MAGIC = 0x53514253;
+  /** the current snapshot format version */
+  public static final int VERSION = 1;
+
+  /** type tags for stored values */
+  private static final int VALUE_NULL = 0;
+  private static final int VALUE_STRING = 1;
+  private static final int VALUE_INTEGER = 2;
+  private static final int VALUE_LONG = 3;
+  private static final int VALUE_DOUBLE = 4;
+  private static final int VALUE_DECIMAL = 5;
+  private static final int VALUE_BOOLEAN = 6;
+  private static final int VALUE_SQL = 7;
+  private static final int VALUE_SHORT = 8;
+  private static final int VALUE_BYTE = 9;
+  private static final int VALUE_FLOAT = 10;
+  private static final int VALUE_BIG_INTEGER = 11;
+
+  /** initial size of the buffer used to generate stored sql */
+  private static final int SQL_SIZE = 64;
+
+  private DbSpecSnapshot() {}
+
+  /**
+   * Writes a snapshot of the given spec to the given stream.  Note, all
+   * lazily loaded objects in the spec will be loaded.
+   *
+   * @param spec the spec to write
+   * @param out the stream to which the snapshot is written (not closed)
+   * @throws IllegalArgumentException if the spec contains values which
+   *         cannot be stored
+   */
+  public static void write(DbSpec spec, OutputStream out)
+    throws IOException
+  {
+    new Writer().write(spec, out);
+  }
+
+  /**
+   * @return a snapshot of the given spec
+   */
+  public static byte[] toByteArray(DbSpec spec) {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    try {
+      write(spec, bout);
+    } catch(IOException e) {
+      // byte array streams do not throw
+      throw new IllegalStateException(e);
+    }
+    return bout.toByteArray();
+  }
+
+  /**
+   * Reads a snapshot from the given stream into a new DbSpec (with the alias
+   * prefix of the original spec).
+   *
+   * @param in the stream from which the snapshot is read (not closed)
+   * @return the new spec
+   */
+  public static DbSpec read(InputStream in) throws IOException {
+    return read(readFully(in));
+  }
+
+  /**
+   * Reads the given snapshot into a new DbSpec (with the alias prefix of the
+   * original spec).
+   *
+   * @param snapshot the snapshot data (should not be modified after this
+   *                 call as it is used for subsequent lazy loading)
+   * @return the new spec
+   */
+  public static DbSpec read(byte[] snapshot) throws IOException {
+    Reader reader = new Reader(snapshot, false);
+    return reader.read(new DbSpec(reader.getAliasPrefix()));
+  }
+
+  /**
+   * Reads a snapshot from the given stream into a new DbSpec whose schemas
+   * are {@link LazyDbSchema}s backed by the snapshot.
+   *
+   * @param in the stream from which the snapshot is read (not closed)
+   * @return the new spec
+   * @see #readLazy(byte[])
+   */
+  public static DbSpec readLazy(InputStream in) throws IOException {
+    return readLazy(readFully(in));
+  }
+
+  /**
+   * Reads the given snapshot into a new DbSpec (with the alias prefix of the
+   * original spec) whose schemas are {@link LazyDbSchema}s backed by the
+   * snapshot, so each table is only created when it is first used.  The
+   * tables keep their original aliases.  Note that the tables referenced by
+   * the joins of the spec are created up front.
+   *
+   * @param snapshot the snapshot data (should not be modified after this
+   *                 call as it is used for subsequent lazy loading)
+   * @return the new spec
+   */
+  public static DbSpec readLazy(byte[] snapshot) throws IOException {
+    Reader reader = new Reader(snapshot, true);
+    return reader.read(new DbSpec(reader.getAliasPrefix()));
+  }
+
+  /**
+   * Reads a snapshot from the given stream into the given DbSpec, which
+   * should not contain any other objects (otherwise the aliases of the
+   * loaded tables may conflict).
+   *
+   * @param in the stream from which the snapshot is read (not closed)
+   * @param spec the spec into which the snapshot is loaded
+   * @return the given spec
+   */
+  public static <T extends DbSpec> T read(InputStream in, T spec)
+    throws IOException
+  {
+    return new Reader(readFully(in), false).read(spec);
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    byte[] buf = new byte[8 * 1024];
+    int len = 0;
+    while((len = in.read(buf)) >= 0) {
+      bout.write(buf, 0, len);
+    }
+    return bout.toByteArray();
+  }
+
+  private static void writeVarInt(DataOutputStream out, int val)
+    throws IOException
+  {
+    while((val & ~0x7F) != 0) {
+      out.write((val & 0x7F) | 0x80);
+      val >>>= 7;
+    }
+    out.write(val);
+  }
+
+  /**
+   * Writes the objects of a spec, collecting all strings into the string
+   * table.
+   */
+  private static final class Writer
+  {
+    private final Map<String,Integer> _stringIds =
+      new HashMap<String,Integer>();
+    private final List<String> _strings = new ArrayList<String>();
+    private final Map<DbTable,Integer> _tableIds =
+      new IdentityHashMap<DbTable,Integer>();
+
+    private void write(DbSpec spec, OutputStream out) throws IOException
+    {
+      for(DbSchema schema : spec.getSchemas()) {
+        for(DbTable table : schema.getTables()) {
+          _tableIds.put(table, _tableIds.size());
+        }
+      }
+
+      ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+      DataOutputStream body = new DataOutputStream(bodyBytes);
+      writeString(body, spec.getAliasPrefix());
+      writeVarInt(body, spec.getNextAliasNum());
+
+      writeVarInt(body, spec.getSchemas().size());
+      for(DbSchema schema : spec.getSchemas()) {
+        writeSchema(body, schema);
+      }
+
+      writeVarInt(body, spec.getJoins().size());
+      for(DbJoin join : spec.getJoins()) {
+        writeTableId(body, join.getFromTable());
+        writeTableId(body, join.getToTable());
+        writeNames(body, join.getFromColumns());
+        writeNames(body, join.getToColumns());
+      }
+      body.flush();
+
+      DataOutputStream dout = new DataOutputStream(out);
+      dout.writeInt(MAGIC);
+      dout.writeShort(VERSION);
+      writeVarInt(dout, _strings.size());
+      for(String str : _strings) {
+        byte[] strBytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(dout, strBytes.length);
+        dout.write(strBytes);
+      }
+      bodyBytes.writeTo(dout);
+      dout.flush();
+    }
+
+    private void writeSchema(DataOutputStream out, DbSchema schema)
+      throws IOException
+    {
+      writeString(out, schema.getName());
+
+      writeVarInt(out, schema.getTables().size());
+      ByteArrayOutputStream tableBytes = new ByteArrayOutputStream();
+      for(DbTable table : schema.getTables()) {
+        writeString(out, table.getName());
+        writeString(out, table.getAlias());
+        tableBytes.reset();
+        DataOutputStream tableOut = new DataOutputStream(tableBytes);
+        writeTable(tableOut, table);
+        tableOut.flush();
+        writeBytes(out, tableBytes);
+      }
+
+      writeVarInt(out, schema.getFunctionPackages().size());
+      for(DbFunctionPackage funcPkg : schema.getFunctionPackages()) {
+        writeString(out, funcPkg.getName());
+        writeNames(out, funcPkg.getFunctions());
+      }
+
+      ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+      DataOutputStream indexOut = new DataOutputStream(indexBytes);
+      writeVarInt(indexOut, schema.getIndexs().size());
+      for(DbIndex index : schema.getIndexs()) {
+        writeString(indexOut, index.getName());
+        writeTableId(indexOut, index.getTable());
+        writeNames(indexOut, index.getColumns());
+      }
+      indexOut.flush();
+      writeBytes(out, indexBytes);
+    }
+
+    private void writeTable(DataOutputStream out, DbTable table)
+      throws IOException
+    {
+      // all the columns are written before any constraints so that all the
+      // columns exist before any constraint (possibly from another table)
+      // references them
+      List<DbColumn> columns = table.getColumns();
+      writeVarInt(out, columns.size());
+      for(DbColumn column : columns) {
+        writeString(out, column.getName());
+        writeString(out, column.getTypeNameSQL());
+        writeVarInt(out, column.getTypeQualifiers().size());
+        for(Object qual : column.getTypeQualifiers()) {
+          writeValue(out, qual);
+        }
+        writeValue(out, column.getDefaultValue());
+      }
+
+      for(DbColumn column : columns) {
+        writeVarInt(out, column.getConstraints().size());
+        for(DbConstraint constraint : column.getConstraints()) {
+          writeConstraint(out, constraint, false);
+        }
+      }
+
+      writeVarInt(out, table.getConstraints().size());
+      for(DbConstraint constraint : table.getConstraints()) {
+        writeConstraint(out, constraint, true);
+      }
+    }
+
+    private void writeConstraint(DataOutputStream out, DbConstraint constraint,
+                                 boolean tableConstraint)
+      throws IOException
+    {
+      Constraint.Type type = constraint.getType();
+      writeString(out, type.name());
+      writeString(out, constraint.getName());
+      if(tableConstraint) {
+        writeNames(out, constraint.getColumns());
+      }
+
+      switch(type) {
+      case FOREIGN_KEY:
+        if(!(constraint instanceof DbForeignKeyConstraint)) {
+          throw new IllegalArgumentException(
+              "Unsupported constraint " + constraint);
+        }
+        DbForeignKeyConstraint fkConstraint =
+          (DbForeignKeyConstraint)constraint;
+        writeTableId(out, fkConstraint.getReferencedTable());
+        writeNames(out, fkConstraint.getReferencedColumns());
+        break;
+      case CHECK:
+        if(!(constraint instanceof DbCheckConstraint)) {
+          throw new IllegalArgumentException(
+              "Unsupported constraint " + constraint);
+        }
+        Condition cond = ((DbCheckConstraint)constraint).getCondition();
+        String condStr = null;
+        if(cond != null) {
+          condStr = toSql(cond);
+          if(cond.hasParens()) {
+            // the custom condition will be wrapped in parens when reloaded
+            condStr = condStr.substring(1, condStr.length() - 1);
+          }
+        }
+        writeString(out, condStr);
+        break;
+      default:
+        // nothing more
+      }
+    }
+
+    private void writeValue(DataOutputStream out, Object value)
+      throws IOException
+    {
+      if(value == null) {
+        out.write(VALUE_NULL);
+      } else if(value instanceof String) {
+        out.write(VALUE_STRING);
+        writeString(out, (String)value);
+      } else if(value instanceof Integer) {
+        out.write(VALUE_INTEGER);
+        out.writeInt((Integer)value);
+      } else if(value instanceof Long) {
+        out.write(VALUE_LONG);
+        out.writeLong((Long)value);
+      } else if(value instanceof Short) {
+        out.write(VALUE_SHORT);
+        out.writeShort((Short)value);
+      } else if(value instanceof Byte) {
+        out.write(VALUE_BYTE);
+        out.writeByte((Byte)value);
+      } else if(value instanceof Double) {
+        out.write(VALUE_DOUBLE);
+        out.writeDouble((Double)value);
+      } else if(value instanceof Float) {
+        out.write(VALUE_FLOAT);
+        out.writeFloat((Float)value);
+      } else if(value instanceof BigInteger) {
+        out.write(VALUE_BIG_INTEGER);
+        writeString(out, value.toString());
+      } else if(value instanceof BigDecimal) {
+        out.write(VALUE_DECIMAL);
+        writeString(out, value.toString());
+      } else if(value instanceof Boolean) {
+        out.write(VALUE_BOOLEAN);
+        out.writeBoolean((Boolean)value);
+      } else if(value instanceof SqlObject) {
+        out.write(VALUE_SQL);
+        writeString(out, toSql((SqlObject)value));
+      } else {
+        throw new IllegalArgumentException(
+            "Unsupported value type " + value.getClass().getName());
+      }
+    }
+
+    private static String toSql(SqlObject obj) {
+      // generate the sql the way it is generated in table definitions
+      SqlContext context = new SqlContext();
+      context.setUseTableAliases(false);
+      return obj.toString(SQL_SIZE, context);
+    }
+
+    private void writeTableId(DataOutputStream out, DbTable table)
+      throws IOException
+    {
+      Integer id = _tableIds.get(table);
+      if(id == null) {
+        throw new IllegalArgumentException(
+            "Table " + table + " is not in the spec");
+      }
+      writeVarInt(out, id);
+    }
+
+    private void writeNames(DataOutputStream out,
+                            List<? extends DbObject<?>> objs)
+      throws IOException
+    {
+      writeVarInt(out, objs.size());
+      for(DbObject<?> obj : objs) {
+        writeString(out, obj.getName());
+      }
+    }
+
+    private void writeString(DataOutputStream out, String str)
+      throws IOException
+    {
+      // 0 is reserved for null
+      int id = 0;
+      if(str != null) {
+        Integer strId = _stringIds.get(str);
+        if(strId == null) {
+          strId = _strings.size() + 1;
+          _strings.add(str);
+          _stringIds.put(str, strId);
+        }
+        id = strId;
+      }
+      writeVarInt(out, id);
+    }
+
+    private static void writeBytes(DataOutputStream out,
+                                   ByteArrayOutputStream bytes)
+      throws IOException
+    {
+      writeVarInt(out, bytes.size());
+      bytes.writeTo(out);
+    }
+  }
+
+  /**
+   * Creates the objects of a spec from a snapshot.  This object is also the
+   * lock shared by all the lazy loaders (since loading one table may load
+   * others).
+   */
+  private static final class Reader
+  {
+    private final byte[] _buf;
+    private final boolean _lazy;
+    private final String[] _strings;
+    private final Input _body;
+    private final List<TableRef> _tables = new ArrayList<TableRef>();
+    private DbSpec _spec;
+
+    private Reader(byte[] buf, boolean lazy) throws IOException {
+      _buf = buf;
+      _lazy = lazy;
+      Input in = new Input(buf, 0, buf.length);
+      if(in.readInt() != MAGIC) {
+        throw new IOException("Data is not a DbSpec snapshot");
+      }
+      int version = in.readShort();
+      if(version != VERSION) {
+        throw new IOException("Unsupported snapshot version " + version);
+      }
+      _strings = new String[in.readVarInt() + 1];
+      for(int i = 1; i < _strings.length; ++i) {
+        int len = in.readVarInt();
+        _strings[i] = new String(buf, in.skip(len), len,
+                                 StandardCharsets.UTF_8);
+      }
+      _body = in;
+    }
+
+    private String getAliasPrefix() throws IOException {
+      // the alias prefix is the first body value, don't consume it
+      return new Input(_buf, _body._pos, _buf.length).readString(_strings);
+    }
+
+    private <T extends DbSpec> T read(T spec) throws IOException {
+      _spec = spec;
+      Input in = _body;
+      in.readString(_strings);
+      int nextAliasNum = in.readVarInt();
+
+      int numSchemas = in.readVarInt();
+      for(int i = 0; i < numSchemas; ++i) {
+        readSchema(in);
+      }
+
+      int numJoins = in.readVarInt();
+      for(int i = 0; i < numJoins; ++i) {
+        DbTable fromTable = readTable(in);
+        DbTable toTable = readTable(in);
+        spec.addJoin(spec.createJoin(fromTable, toTable, readNames(in),
+                                     readNames(in)));
+      }
+
+      spec.reserveAliases(nextAliasNum);
+      return spec;
+    }
+
+    private void readSchema(Input in) throws IOException {
+      String schemaName = readString(in);
+      DbSchema schema = null;
+      SnapshotTableSource source = null;
+      if(_lazy) {
+        source = new SnapshotTableSource();
+        schema = _spec.addSchema(new LazyDbSchema(_spec, schemaName, source));
+      } else {
+        schema = _spec.addSchema(_spec.createSchema(schemaName));
+      }
+
+      int numTables = in.readVarInt();
+      for(int i = 0; i < numTables; ++i) {
+        String name = readString(in);
+        String alias = readString(in);
+        int len = in.readVarInt();
+        TableRef tableRef = new TableRef(schema, name, alias, in.skip(len),
+                                         len);
+        if(source != null) {
+          source.addTable(tableRef);
+        } else {
+          DbTable table = schema.addTable(
+              _spec.createTable(schema, name, alias));
+          table.setColumnLoader(
+              new TableLoader(table, tableRef._offset, len));
+          tableRef._table = table;
+        }
+        _tables.add(tableRef);
+      }
+
+      int numFuncPkgs = in.readVarInt();
+      for(int i = 0; i < numFuncPkgs; ++i) {
+        DbFunctionPackage funcPkg = schema.addFunctionPackage(
+            _spec.createFunctionPackage(schema, readString(in)));
+        for(String funcName : readNames(in)) {
+          funcPkg.addFunction(_spec.createFunction(funcPkg, funcName));
+        }
+      }
+
+      int len = in.readVarInt();
+      schema.setIndexLoader(new IndexLoader(schema, in.skip(len), len));
+    }
+
+    private void readColumns(DbTable table, Input in) throws IOException {
+      int numCols = in.readVarInt();
+      List<DbColumn> columns = new ArrayList<DbColumn>(numCols);
+      for(int i = 0; i < numCols; ++i) {
+        String name = readString(in);
+        String typeName = readString(in);
+        Object[] quals = new Object[in.readVarInt()];
+        for(int j = 0; j < quals.length; ++j) {
+          quals[j] = readValue(in);
+        }
+        DbColumn column = _spec.createColumn(table, name, typeName, quals);
+        Object defaultValue = readValue(in);
+        if(defaultValue != null) {
+          column.setDefaultValue(defaultValue);
+        }
+        columns.add(table.addColumn(column));
+      }
+
+      for(DbColumn column : columns) {
+        int numConstraints = in.readVarInt();
+        for(int i = 0; i < numConstraints; ++i) {
+          column.addConstraint(readColumnConstraint(column, in));
+        }
+      }
+
+      int numConstraints = in.readVarInt();
+      for(int i = 0; i < numConstraints; ++i) {
+        table.addConstraint(readTableConstraint(table, in));
+      }
+    }
+
+    private DbConstraint readColumnConstraint(DbColumn column, Input in)
+      throws IOException
+    {
+      Constraint.Type type = Constraint.Type.valueOf(readString(in));
+      String name = readString(in);
+      switch(type) {
+      case FOREIGN_KEY:
+        DbTable refTable = readTable(in);
+        String[] refColNames = readNames(in);
+        return _spec.createColumnForeignKeyConstraint(
+            column, name, refTable,
+            ((refColNames.length > 0) ?
+             refTable.findColumn(refColNames[0]) : null));
+      case CHECK:
+        return _spec.createColumnCheckConstraint(
+            column, name, readCondition(in));
+      default:
+        return _spec.createColumnConstraint(column, name, type);
+      }
+    }
+
+    private DbConstraint readTableConstraint(DbTable table, Input in)
+      throws IOException
+    {
+      Constraint.Type type = Constraint.Type.valueOf(readString(in));
+      String name = readString(in);
+      String[] colNames = readNames(in);
+      switch(type) {
+      case FOREIGN_KEY:
+        DbTable refTable = readTable(in);
+        return _spec.createTableForeignKeyConstraint(
+            table, name, refTable, table.findColumns(colNames),
+            refTable.findColumns(readNames(in)));
+      case CHECK:
+        return _spec.createTableCheckConstraint(table, name,
+                                                readCondition(in));
+      default:
+        return _spec.createTableConstraint(table, name, type, colNames);
+      }
+    }
+
+    private void readIndexes(DbSchema schema, Input in) throws IOException {
+      int numIndexes = in.readVarInt();
+      for(int i = 0; i < numIndexes; ++i) {
+        String name = readString(in);
+        schema.addIndex(_spec.createIndex(readTable(in), name,
+                                          readNames(in)));
+      }
+    }
+
+    private Condition readCondition(Input in) throws IOException {
+      String condStr = readString(in);
+      return ((condStr != null) ? new CustomCondition(condStr) : null);
+    }
+
+    private Object readValue(Input in) throws IOException {
+      int type = in.readByte();
+      switch(type) {
+      case VALUE_NULL:
+        return null;
+      case VALUE_STRING:
+        return readString(in);
+      case VALUE_INTEGER:
+        return in.readInt();
+      case VALUE_LONG:
+        return in.readLong();
+      case VALUE_DOUBLE:
+        return Double.longBitsToDouble(in.readLong());
+      case VALUE_DECIMAL:
+        return new BigDecimal(readString(in));
+      case VALUE_BOOLEAN:
+        return (in.readByte() != 0);
+      case VALUE_SQL:
+        return new CustomSql(readString(in));
+      case VALUE_SHORT:
+        return (short)in.readShort();
+      case VALUE_BYTE:
+        return (byte)in.readByte();
+      case VALUE_FLOAT:
+        return Float.intBitsToFloat(in.readInt());
+      case VALUE_BIG_INTEGER:
+        return new BigInteger(readString(in));
+      default:
+        throw new IOException("Unknown value type " + type);
+      }
+    }
+
+    private DbTable readTable(Input in) throws IOException {
+      int id = in.readVarInt();
+      if(id >= _tables.size()) {
+        throw new IOException("Unknown table " + id);
+      }
+      TableRef tableRef = _tables.get(id);
+      if(tableRef._table != null) {
+        return tableRef._table;
+      }
+      // lazily loaded table, resolve (and load if necessary) via its schema
+      DbTable table = tableRef._schema.findTable(tableRef._name);
+      if(table == null) {
+        throw new IOException("Unknown table " + tableRef._name);
+      }
+      return table;
+    }
+
+    private String[] readNames(Input in) throws IOException {
+      String[] names = new String[in.readVarInt()];
+      for(int i = 0; i < names.length; ++i) {
+        names[i] = readString(in);
+      }
+      return names;
+    }
+
+    private String readString(Input in) throws IOException {
+      return in.readString(_strings);
+    }
+
+    /** table source for a lazily loaded schema */
+    private final class SnapshotTableSource implements DbTableSource
+    {
+      private final List<String> _names = new ArrayList<String>();
+      private final Map<String,TableRef> _tableRefs =
+        new HashMap<String,TableRef>();
+
+      private void addTable(TableRef tableRef) {
+        _names.add(tableRef._name);
+        _tableRefs.putIfAbsent(tableRef._name, tableRef);
+      }
+
+      @Override
+      public List<String> getTableNames(DbSchema schema) {
+        return Collections.unmodifiableList(_names);
+      }
+
+      @Override
+      public boolean loadTable(DbTable table) {
+        TableRef tableRef = _tableRefs.get(table.getName());
+        if(tableRef == null) {
+          return false;
+        }
+        // keep the original alias
+        table.setAlias(tableRef._alias);
+        try {
+          readColumns(table, new Input(_buf, tableRef._offset,
+                                       tableRef._offset + tableRef._length));
+        } catch(IOException e) {
+          throw new IllegalStateException(
+              "Invalid snapshot data for table " + table, e);
+        }
+        return true;
+      }
+    }
+
+    /** lazily loads the columns and constraints of a table */
+    private final class TableLoader extends DbObjectList.Loader<DbColumn>
+    {
+      private final DbTable _table;
+      private final int _offset;
+      private final int _length;
+
+      private TableLoader(DbTable table, int offset, int length) {
+        super(Reader.this);
+        _table = table;
+        _offset = offset;
+        _length = length;
+      }
+
+      @Override
+      protected void load(DbObjectList<DbColumn> list) {
+        try {
+          readColumns(_table, new Input(_buf, _offset, _offset + _length));
+        } catch(IOException e) {
+          throw new IllegalStateException(
+              "Invalid snapshot data for table " + _table, e);
+        }
+      }
+    }
+
+    /** lazily loads the indexes of a schema */
+    private final class IndexLoader extends DbObjectList.Loader<DbIndex>
+    {
+      private final DbSchema _schema;
+      private final int _offset;
+      private final int _length;
+
+      private IndexLoader(DbSchema schema, int offset, int length) {
+        super(Reader.this);
+        _schema = schema;
+        _offset = offset;
+        _length = length;
+      }
+
+      @Override
+      protected void load(DbObjectList<DbIndex> list) {
+        try {
+          readIndexes(_schema, new Input(_buf, _offset, _offset + _length));
+        } catch(IOException e) {
+          throw new IllegalStateException(
+              "Invalid snapshot data for schema " + _schema, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Location of the definition of a table in a snapshot.
+   */
+  private static final class TableRef
+  {
+    private final DbSchema _schema;
+    private final String _name;
+    private final String _alias;
+    private final int _offset;
+    private final int _length;
+    /** the table, if created up front */
+    private DbTable _table;
+
+    private TableRef(DbSchema schema, String name, String alias, int offset,
+                     int length) {
+      _schema = schema;
+      _name = name;
+      _alias = alias;
+      _offset = offset;
+      _length = length;
+    }
+  }
+
+  /**
+   * Reads values from a range of a byte array.
+   */
+  private static final class Input
+  {
+    private final byte[] _buf;
+    private final int _end;
+    private int _pos;
+
+    private Input(byte[] buf, int pos, int end) {
+      _buf = buf;
+      _pos = pos;
+      _end = end;
+    }
+
+    /**
+     * Skips the given number of bytes.
+     * @return the position before skipping
+     */
+    private int skip(int len) throws IOException {
+      if((len < 0) || (len > (_end - _pos))) {
+        throw new EOFException();
+      }
+      int pos = _pos;
+      _pos += len;
+      return pos;
+    }
+
+    private int readByte() throws IOException {
+      return (_buf[skip(1)] & 0xFF);
+    }
+
+    private int readShort() throws IOException {
+      return ((readByte() << 8) | readByte());
+    }
+
+    private int readInt() throws IOException {
+      return ((readShort() << 16) | readShort());
+    }
+
+    private long readLong() throws IOException {
+      return (((long)readInt() << 32) | (readInt() & 0xFFFFFFFFL));
+    }
+
+    private int readVarInt() throws IOException {
+      int val = 0;
+      for(int shift = 0; shift < 32; shift += 7) {
+        int b = readByte();
+        val |= ((b & 0x7F) << shift);
+        if((b & 0x80) == 0) {
+          return val;
+        }
+      }
+      throw new IOException("Invalid variable length int");
+    }
+
+    private String readString(String[] strings) throws IOException {
+      int id = readVarInt();
+      if((id < 0) || (id >= strings.length)) {
+        throw new IOException("Unknown string " + id);
+      }
+      return strings[id];
+    }
+  }
+}
@@ -16,7 +16,6 @@ limitations under the License.
 
 package com.healthmarketscience.sqlbuilder.dbspec.basic;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.healthmarketscience.sqlbuilder.Condition;
@@ -32,11 +31,12 @@ import com.healthmarketscience.sqlbuilder.dbspec.Table;
 public class DbTable extends DbObject<DbSchema> implements Table {
 
   /** alias to use for this table in queries (should be unique) */
-  private final String _alias;
+  private String _alias;
   /** columns currently created for this table */
-  private final List<DbColumn> _columns = new ArrayList<DbColumn>();
+  private final DbObjectList<DbColumn> _columns = new DbObjectList<DbColumn>();
   /** constraints currently defined for this table */
-  private final List<DbConstraint> _constraints = new ArrayList<DbConstraint>();
+  private final List<DbConstraint> _constraints =
+    new SnapshotList<DbConstraint>();
 
   public DbTable(DbSchema parent, String name) {
     this(parent, name, parent.getSpec().getNextAlias());
@@ -52,6 +52,15 @@ public class DbTable extends DbObject<DbSchema> implements Table {
     return _alias;
   }
 
+  /**
+   * Sets the alias of a table which was created without one.  Must only be
+   * called before the table is visible to other threads (i.e. before it is
+   * added to its schema).
+   */
+  void setAlias(String alias) {
+    _alias = alias;
+  }
+
   @Override
   public String getTableNameSQL() {
     return getAbsoluteName();
@@ -64,9 +73,27 @@ public class DbTable extends DbObject<DbSchema> implements Table {
 
   @Override
   public List<DbConstraint> getConstraints() {
+    // constraints are loaded along with the columns
+    _columns.ensureLoaded();
     return _constraints;
   }
 
+  /**
+   * Sets the Loader which will supply the columns (and constraints) of this
+   * table on first access.
+   */
+  void setColumnLoader(DbObjectList.Loader<DbColumn> loader) {
+    _columns.setLoader(loader);
+  }
+
+  /**
+   * @return {@code true} if the columns of this table have been loaded (or
+   *         were never lazily loaded), {@code false} otherwise
+   */
+  boolean isColumnsLoaded() {
+    return _columns.isLoaded();
+  }
+
   /**
    * @param name name of the column to find
    * @return the column previously added to this table with the given name, or
@@ -76,6 +103,16 @@ public class DbTable extends DbObject<DbSchema> implements Table {
     return findObject(_columns, name);
   }
 
+  /**
+   * @param name name of the column to find
+   * @param ignoreCase whether or not to ignore case when comparing names
+   * @return the column previously added to this table with the given name, or
+   *         {@code null} if none.
+   */
+  public DbColumn findColumn(String name, boolean ignoreCase) {
+    return findObject(_columns, name, ignoreCase);
+  }
+
   /**
    * @param names name(s) of the column(s) to find
    * @return the column(s) previously added to this table with the given
@@ -284,6 +321,7 @@ public class DbTable extends DbObject<DbSchema> implements Table {
    * @return the given constraint
    */
   public <T extends DbConstraint> T addConstraint(T constraint) {
+    _columns.ensureLoaded();
     _constraints.add(checkOwnership(constraint));
     return constraint;
   }
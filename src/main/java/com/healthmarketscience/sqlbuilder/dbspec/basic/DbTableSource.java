@@ -0,0 +1,56 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.dbspec.basic;
+
+import java.util.List;
+
+/**
+ * Source of table definitions for a {@link LazyDbSchema}.  The definitions
+ * may come from anywhere, e.g. a snapshot file (see
+ * {@link DbSpecSnapshot#readLazy(byte[])}), database metadata or generated
+ * classes.
+ * <p>
+ * Implementations must be safe to call from multiple threads (although a
+ * LazyDbSchema will only load one table at a time).
+ *
+ * @author agent
+ */
+public interface DbTableSource
+{
+  /**
+   * @param schema the schema for which the table names are requested
+   * @return the names of all the tables available for the given schema, in
+   *         the order in which they should be listed
+   */
+  public List<String> getTableNames(DbSchema schema);
+
+  /**
+   * Populates the given (empty) table with the definition of the table with
+   * the same name (i.e. adds the columns and constraints).  This is only
+   * called for names returned by {@link #getTableNames}.  The table has
+   * already been created (via
+   * {@link DbSpec#createTable(DbSchema,String,String)}, without an alias),
+   * but is not yet visible to other threads.  The table is assigned an alias
+   * if it is successfully populated.  The source may look up other tables in
+   * the schema (including ones which reference this table).
+   *
+   * @param table the table to populate
+   * @return {@code true} if the table was populated, {@code false} if this
+   *         source has no table with the given name
+   */
+  public boolean loadTable(DbTable table);
+}
@@ -0,0 +1,234 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.dbspec.basic;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DbSchema whose tables are only created when they are first used.  Tables
+ * are resolved by name from a {@link DbTableSource} when first found via
+ * {@link #findTable}, and are subsequently cached in the schema.  Thus, an
+ * application which only uses a small portion of a large schema only pays
+ * for the tables it actually uses.
+ * <p>
+ * {@link #getTables} returns a read-only view of all the tables available
+ * from the source (followed by any tables explicitly added to this schema)
+ * which resolves each table as it is accessed.  {@link #getLoadedTables}
+ * returns only the tables which have been resolved so far.
+ * <p>
+ * Only the names returned by {@link DbTableSource#getTableNames} are
+ * resolved from the source, other names are never requested.
+ * <p>
+ * Note that tables are assigned aliases when they are successfully resolved
+ * (unless the source assigns them), so the aliases depend on the order in
+ * which the tables are first used.
+ *
+ * @author agent
+ */
+public class LazyDbSchema extends DbSchema
+{
+  /** the source of the table definitions */
+  private final DbTableSource _source;
+  /** names of listed tables which the source failed to load */
+  private final Set<String> _missingNames =
+    ConcurrentHashMap.<String>newKeySet();
+  /** tables currently being loaded by the loading thread (guarded by the
+      spec's lazy load lock) */
+  private final Map<String,DbTable> _loadingTables =
+    new HashMap<String,DbTable>();
+  /** the names of the tables available from the source, built on first
+      use */
+  private volatile SourceNames _sourceNames;
+
+  public LazyDbSchema(DbSpec spec, String name, DbTableSource source) {
+    super(spec, name);
+    _source = source;
+  }
+
+  public DbTableSource getTableSource() {
+    return _source;
+  }
+
+  /**
+   * @return a read-only view of all the tables in this schema, which
+   *         resolves each table from the source as it is accessed
+   */
+  @Override
+  public List<DbTable> getTables() {
+    return new TableList();
+  }
+
+  /**
+   * @return the tables in this schema which have been resolved so far (or
+   *         were explicitly added)
+   */
+  public List<DbTable> getLoadedTables() {
+    return super.getTables();
+  }
+
+  /**
+   * @param name name of the table to find
+   * @return the table with the given name, resolving it from the source if
+   *         it has not been used before, or {@code null} if none.
+   */
+  @Override
+  public DbTable findTable(String name) {
+    DbTable table = super.findTable(name);
+    if((table == null) && (name != null) &&
+       getSourceNames()._names.contains(name) &&
+       !_missingNames.contains(name)) {
+      table = loadTable(name);
+    }
+    return table;
+  }
+
+  /**
+   * @param name name of the table to find
+   * @param ignoreCase whether or not to ignore case when comparing names
+   * @return the table with the given name, resolving it from the source if
+   *         it has not been used before, or {@code null} if none.
+   */
+  @Override
+  public DbTable findTable(String name, boolean ignoreCase) {
+    if(!ignoreCase) {
+      return findTable(name);
+    }
+    DbTable table = super.findTable(name, true);
+    if((table == null) && (name != null)) {
+      // need to find the actual name of the table
+      String tableName = getSourceNames()._ciNames.get(
+          DbObjectList.toCaseInsensitiveKey(name));
+      if(tableName != null) {
+        table = findTable(tableName);
+      }
+    }
+    return table;
+  }
+
+  private SourceNames getSourceNames() {
+    SourceNames sourceNames = _sourceNames;
+    if(sourceNames == null) {
+      sourceNames = new SourceNames(_source.getTableNames(this));
+      _sourceNames = sourceNames;
+    }
+    return sourceNames;
+  }
+
+  private DbTable loadTable(String name) {
+    // the source may resolve tables in other schemas while loading, so use a
+    // lock shared by the whole spec (per-schema locks could deadlock)
+    synchronized(getSpec().getLazyLoadLock()) {
+      return loadTableImpl(name);
+    }
+  }
+
+  private DbTable loadTableImpl(String name) {
+    DbTable table = super.findTable(name);
+    if(table != null) {
+      // loaded by another thread in the meantime
+      return table;
+    }
+    table = _loadingTables.get(name);
+    if(table != null) {
+      // reference to a table currently being loaded (by this thread)
+      return table;
+    }
+    if(_missingNames.contains(name)) {
+      return null;
+    }
+
+    // the alias is assigned once the table is successfully loaded, so that
+    // failed loads do not use up aliases
+    table = getSpec().createTable(this, name, null);
+    _loadingTables.put(name, table);
+    try {
+      if(!_source.loadTable(table)) {
+        _missingNames.add(name);
+        return null;
+      }
+    } finally {
+      _loadingTables.remove(name);
+    }
+    if(table.getAlias() == null) {
+      table.setAlias(getSpec().getNextAlias());
+    }
+    return addTable(table);
+  }
+
+  /**
+   * The names of the tables available from the source.
+   */
+  private static final class SourceNames
+  {
+    private final Set<String> _names;
+    /** case-insensitive keys of the names mapped to the actual names */
+    private final Map<String,String> _ciNames = new HashMap<String,String>();
+
+    private SourceNames(List<String> names) {
+      _names = new HashSet<String>(names);
+      for(String name : names) {
+        // the first table with a given name is found
+        _ciNames.putIfAbsent(DbObjectList.toCaseInsensitiveKey(name), name);
+      }
+    }
+  }
+
+  /**
+   * Read-only view of all the tables in this schema.
+   */
+  private final class TableList extends AbstractList<DbTable>
+  {
+    private final List<String> _names;
+    private final List<DbTable> _otherTables = new ArrayList<DbTable>();
+
+    private TableList() {
+      _names = _source.getTableNames(LazyDbSchema.this);
+      Set<String> nameSet = new HashSet<String>(_names);
+      for(DbTable table : getLoadedTables()) {
+        if(!nameSet.contains(table.getName())) {
+          _otherTables.add(table);
+        }
+      }
+    }
+
+    @Override
+    public DbTable get(int index) {
+      if(index >= _names.size()) {
+        return _otherTables.get(index - _names.size());
+      }
+      String name = _names.get(index);
+      DbTable table = findTable(name);
+      if(table == null) {
+        throw new IllegalStateException(
+            "Table source has no definition for listed table " + name);
+      }
+      return table;
+    }
+
+    @Override
+    public int size() {
+      return _names.size() + _otherTables.size();
+    }
+  }
+}
@@ -0,0 +1,268 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.dbspec.basic;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe list used for the contents of the basic dbspec objects, which
+ * are usually built by appending (possibly from multiple threads) and then
+ * mostly read.  Modifications are synchronized on the list, reads do not
+ * lock.  Unlike a CopyOnWriteArrayList, appending does not copy the list
+ * (the backing array grows as in an ArrayList), so building a large list is
+ * linear.  Any other modification copies the list.
+ * <p>
+ * Each modification publishes an immutable snapshot of the list, and
+ * iterators operate on the snapshot as of their creation (so they never
+ * throw ConcurrentModificationException, and do not support removal).
+ *
+ * @author agent
+ */
+class SnapshotList<E> extends AbstractList<E> implements RandomAccess
+{
+  private static final int INITIAL_CAPACITY = 4;
+  private static final Snapshot EMPTY = new Snapshot(new Object[0], 0);
+
+  private volatile Snapshot _snapshot = EMPTY;
+
+  SnapshotList() {}
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    Snapshot snapshot = _snapshot;
+    if((index < 0) || (index >= snapshot._size)) {
+      throw new IndexOutOfBoundsException(
+          "Index: " + index + ", Size: " + snapshot._size);
+    }
+    return (E)snapshot._elems[index];
+  }
+
+  @Override
+  public int size() {
+    return _snapshot._size;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    final Snapshot snapshot = _snapshot;
+    return new Iterator<E>() {
+      private int _next;
+
+      @Override
+      public boolean hasNext() {
+        return (_next < snapshot._size);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public E next() {
+        if(!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return (E)snapshot._elems[_next++];
+      }
+    };
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return (indexOf(o) >= 0);
+  }
+
+  @Override
+  public int indexOf(Object o) {
+    Snapshot snapshot = _snapshot;
+    for(int i = 0; i < snapshot._size; ++i) {
+      if((o == null) ? (snapshot._elems[i] == null) :
+         o.equals(snapshot._elems[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public Object[] toArray() {
+    Snapshot snapshot = _snapshot;
+    return Arrays.copyOf(snapshot._elems, snapshot._size);
+  }
+
+  @Override
+  public synchronized boolean add(E obj) {
+    Snapshot snapshot = _snapshot;
+    Object[] elems = ensureCapacity(snapshot, 1);
+    elems[snapshot._size] = obj;
+    _snapshot = new Snapshot(elems, snapshot._size + 1);
+    return true;
+  }
+
+  @Override
+  public synchronized boolean addAll(Collection<? extends E> objs) {
+    Object[] newElems = objs.toArray();
+    if(newElems.length == 0) {
+      return false;
+    }
+    Snapshot snapshot = _snapshot;
+    Object[] elems = ensureCapacity(snapshot, newElems.length);
+    System.arraycopy(newElems, 0, elems, snapshot._size, newElems.length);
+    _snapshot = new Snapshot(elems, snapshot._size + newElems.length);
+    return true;
+  }
+
+  @Override
+  public synchronized void add(int index, E obj) {
+    Snapshot snapshot = _snapshot;
+    if(index == snapshot._size) {
+      add(obj);
+      return;
+    }
+    checkIndex(index, snapshot);
+    Object[] elems = new Object[snapshot._size + 1];
+    System.arraycopy(snapshot._elems, 0, elems, 0, index);
+    elems[index] = obj;
+    System.arraycopy(snapshot._elems, index, elems, index + 1,
+                     snapshot._size - index);
+    _snapshot = new Snapshot(elems, elems.length);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public synchronized E set(int index, E obj) {
+    Snapshot snapshot = _snapshot;
+    checkIndex(index, snapshot);
+    // the current array may be shared with older snapshots
+    Object[] elems = Arrays.copyOf(snapshot._elems, snapshot._size);
+    E oldObj = (E)elems[index];
+    elems[index] = obj;
+    _snapshot = new Snapshot(elems, elems.length);
+    return oldObj;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public synchronized E remove(int index) {
+    Snapshot snapshot = _snapshot;
+    checkIndex(index, snapshot);
+    E oldObj = (E)snapshot._elems[index];
+    Object[] elems = new Object[snapshot._size - 1];
+    System.arraycopy(snapshot._elems, 0, elems, 0, index);
+    System.arraycopy(snapshot._elems, index + 1, elems, index,
+                     elems.length - index);
+    _snapshot = new Snapshot(elems, elems.length);
+    return oldObj;
+  }
+
+  @Override
+  public synchronized boolean remove(Object o) {
+    int index = indexOf(o);
+    if(index < 0) {
+      return false;
+    }
+    remove(index);
+    return true;
+  }
+
+  @Override
+  public boolean removeAll(final Collection<?> objs) {
+    return removeIf(new Predicate<E>() {
+      @Override
+      public boolean test(E obj) {
+        return objs.contains(obj);
+      }
+    });
+  }
+
+  @Override
+  public boolean retainAll(final Collection<?> objs) {
+    return removeIf(new Predicate<E>() {
+      @Override
+      public boolean test(E obj) {
+        return !objs.contains(obj);
+      }
+    });
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public synchronized boolean removeIf(Predicate<? super E> filter) {
+    Snapshot snapshot = _snapshot;
+    Object[] elems = new Object[snapshot._size];
+    int size = 0;
+    for(int i = 0; i < snapshot._size; ++i) {
+      E obj = (E)snapshot._elems[i];
+      if(!filter.test(obj)) {
+        elems[size++] = obj;
+      }
+    }
+    if(size == snapshot._size) {
+      return false;
+    }
+    _snapshot = new Snapshot(elems, size);
+    return true;
+  }
+
+  @Override
+  public synchronized void clear() {
+    _snapshot = EMPTY;
+  }
+
+  /**
+   * @return an array into which the given number of objects may be appended
+   *         after the objects of the given snapshot
+   */
+  private static Object[] ensureCapacity(Snapshot snapshot, int numNew) {
+    // note, the slots after the size of the current snapshot are never
+    // visible to any snapshot, so they may be written in place
+    Object[] elems = snapshot._elems;
+    int minCapacity = snapshot._size + numNew;
+    if(minCapacity > elems.length) {
+      int newCapacity = Math.max(
+          Math.max(elems.length + (elems.length >> 1), minCapacity),
+          INITIAL_CAPACITY);
+      elems = Arrays.copyOf(elems, newCapacity);
+    }
+    return elems;
+  }
+
+  private static void checkIndex(int index, Snapshot snapshot) {
+    if((index < 0) || (index >= snapshot._size)) {
+      throw new IndexOutOfBoundsException(
+          "Index: " + index + ", Size: " + snapshot._size);
+    }
+  }
+
+  /**
+   * Immutable view of the contents of the list at some point in time.
+   */
+  private static final class Snapshot
+  {
+    private final Object[] _elems;
+    private final int _size;
+
+    private Snapshot(Object[] elems, int size) {
+      _elems = elems;
+      _size = size;
+    }
+  }
+}
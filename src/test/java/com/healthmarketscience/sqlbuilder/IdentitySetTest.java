@@ -0,0 +1,103 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package com.healthmarketscience.sqlbuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * @author agent
+ */
+public class IdentitySetTest extends TestCase
+{
+
+  public IdentitySetTest(String name) {
+    super(name);
+  }
+
+  public void testIdentity() throws Exception
+  {
+    IdentitySet<String> set = new IdentitySet<String>();
+    String s1 = new String("foo");
+    String s2 = new String("foo");
+
+    assertTrue(set.add(s1));
+    assertFalse(set.add(s1));
+    assertTrue(set.add(s2));
+    assertEquals(2, set.size());
+    assertTrue(set.contains(s1));
+    assertFalse(set.contains("bar"));
+
+    assertTrue(set.remove(s1));
+    assertFalse(set.remove(s1));
+    assertEquals(1, set.size());
+    assertSame(s2, set.iterator().next());
+  }
+
+  public void testInsertionOrder() throws Exception
+  {
+    // exercise both the scanned and indexed forms
+    for(int size : new int[]{5, 100}) {
+      IdentitySet<Object> set = new IdentitySet<Object>();
+      List<Object> expected = new ArrayList<Object>();
+      for(int i = 0; i < size; ++i) {
+        Object o = new Object();
+        expected.add(o);
+        set.add(o);
+        set.add(o);
+      }
+      assertEquals(expected, new ArrayList<Object>(set));
+      for(Object o : expected) {
+        assertTrue(set.contains(o));
+      }
+      assertFalse(set.contains(new Object()));
+
+      // remove every other element
+      List<Object> removed = new ArrayList<Object>();
+      for(int i = 0; i < size; i += 2) {
+        removed.add(expected.get(i));
+      }
+      assertTrue(set.removeAll(removed));
+      assertFalse(set.removeAll(removed));
+      expected.removeAll(removed);
+      assertEquals(expected, new ArrayList<Object>(set));
+      for(Object o : removed) {
+        assertFalse(set.contains(o));
+      }
+
+      for(Iterator<Object> iter = set.iterator(); iter.hasNext(); ) {
+        if(iter.next() == expected.get(0)) {
+          iter.remove();
+        }
+      }
+      expected.remove(0);
+      assertEquals(expected, new ArrayList<Object>(set));
+
+      // reuse after clear
+      set.clear();
+      assertTrue(set.isEmpty());
+      set.addAll(Arrays.asList("a", "b", "c"));
+      assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<Object>(set));
+    }
+  }
+
+}
@@ -20,10 +20,15 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Types;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.function.Function;
 
 import static com.healthmarketscience.sqlbuilder.Conditions.*;
 
@@ -155,6 +160,379 @@ public class QueryPreparerTest extends BaseSqlTestCase {
 
   }
 
+  public void testCompiledQuery() throws Exception
+  {
+    QueryPreparer prep = new QueryPreparer();
+    QueryPreparer.PlaceHolder ph1 = prep.getNewPlaceHolder();
+    QueryPreparer.MultiPlaceHolder mph1 = prep.getNewMultiPlaceHolder();
+    QueryPreparer.PlaceHolder sph1 = prep.addStaticPlaceHolder(42);
+    QueryPreparer.PlaceHolder ph2 = prep.getNewPlaceHolder();
+
+    SelectQuery query = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(
+          and(
+              equalTo(_table1_col2, ph1),
+              greaterThan(_table1_col3, mph1),
+              lessThan(_table1_col3, mph1),
+              notEqualTo(_table1_col1, sph1)));
+
+    Map<String,QueryPreparer.PlaceHolder> names =
+      new HashMap<String,QueryPreparer.PlaceHolder>();
+    names.put("id", ph1);
+    names.put("bound", mph1);
+    CompiledQuery compiled = CompiledQuery.compile(query, names);
+
+    checkResult(compiled.getSql(),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE ((t0.col2 = ?) AND (t0.col3 > ?) AND (t0.col3 < ?) AND (t0.col1 <> ?))");
+    assertEquals(compiled.getSql(), compiled.toString());
+    assertEquals(4, compiled.getSlotCount());
+    assertSame(ph1, compiled.getPlaceHolder(0));
+    assertSame(mph1, compiled.getPlaceHolder(1));
+    assertSame(mph1, compiled.getPlaceHolder(2));
+    assertSame(sph1, compiled.getPlaceHolder(3));
+    assertEquals(3, compiled.getIndex(2));
+    assertTrue(Arrays.equals(new int[]{2, 3}, compiled.getIndexes(mph1)));
+    assertTrue(Arrays.equals(new int[]{2, 3}, compiled.getIndexes("bound")));
+
+    try {
+      compiled.getIndexes("missing");
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {}
+
+    try {
+      compiled.setObject("missing", 13, null);
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {}
+
+    // names must refer to PlaceHolders in the query
+    names.put("unused", ph2);
+    try {
+      CompiledQuery.compile(query, names);
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {}
+
+    MockPreparedStatement mockStmt = new MockPreparedStatement();
+    PreparedStatement stmt = (PreparedStatement)
+      Proxy.newProxyInstance(Thread.currentThread().getContextClassLoader(),
+                             new Class<?>[]{PreparedStatement.class},
+                             mockStmt);
+
+    compiled.setObject("id", 13, stmt);
+    compiled.setObject("bound", null, Types.DECIMAL, stmt);
+    compiled.setObject(0, "foo", stmt);
+    compiled.setStaticValues(stmt);
+
+    @SuppressWarnings("unchecked")
+    List<List<Object>> expected = Arrays.asList(
+        Arrays.<Object>asList("setObject", 1, 13),
+        Arrays.<Object>asList("setNull", 2, Types.DECIMAL),
+        Arrays.<Object>asList("setNull", 3, Types.DECIMAL),
+        Arrays.<Object>asList("setObject", 1, "foo"),
+        Arrays.<Object>asList("setInt", 4, 42));
+    assertEquals(expected, mockStmt._calls);
+
+    // StaticPlaceHolders which cannot be bound by index are rejected
+    QueryPreparer.PlaceHolder legacyPH = prep.addStaticPlaceHolder(
+        new QueryPreparer.StaticPlaceHolder(prep) {
+          @Override
+          public void setValue(PreparedStatement ps) throws SQLException {
+            ps.setInt(getIndex(), 7);
+          }
+          @Override
+          public String displayToString() {
+            return "7";
+          }
+        });
+    try {
+      CompiledQuery.compile(new SelectQuery()
+                            .addColumns(_table1_col1)
+                            .addCondition(equalTo(_table1_col2, legacyPH)));
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {}
+  }
+
+  public void testFrozenQuery() throws Exception
+  {
+    QueryPreparer prep = new QueryPreparer();
+    QueryPreparer.PlaceHolder idPH = prep.getNewPlaceHolder();
+    SelectQuery query = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(equalTo(_table1_col2, idPH));
+    final FrozenQuery frozen = query.freeze(
+        Collections.singletonMap("id", idPH));
+
+    final String expected =
+      "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 = ?)";
+    checkResult(frozen.toString(), expected);
+    assertFalse(idPH.isInQuery());
+    assertTrue(Arrays.equals(new int[]{1},
+                             frozen.getCompiledQuery().getIndexes("id")));
+
+    // changes to the original query do not affect the snapshot
+    query.addColumns(_table1_col3);
+    checkResult(frozen.getSql(), expected);
+
+    // generation has no side effects, so may be done concurrently
+    final List<String> results =
+      Collections.synchronizedList(new ArrayList<String>());
+    Thread[] threads = new Thread[4];
+    for(int i = 0; i < threads.length; ++i) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          for(int j = 0; j < 100; ++j) {
+            results.add(SqlRenderer.render(frozen));
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for(Thread t : threads) {
+      t.join();
+    }
+    assertEquals(400, results.size());
+    for(String result : results) {
+      assertEquals(expected, result);
+    }
+
+    // the positions of nested PlaceHolders must be recorded in a map
+    UnionQuery union = new UnionQuery(SetOperationQuery.Type.UNION_ALL)
+      .addQueries((Object)frozen, frozen);
+    try {
+      union.toString();
+      fail("IllegalStateException should have been thrown");
+    } catch(IllegalStateException e) {}
+    ParameterMap params = new ParameterMap();
+    SqlContext context = new SqlContext();
+    context.setParameterMap(params);
+    checkResult(union.toString(64, context),
+                expected + " UNION ALL " + expected);
+    assertTrue(Arrays.equals(new int[]{1, 2}, params.getIndexes(idPH)));
+
+    // the compiled map may not be reused for generation
+    ParameterMap compiledParams = frozen.getCompiledQuery().getParameterMap();
+    assertTrue(compiledParams.isReadOnly());
+    context.setParameterMap(compiledParams);
+    try {
+      query.toString(64, context);
+      fail("UnsupportedOperationException should have been thrown");
+    } catch(UnsupportedOperationException e) {}
+    assertEquals(1, compiledParams.getSlotCount());
+  }
+
+  public void testParameterMap() throws Exception
+  {
+    QueryPreparer prep = new QueryPreparer();
+    QueryPreparer.PlaceHolder ph1 = prep.getNewPlaceHolder();
+    QueryPreparer.MultiPlaceHolder mph1 = prep.getNewMultiPlaceHolder();
+    QueryPreparer.ListPlaceHolder lph1 = prep.getNewListPlaceHolder()
+      .addPlaceHolders(2);
+    QueryPreparer.PlaceHolder sph1 = prep.addStaticPlaceHolder("foo");
+
+    SelectQuery query = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(
+          and(
+              equalTo(_table1_col2, ph1),
+              greaterThan(_table1_col3, mph1),
+              in(_table1_col1, lph1),
+              lessThan(_table1_col3, mph1),
+              notEqualTo(_table1_col1, sph1)));
+
+    String expected = "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE ((t0.col2 = ?) AND (t0.col3 > ?) AND (t0.col1 IN (?,?) ) AND (t0.col3 < ?) AND (t0.col1 <> ?))";
+
+    // the same query may be generated repeatedly
+    for(int i = 0; i < 2; ++i) {
+      ParameterMap params = new ParameterMap(3);
+      SqlContext context = new SqlContext();
+      context.setParameterMap(params);
+      checkResult(query.toString(64, context), expected);
+
+      assertEquals(6, params.getSlotCount());
+      assertSame(mph1, params.getPlaceHolder(4));
+      assertEquals(5, params.getIndex(2));
+      assertTrue(Arrays.equals(new int[]{3}, params.getIndexes(ph1)));
+      assertTrue(Arrays.equals(new int[]{4, 7}, params.getIndexes(mph1)));
+      assertTrue(Arrays.equals(new int[]{5, 6}, params.getIndexes(lph1)));
+      assertTrue(params.isInQuery(sph1));
+      assertFalse(params.isInQuery(prep.getNewPlaceHolder()));
+      assertFalse(ph1.isInQuery());
+    }
+
+    ParameterMap params = new ParameterMap();
+    SqlContext context = new SqlContext();
+    context.setParameterMap(params);
+    checkResult(SqlRenderer.render(query.freeze(), context), expected);
+    assertEquals(6, params.getSlotCount());
+
+    MockPreparedStatement mockStmt = new MockPreparedStatement();
+    PreparedStatement stmt = (PreparedStatement)
+      Proxy.newProxyInstance(Thread.currentThread().getContextClassLoader(),
+                             new Class<?>[]{PreparedStatement.class},
+                             mockStmt);
+
+    params.setObject(ph1, 13, stmt);
+    params.setObject(mph1, null, Types.DECIMAL, stmt);
+    params.setNull(lph1, Types.VARCHAR, stmt);
+    params.setStaticValues(stmt);
+
+    @SuppressWarnings("unchecked")
+    List<List<Object>> expectedCalls = Arrays.asList(
+        Arrays.<Object>asList("setObject", 1, 13),
+        Arrays.<Object>asList("setNull", 2, Types.DECIMAL),
+        Arrays.<Object>asList("setNull", 5, Types.DECIMAL),
+        Arrays.<Object>asList("setNull", 3, Types.VARCHAR),
+        Arrays.<Object>asList("setNull", 4, Types.VARCHAR),
+        Arrays.<Object>asList("setString", 6, "foo"));
+    assertEquals(expectedCalls, mockStmt._calls);
+
+    // normal generation still assigns the indexes to the PlaceHolders
+    checkResult(query.toString(), expected);
+    assertEquals(1, ph1.getIndex());
+    assertEquals(6, sph1.getIndex());
+  }
+
+  public void testBatchExecutor() throws Exception
+  {
+    QueryPreparer prep = new QueryPreparer();
+    QueryPreparer.PlaceHolder col1PH = prep.getNewPlaceHolder();
+    QueryPreparer.PlaceHolder col3PH = prep.getNewPlaceHolder();
+    QueryPreparer.PlaceHolder idPH = prep.getNewMultiPlaceHolder();
+
+    BatchExecutor<Object[]> exec = new BatchExecutor<Object[]>(
+        new UpdateQuery(_table1)
+        .addSetClause(_table1_col1, col1PH)
+        .addSetClause(_table1_col3, col3PH)
+        .addCondition(or(equalTo(_table1_col2, idPH),
+                         lessThan(_table1_col2, idPH))))
+      .addBinding(col1PH, new Function<Object[],Object>() {
+          public Object apply(Object[] row) {
+            return row[1];
+          }
+        })
+      .addBinding(col3PH, new Function<Object[],Object>() {
+          public Object apply(Object[] row) {
+            return row[2];
+          }
+        }, Types.DECIMAL)
+      .addBinder(new BatchExecutor.Binder<Object[]>() {
+          public void bind(PreparedStatement ps, Object[] row)
+            throws SQLException {
+            ps.setInt(3, (Integer)row[0]);
+            ps.setInt(4, (Integer)row[0]);
+          }
+        })
+      .setBatchSize(2);
+    assertEquals("UPDATE Schema1.Table1 SET col1 = ?,col3 = ? WHERE ((col2 = ?) OR (col2 < ?))",
+                 exec.getCompiledQuery().getSql());
+
+    MockPreparedStatement mockStmt = new MockPreparedStatement();
+    PreparedStatement stmt = (PreparedStatement)
+      Proxy.newProxyInstance(Thread.currentThread().getContextClassLoader(),
+                             new Class<?>[]{PreparedStatement.class},
+                             mockStmt);
+
+    List<int[]> counts = exec.execute(
+        stmt, Arrays.asList(new Object[]{1, "foo", 3.0},
+                            new Object[]{2, "bar", null},
+                            new Object[]{3, "baz", 5.0}).iterator());
+    assertEquals(2, counts.size());
+    assertEquals(2, counts.get(0).length);
+    assertEquals(1, counts.get(1).length);
+
+    @SuppressWarnings("unchecked")
+    List<List<Object>> expected = Arrays.asList(
+        Arrays.<Object>asList("setObject", 1, "foo"),
+        Arrays.<Object>asList("setObject", 2, 3.0, Types.DECIMAL),
+        Arrays.<Object>asList("setInt", 3, 1),
+        Arrays.<Object>asList("setInt", 4, 1),
+        Arrays.<Object>asList("addBatch"),
+        Arrays.<Object>asList("setObject", 1, "bar"),
+        Arrays.<Object>asList("setNull", 2, Types.DECIMAL),
+        Arrays.<Object>asList("setInt", 3, 2),
+        Arrays.<Object>asList("setInt", 4, 2),
+        Arrays.<Object>asList("addBatch"),
+        Arrays.<Object>asList("executeBatch"),
+        Arrays.<Object>asList("setObject", 1, "baz"),
+        Arrays.<Object>asList("setObject", 2, 5.0, Types.DECIMAL),
+        Arrays.<Object>asList("setInt", 3, 3),
+        Arrays.<Object>asList("setInt", 4, 3),
+        Arrays.<Object>asList("addBatch"),
+        Arrays.<Object>asList("executeBatch"));
+    assertEquals(expected, mockStmt._calls);
+
+    try {
+      exec.addBinding(prep.getNewPlaceHolder(),
+                      new Function<Object[],Object>() {
+                        public Object apply(Object[] row) {
+                          return row[0];
+                        }
+                      });
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {
+      // success
+    }
+  }
+
+  public void testPaddedListPlaceHolder() throws Exception
+  {
+    assertEquals(0, QueryPreparer.ListPlaceHolder.getPaddedSize(0));
+    assertEquals(1, QueryPreparer.ListPlaceHolder.getPaddedSize(1));
+    assertEquals(4, QueryPreparer.ListPlaceHolder.getPaddedSize(3));
+    assertEquals(8, QueryPreparer.ListPlaceHolder.getPaddedSize(8));
+    assertEquals(16, QueryPreparer.ListPlaceHolder.getPaddedSize(9));
+    assertEquals(10, QueryPreparer.ListPlaceHolder.getPaddedSize(7, 10, 50));
+    assertEquals(50, QueryPreparer.ListPlaceHolder.getPaddedSize(11, 10, 50));
+    assertEquals(150, QueryPreparer.ListPlaceHolder.getPaddedSize(101, 10, 50));
+    try {
+      QueryPreparer.ListPlaceHolder.getPaddedSize(5, 10, 10);
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {
+      // success
+    }
+
+    QueryPreparer prep = new QueryPreparer();
+    QueryPreparer.ListPlaceHolder lph1 = prep.getNewListPlaceHolder()
+      .addPaddedPlaceHolders(3);
+    QueryPreparer.ListPlaceHolder lph2 = prep.getNewListPlaceHolder()
+      .addPaddedPlaceHolders(0, 2, 4);
+    assertTrue(lph1.isPadded());
+
+    String queryStr = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(and(in(_table1_col2, lph1), in(_table1_col1, lph2)))
+      .toString();
+    checkResult(queryStr,
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE ((t0.col2 IN (?,?,?,?) ) AND (t0.col1 IN () ))");
+
+    MockPreparedStatement mockStmt = new MockPreparedStatement();
+    PreparedStatement stmt = (PreparedStatement)
+      Proxy.newProxyInstance(Thread.currentThread().getContextClassLoader(),
+                             new Class<?>[]{PreparedStatement.class},
+                             mockStmt);
+
+    lph1.setInts(stmt, 7, 8, 9);
+    lph1.setObjects(stmt, Arrays.asList("a"));
+    lph1.setLongs(stmt);
+
+    @SuppressWarnings("unchecked")
+    List<List<Object>> expected = Arrays.asList(
+        Arrays.<Object>asList("setInt", 1, 7),
+        Arrays.<Object>asList("setInt", 2, 8),
+        Arrays.<Object>asList("setInt", 3, 9),
+        Arrays.<Object>asList("setInt", 4, 9),
+        Arrays.<Object>asList("setObject", 1, "a"),
+        Arrays.<Object>asList("setObject", 2, "a"),
+        Arrays.<Object>asList("setObject", 3, "a"),
+        Arrays.<Object>asList("setObject", 4, "a"),
+        Arrays.<Object>asList("setNull", 1, Types.BIGINT),
+        Arrays.<Object>asList("setNull", 2, Types.BIGINT),
+        Arrays.<Object>asList("setNull", 3, Types.BIGINT),
+        Arrays.<Object>asList("setNull", 4, Types.BIGINT));
+    assertEquals(expected, mockStmt._calls);
+  }
+
   private void checkIndexes(List<Integer> idxs, Integer... expectedIdxs) {
     assertEquals(Arrays.asList(expectedIdxs), idxs);
   }
@@ -163,14 +541,25 @@ public class QueryPreparerTest extends BaseSqlTestCase {
     implements InvocationHandler
   {
     private final List<List<Object>> _calls = new ArrayList<List<Object>>();
+    private int _batchRows;
 
     public Object invoke(Object proxy, Method method, Object[] args)
       throws Throwable
     {
       List<Object> call = new ArrayList<Object>();
       call.add(method.getName());
-      call.addAll(Arrays.asList(args));
+      if(args != null) {
+        call.addAll(Arrays.asList(args));
+      }
       _calls.add(call);
+      if("addBatch".equals(method.getName())) {
+        ++_batchRows;
+      } else if("executeBatch".equals(method.getName())) {
+        int[] counts = new int[_batchRows];
+        Arrays.fill(counts, 1);
+        _batchRows = 0;
+        return counts;
+      }
       return null;
     }
   }
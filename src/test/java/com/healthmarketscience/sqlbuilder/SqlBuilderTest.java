@@ -16,19 +16,40 @@ limitations under the License.
 
 package com.healthmarketscience.sqlbuilder;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.sql.Types;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 import com.healthmarketscience.common.util.AppendableExt;
 import com.healthmarketscience.sqlbuilder.dbspec.Column;
+import com.healthmarketscience.sqlbuilder.custom.mysql.MysLiteralEscaper;
+import com.healthmarketscience.sqlbuilder.custom.mysql.MysLiteralFormat;
+import com.healthmarketscience.sqlbuilder.custom.postgresql.PgLiteralFormat;
 import com.healthmarketscience.sqlbuilder.dbspec.RejoinTable;
 import com.healthmarketscience.sqlbuilder.dbspec.basic.DbColumn;
 import com.healthmarketscience.sqlbuilder.dbspec.basic.DbFunction;
 import com.healthmarketscience.sqlbuilder.dbspec.basic.DbFunctionPackage;
 import com.healthmarketscience.sqlbuilder.dbspec.basic.DbIndex;
+import com.healthmarketscience.sqlbuilder.dbspec.basic.DbSchema;
 import com.healthmarketscience.sqlbuilder.dbspec.basic.DbSpec;
 import com.healthmarketscience.sqlbuilder.dbspec.basic.DbTable;
 
@@ -180,6 +201,110 @@ public class SqlBuilderTest extends BaseSqlTestCase
     } catch(ValidationException e) {}
   }
 
+  public void testMultiRowInsert()
+  {
+    MultiRowInsertQuery query = new MultiRowInsertQuery(_table1)
+      .addColumns(_table1_col1, _table1_col2)
+      .addRow("foo", 1)
+      .addRow(Arrays.asList("bar", 2))
+      .addRow("baz", null);
+    checkResult(query.validate().toString(),
+                "INSERT INTO Schema1.Table1 (col1,col2) VALUES ('foo',1),('bar',2),('baz',NULL)");
+    assertEquals(0, query.getParameterCount());
+
+    // no params, so only length matters
+    String header = "INSERT INTO Schema1.Table1 (col1,col2) VALUES ";
+    assertEquals(Arrays.asList(
+                     header + "('foo',1),('bar',2)",
+                     header + "('baz',NULL)"),
+                 query.toStatements(0, header.length() + 19));
+    assertEquals(Arrays.asList(query.toString()),
+                 query.toStatements(10, 0));
+
+    try {
+      query.toStatements(0, header.length() + 5);
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {
+      // success
+    }
+
+    MultiRowInsertQuery prepQuery = new MultiRowInsertQuery(_table1)
+      .addColumns(_table1_col1, _table1_col2, _table1_col3)
+      .addPreparedRows(5);
+    assertEquals(15, prepQuery.getParameterCount());
+    assertEquals(Arrays.asList(
+                     "INSERT INTO Schema1.Table1 (col1,col2,col3) VALUES (?,?,?),(?,?,?)",
+                     "INSERT INTO Schema1.Table1 (col1,col2,col3) VALUES (?,?,?),(?,?,?)",
+                     "INSERT INTO Schema1.Table1 (col1,col2,col3) VALUES (?,?,?)"),
+                 prepQuery.toStatements(7, 0));
+
+    List<MultiRowInsertQuery> split = prepQuery.split(9);
+    assertEquals(2, split.size());
+    assertEquals(3, split.get(0).getRowCount());
+    assertEquals(2, split.get(1).getRowCount());
+    checkResult(split.get(1).validate().toString(),
+                "INSERT INTO Schema1.Table1 (col1,col2,col3) VALUES (?,?,?),(?,?,?)");
+    assertSame(prepQuery, prepQuery.split(0).get(0));
+    assertSame(prepQuery, prepQuery.split(15).get(0));
+
+    // the chunks have their own columns
+    split.get(0).addCustomColumns("col4");
+    checkResult(split.get(1).toString(),
+                "INSERT INTO Schema1.Table1 (col1,col2,col3) VALUES (?,?,?),(?,?,?)");
+
+    // all the generated parameters are counted
+    QueryPreparer prep = new QueryPreparer();
+    QueryPreparer.ListPlaceHolder listPh = prep.getNewListPlaceHolder();
+    listPh.addPlaceHolders(2);
+    MultiRowInsertQuery nestedQuery = new MultiRowInsertQuery(_table1)
+      .addColumns(_table1_col1, _table1_col2)
+      .addRow(listPh, FunctionCall.sum().addColumnParams(_table1_col2)
+              .addCustomParams(prep.getNewPlaceHolder(), "what?"))
+      .addRow("a\"?", SqlObject.QUESTION_MARK);
+    assertEquals(4, nestedQuery.getParameterCount());
+    assertFalse(listPh.isInQuery());
+    assertEquals(2, nestedQuery.split(3).size());
+
+    // PlaceHolder indexes would span the statements
+    try {
+      nestedQuery.toStatements(3, 0);
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {
+      // success
+    }
+    assertFalse(listPh.isInQuery());
+
+    // only actual parameter objects are counted, not '?' in the sql
+    MultiRowInsertQuery qmQuery = new MultiRowInsertQuery(_table1)
+      .addColumns(_table1_col1, _table1_col2)
+      .addRow(FunctionCall.sum().addCustomParams(SqlObject.QUESTION_MARK,
+                                                 "what?"),
+              new CustomSql("'{}'::jsonb ?| ARRAY['a']"))
+      .addRow("a\\'?", SqlObject.QUESTION_MARK);
+    assertEquals(2, qmQuery.getParameterCount());
+    assertEquals(Arrays.asList(
+                     "INSERT INTO Schema1.Table1 (col1,col2) VALUES (SUM(?,'what?'),'{}'::jsonb ?| ARRAY['a'])",
+                     "INSERT INTO Schema1.Table1 (col1,col2) VALUES ('a\\'?',?)"),
+                 qmQuery.toStatements(1, 0));
+
+    try {
+      prepQuery.split(2);
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {
+      // success
+    }
+
+    try {
+      new MultiRowInsertQuery(_table1)
+        .addColumns(_table1_col1, _table1_col2)
+        .addRow("foo")
+        .validate();
+      fail("ValidationException should have been thrown");
+    } catch(ValidationException e) {
+      // success
+    }
+  }
+
   public void testInsertSelect()
   {
     SelectQuery selectQuery = new SelectQuery()
@@ -734,6 +859,789 @@ public class SqlBuilderTest extends BaseSqlTestCase
 
   }
 
+  public void testNestedJoinInference()
+  {
+    SelectQuery innermost = new SelectQuery()
+      .addColumns(_defTable2_col4)
+      .addCondition(and(equalTo(_defTable2_col_id, _defTable1_col_id),
+                        equalTo(_defTable2_col5, _table1_col3)));
+    SelectQuery sibling = new SelectQuery()
+      .addColumns(_defTable2_col5)
+      .addCondition(equalTo(_defTable2_col4, _table1_col2));
+    SelectQuery inner = new SelectQuery()
+      .addColumns(_defTable1_col_id)
+      .addCondition(and(equalTo(_defTable1_col2, _table1_col1),
+                        exists(innermost)));
+    SelectQuery query = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(and(in(_table1_col2, new Subquery(inner)),
+                        not(exists(sibling))));
+
+    String expected = "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE ((t0.col2 IN (SELECT t1.col_id FROM Table1 t1 WHERE ((t1.col2 = t0.col1) AND (EXISTS (SELECT t2.col4 FROM Table2 t2 WHERE ((t2.col_id = t1.col_id) AND (t2.col5 = t0.col3)))))) ) AND (NOT (EXISTS (SELECT t2.col5 FROM Table2 t2 WHERE (t2.col4 = t0.col2)))))";
+    checkResult(query.validate().toString(), expected);
+    // nothing is cached between generations
+    checkResult(query.toString(), expected);
+
+    // columns of explicit FROM queries must reference tables in the current
+    // or outer queries
+    SelectQuery fromQuery = new SelectQuery()
+      .addFromTable(_defTable1)
+      .addColumns(_defTable1_col_id)
+      .addCondition(equalTo(_defTable1_col2, _table1_col1));
+    new SelectQuery()
+      .addFromTable(_table1)
+      .addColumns(_table1_col1)
+      .addCondition(exists(fromQuery))
+      .validate();
+    try {
+      new SelectQuery()
+        .addFromTable(_defTable2)
+        .addColumns(_defTable2_col4)
+        .addCondition(exists(fromQuery))
+        .validate();
+      fail("ValidationException should have been thrown");
+    } catch(ValidationException e) {}
+  }
+
+  public void testTypedValues() throws Exception
+  {
+    SelectQuery query = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(new InCondition(
+                        _table1_col2,
+                        LocalDate.of(2024, 1, 31),
+                        LocalTime.of(9, 5, 7, 120000000),
+                        LocalDateTime.of(2024, 1, 31, 23, 59, 0),
+                        Instant.parse("2024-01-31T12:00:00.000000001Z"),
+                        UUID.fromString("6c1f2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f"),
+                        new byte[]{0x01, (byte)0xAB, 0x7F},
+                        new BigDecimal("1E+3")));
+
+    // typed literals are opt-in
+    SelectQuery plainQuery = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(new InCondition(
+                        _table1_col2,
+                        LocalDate.of(2024, 1, 31),
+                        LocalTime.of(9, 5, 7, 120000000),
+                        LocalDateTime.of(2024, 1, 31, 23, 59, 0),
+                        Instant.parse("2024-01-31T12:00:00.000000001Z"),
+                        UUID.fromString("6c1f2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f"),
+                        new BigDecimal("1E+3")));
+    checkResult(plainQuery.toString(),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN ('2024-01-31','09:05:07.120','2024-01-31T23:59','2024-01-31T12:00:00.000000001Z','6c1f2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f',1E+3) )");
+
+    SqlContext context = new SqlContext();
+    context.setLiteralFormat(TypedValueObject.ANSI_FORMAT);
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN (DATE '2024-01-31',TIME '09:05:07.12',TIMESTAMP '2024-01-31 23:59:00',TIMESTAMP '2024-01-31 12:00:00.000000001 +00:00','6c1f2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f',X'01AB7F',1000) )");
+
+    context = new SqlContext();
+    context.setLiteralFormat(TypedValueObject.JDBC_ESCAPE_FORMAT);
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN ({d '2024-01-31'},{t '09:05:07'},{ts '2024-01-31 23:59:00'},{ts '2024-01-31 12:00:00.000000001'},'6c1f2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f',X'01AB7F',1000) )");
+
+    context = new SqlContext();
+    context.setLiteralFormat(PgLiteralFormat.INSTANCE);
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN (DATE '2024-01-31',TIME '09:05:07.12',TIMESTAMP '2024-01-31 23:59:00',TIMESTAMP WITH TIME ZONE '2024-01-31 12:00:00.000000001+00:00','6c1f2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f'::uuid,'\\x01AB7F'::bytea,1000) )");
+
+    context = new SqlContext();
+    context.setLiteralFormat(MysLiteralFormat.INSTANCE);
+    checkResult(new TypedValueObject(
+                    Instant.parse("2024-01-31T12:00:00Z")).toString(64, context),
+                "TIMESTAMP '2024-01-31 12:00:00+00:00'");
+
+    // typed values are parameters when generating literals as "?"
+    context = new SqlContext();
+    context.setUseLiteralParameters(true);
+    checkResult(new SelectQuery().addColumns(_table1_col1)
+                .addCondition(BinaryCondition.equalTo(
+                                  _table1_col2, LocalDate.of(2024, 1, 31)))
+                .toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 = ?)");
+
+    try {
+      new TypedValueObject("foo");
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {}
+  }
+
+  public void testEscapeLiterals() throws Exception
+  {
+    SelectQuery query = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(new InCondition(_table1_col2, "it's", "a\\b''",
+                                    new StringBuilder("'x'"), "plain"));
+
+    // not escaped by default
+    checkResult(query.toString(),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN ('it's','a\\b''',''x'','plain') )");
+
+    SqlContext context = new SqlContext();
+    context.setEscapeLiterals(true);
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN ('it''s','a\\b''''','''x''','plain') )");
+
+    // the literal format does not affect escaping
+    context.setLiteralFormat(MysLiteralFormat.INSTANCE);
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN ('it''s','a\\b''''','''x''','plain') )");
+
+    // backslash escaping with or without typed literals
+    context.setLiteralEscaper(MysLiteralEscaper.INSTANCE);
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN ('it''s','a\\\\b''''','''x''','plain') )");
+    context.setLiteralFormat(null);
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN ('it''s','a\\\\b''''','''x''','plain') )");
+
+    // the escaper is only used when escaping is enabled
+    context.setEscapeLiterals(false);
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN ('it's','a\\b''',''x'','plain') )");
+  }
+
+  public void testConverterRegistry() throws Exception
+  {
+    final UUID uuid = UUID.fromString("6c1f2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f");
+
+    // default conversions
+    checkResult(new SelectQuery()
+                .addColumns(_table1_col1)
+                .addCondition(new InCondition(_table1_col2, "foo", 13, true,
+                                              uuid, new CustomSql("bar")))
+                .toString(),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN ('foo',13,1,'6c1f2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f',bar) )");
+
+    ConverterRegistry oldRegistry = ConverterRegistry.getDefault();
+    ConverterRegistry registry = new ConverterRegistry()
+      .register(UUID.class, new Converter<UUID,SqlObject>() {
+          @Override
+          public SqlObject convert(UUID value) {
+            return new CustomSql("UUID '" + value + "'");
+          }
+        })
+      .register(Enum.class, new Converter<Object,SqlObject>() {
+          @Override
+          public SqlObject convert(Object value) {
+            return new NumberValueObject(((Enum<?>)value).ordinal());
+          }
+        })
+      .register(CharSequence.class, new Converter<CharSequence,SqlObject>() {
+          @Override
+          public SqlObject convert(CharSequence value) {
+            return new ValueObject(value.toString().toUpperCase());
+          }
+        });
+    // a more specific type takes precedence
+    registry.register(StringBuilder.class,
+                      new Converter<StringBuilder,SqlObject>() {
+          @Override
+          public SqlObject convert(StringBuilder value) {
+            return new ValueObject(value.reverse());
+          }
+        });
+    assertNotNull(registry.getConverter(Thread.State.class));
+    assertNull(registry.getConverter(Integer.class));
+
+    ConverterRegistry.setDefault(registry);
+    try {
+      checkResult(new SelectQuery()
+                  .addColumns(_table1_col1)
+                  .addCondition(new InCondition(
+                                    _table1_col2, "foo", 13, uuid,
+                                    Thread.State.RUNNABLE,
+                                    new StringBuilder("abc")))
+                  .addCustomColumns(uuid)
+                  .toString(),
+                  "SELECT t0.col1,UUID '6c1f2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f' FROM Schema1.Table1 t0 WHERE (t0.col2 IN ('FOO',13,UUID '6c1f2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f',1,'cba') )");
+
+      registry.unregister(CharSequence.class);
+      checkResult(Converter.toValueSqlObject("foo").toString(), "'foo'");
+      checkResult(Converter.toCustomSqlObject("foo").toString(), "foo");
+    } finally {
+      ConverterRegistry.setDefault(oldRegistry);
+    }
+
+    // converters for broad types do not override the built-in conversions
+    registry = new ConverterRegistry()
+      .register(Object.class, new Converter<Object,SqlObject>() {
+          @Override
+          public SqlObject convert(Object value) {
+            return new CustomSql("OBJ(" + value + ")");
+          }
+        })
+      .register(Comparable.class, new Converter<Object,SqlObject>() {
+          @Override
+          public SqlObject convert(Object value) {
+            return new CustomSql("CMP(" + value + ")");
+          }
+        });
+    assertNull(registry.getConverter(Integer.class));
+    assertNull(registry.getConverter(Boolean.class));
+    assertNull(registry.getConverter(CustomSql.class));
+    assertNull(registry.getConverter(LocalDate.class));
+    assertNotNull(registry.getConverter(String.class));
+
+    ConverterRegistry.setDefault(registry);
+    try {
+      checkResult(new SelectQuery()
+                  .addColumns(_table1_col1)
+                  .addCondition(new InCondition(
+                                    _table1_col2, "foo", 13, true,
+                                    new BigDecimal("1.5"),
+                                    LocalDate.of(2024, 1, 31),
+                                    new CustomSql("bar")))
+                  .toString(),
+                  "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 IN (OBJ(foo),13,1,1.5,'2024-01-31',bar) )");
+
+      // a converter for a built-in type (or a subtype) still applies
+      registry.register(BigDecimal.class, new Converter<BigDecimal,SqlObject>() {
+          @Override
+          public SqlObject convert(BigDecimal value) {
+            return new CustomSql("DEC(" + value + ")");
+          }
+        });
+      checkResult(Converter.toValueSqlObject(new BigDecimal("1.5")).toString(),
+                  "DEC(1.5)");
+      checkResult(Converter.toValueSqlObject(13).toString(), "13");
+    } finally {
+      ConverterRegistry.setDefault(oldRegistry);
+    }
+  }
+
+  public void testValidationContextReuse() throws Exception
+  {
+    ValidationContext vContext = new ValidationContext();
+
+    SelectQuery query = new SelectQuery()
+      .addFromTable(_table1)
+      .addColumns(_table1_col1, _table1_col2)
+      .addCondition(equalTo(_table1_col1, _table1_col2));
+    vContext.validate(query);
+    assertEquals(1, vContext.getTables().size());
+    assertEquals(2, vContext.getColumns().size());
+
+    try {
+      vContext.validate(new SelectQuery()
+                        .addFromTable(_defTable1)
+                        .addColumns(_table1_col1));
+      fail("ValidationException should have been thrown");
+    } catch(ValidationException e) {}
+
+    // state from the failed validation does not leak into the next one
+    vContext.validate(query);
+    assertEquals(1, vContext.getTables().size());
+    assertEquals(2, vContext.getColumns().size());
+  }
+
+  public void testRevalidation() throws Exception
+  {
+    SelectQuery query = newLiteralQuery("foo", 13)
+      .addFromTable(_table1);
+    query.validate();
+    query.validate();
+
+    // modifications of nested lists are detected
+    query.getWhereClause().addCondition(equalTo(_defTable1_col_id, 1));
+    try {
+      query.validate();
+      fail("ValidationException should have been thrown");
+    } catch(ValidationException e) {}
+    query.addFromTable(_defTable1);
+    query.validate();
+
+    // as are modifications of the query itself
+    query.setOffset(-1);
+    try {
+      query.validate();
+      fail("ValidationException should have been thrown");
+    } catch(ValidationException e) {}
+    query.setOffset(1);
+    query.validate();
+
+    // and of nested queries
+    SelectQuery subQuery = new SelectQuery()
+      .addFromTable(_defTable2)
+      .addColumns(_defTable2_col4);
+    query.addCondition(exists(subQuery));
+    query.validate();
+    subQuery.addColumns(_defTable2_col5)
+      .addCondition(equalTo(_defTable2_col_id, _table1_col1));
+    query.validate();
+    subQuery.addCondition(equalTo(_defTable2_col_id, _defTable3_col_id));
+    try {
+      query.validate();
+      fail("ValidationException should have been thrown");
+    } catch(ValidationException e) {}
+  }
+
+  private SelectQuery newLiteralQuery(String strValue, int numValue)
+  {
+    return new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(and(equalTo(_table1_col2, strValue),
+                        lessThan(_table1_col1, numValue)));
+  }
+
+  public void testSqlRenderer()
+  {
+    final SelectQuery innerQuery = new SelectQuery()
+      .addColumns(_defTable1_col_id);
+    // custom object which generates sql while the outer sql is being
+    // generated
+    Object nested = new Object() {
+      @Override
+      public String toString() {
+        return SqlRenderer.render(innerQuery);
+      }
+    };
+    SelectQuery query = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(equalTo(_table1_col2, new CustomSql(nested)));
+
+    String expected = "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col2 = SELECT t1.col_id FROM Table1 t1)";
+    checkResult(SqlRenderer.render(query), expected);
+    checkResult(query.toString(), expected);
+    checkResult(query.toString(8), expected);
+
+    SqlContext context = new SqlContext();
+    context.setUseTableAliases(false);
+    checkResult(SqlRenderer.render(equalTo(_table1_col1, 13), context),
+                "(col1 = 13)");
+    checkResult(equalTo(_table1_col1, 13).toString(), "(t0.col1 = 13)");
+  }
+
+  public void testEstimateLength()
+  {
+    SqlObjectList<SqlObject> list = SqlObjectList.create();
+    assertEquals(0, list.estimateLength());
+    list.addObjects(Converter.COLUMN_VALUE_TO_OBJ, _table1_col1, "foo", 13);
+    assertEquals((3 * SqlObject.DEFAULT_ESTIMATED_LENGTH) + 2,
+                 list.estimateLength());
+
+    // sums do not overflow
+    SqlObject hugeObj = new CustomSql("huge") {
+      @Override
+      protected int estimateLength() {
+        return Integer.MAX_VALUE - 1;
+      }
+    };
+    list.addObject(hugeObj);
+    list.addObject(hugeObj);
+    assertEquals(Integer.MAX_VALUE, list.estimateLength());
+    assertEquals(SqlRenderer.MAX_RETAINED_BUFFER_SIZE,
+                 SqlRenderer.getInitialSize(list, 8));
+
+    class LengthQuery extends SelectQuery {}
+    int emptyEstimate = new LengthQuery().estimateLength();
+    assertEquals(emptyEstimate,
+                 SqlRenderer.getInitialSize(new LengthQuery(), 1));
+    String sql = new LengthQuery().addColumns(_table1_col1).toString();
+    assertTrue(emptyEstimate < sql.length());
+    assertEquals(sql.length(),
+                 SqlRenderer.getInitialSize(new LengthQuery(), 8));
+    // the hint only applies at the top level
+    assertEquals(emptyEstimate, new LengthQuery().estimateLength());
+
+    // the query classes estimate their own structure
+    checkEstimate(new SelectQuery()
+                  .addColumns(_table1_col1, _table1_col2, _table1_col3)
+                  .addCondition(BinaryCondition.equalTo(_table1_col1, "foo"))
+                  .addOrderings(_table1_col2));
+    checkEstimate(new SelectQuery()
+                  .addAllColumns()
+                  .addJoin(SelectQuery.JoinType.INNER, _table1, _defTable1,
+                           _table1_col1, _defTable1_col_id)
+                  .addCondition(ComboCondition.and(
+                                    BinaryCondition.equalTo(_table1_col1, 1),
+                                    new InCondition(
+                                        _defTable1_col2,
+                                        new Subquery(new SelectQuery()
+                                                     .addColumns(_table1_col2)))))
+                  .addGroupings(_table1_col3));
+    checkEstimate(new InsertQuery(_table1)
+                  .addColumn(_table1_col1, "foo")
+                  .addColumn(_table1_col2, 13)
+                  .addColumn(_table1_col3, "bar"));
+    checkEstimate(new InsertSelectQuery(_table1)
+                  .addColumns(_table1_col1)
+                  .setSelectQuery(new SelectQuery().addColumns(_defTable1_col2)));
+    checkEstimate(new MultiRowInsertQuery(_table1)
+                  .addColumns(_table1_col1, _table1_col2)
+                  .addRow("foo", 13).addRow("bar", 14));
+    checkEstimate(new UpdateQuery(_table1)
+                  .addSetClause(_table1_col1, "foo")
+                  .addSetClause(_table1_col2, 13)
+                  .addCondition(BinaryCondition.equalTo(_table1_col3, "bar")));
+    checkEstimate(new DeleteQuery(_table1)
+                  .addCondition(BinaryCondition.equalTo(_table1_col3, "bar")));
+    checkEstimate(SetOperationQuery.union(
+                      new SelectQuery().addColumns(_table1_col1),
+                      new SelectQuery().addColumns(_defTable1_col2))
+                  .addIndexedOrderings(1));
+  }
+
+  private static void checkEstimate(SqlObject obj)
+  {
+    int estimate = SqlObject.estimateLength(obj);
+    int length = obj.toString().length();
+    assertTrue("estimate " + estimate + " for " + length,
+               (estimate > SqlObject.DEFAULT_ESTIMATED_LENGTH) &&
+               (estimate >= (length / 3)) && (estimate <= (length * 3)));
+  }
+
+  public void testScriptWriter() throws Exception
+  {
+    StringWriter sw = new StringWriter();
+    SqlScriptWriter script = new SqlScriptWriter(sw);
+    script.writeComment("recreate tables\nfor test")
+      .write(DropQuery.dropTable(_table1))
+      .write(new InsertQuery(_table1)
+             .addColumn(_table1_col2, 13)
+             .addColumn(_table1_col1, "\u00e9t\u00e9"));
+    script.close();
+    assertEquals(2, script.getStatementCount());
+    String expected = "-- recreate tables\n-- for test\nDROP TABLE Schema1.Table1;\nINSERT INTO Schema1.Table1 (col2,col1) VALUES (13,'\u00e9t\u00e9');\n";
+    assertEquals(expected, sw.toString());
+
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    script = new SqlScriptWriter(Channels.newChannel(bout));
+    script.writeComment("recreate tables\nfor test")
+      .writeAll(Arrays.asList(
+                    DropQuery.dropTable(_table1),
+                    new InsertQuery(_table1)
+                    .addColumn(_table1_col2, 13)
+                    .addColumn(_table1_col1, "\u00e9t\u00e9")));
+    script.close();
+    assertEquals(expected, new String(bout.toByteArray(),
+                                      StandardCharsets.UTF_8));
+
+    script = new SqlScriptWriter(new Writer() {
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+          throw new IOException("disk full");
+        }
+        @Override
+        public void flush() {}
+        @Override
+        public void close() {}
+      });
+    try {
+      script.write(DropQuery.dropTable(_defTable1));
+      fail("IOException should have been thrown");
+    } catch(IOException e) {
+      assertEquals("disk full", e.getMessage());
+    }
+  }
+
+  public void testBatchRenderer() throws Exception
+  {
+    List<SqlObject> statements = new ArrayList<SqlObject>();
+    for(int i = 0; i < 500; ++i) {
+      statements.add(new InsertQuery(_table1)
+                     .addColumn(_table1_col2, i)
+                     .addColumn(_table1_col1, "val" + i));
+      statements.add(DropQuery.dropTable(((i % 2) == 0) ? _table1 :
+                                         _defTable1));
+    }
+
+    StringWriter expected = new StringWriter();
+    SqlScriptWriter script = new SqlScriptWriter(expected);
+    script.writeAll(statements);
+    script.close();
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      SqlBatchRenderer renderer = new SqlBatchRenderer(pool, 7);
+      StringWriter sw = new StringWriter();
+      script = new SqlScriptWriter(sw);
+      renderer.write(statements, script);
+      script.close();
+      assertEquals(statements.size(), script.getStatementCount());
+      assertEquals(expected.toString(), sw.toString());
+
+      SqlContext context = new SqlContext();
+      context.setUseTableAliases(false);
+      List<String> sqls = renderer.render(statements, context);
+      assertEquals(statements.size(), sqls.size());
+      for(int i = 0; i < sqls.size(); ++i) {
+        assertEquals(statements.get(i).toString(64, context), sqls.get(i));
+      }
+
+      // failures in the generation are propagated
+      statements.add(333, new CustomSql(new Object() {
+          @Override
+          public String toString() {
+            throw new IllegalStateException("bad statement");
+          }
+        }));
+      try {
+        renderer.render(statements, null);
+        fail("IllegalStateException should have been thrown");
+      } catch(IllegalStateException e) {
+        // the pool may wrap the original exception
+        Throwable t = ((e.getCause() != null) ? e.getCause() : e);
+        assertEquals("bad statement", t.getMessage());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  public void testParallelLists() throws Exception
+  {
+    List<QueryPreparer.PlaceHolder> serialPhs =
+      new ArrayList<QueryPreparer.PlaceHolder>();
+    SelectQuery serialQuery = newWideQuery(serialPhs);
+    String expected = serialQuery.toString();
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      SqlContext context = new SqlContext();
+      context.setParallelListThreshold(100);
+      context.setParallelListPool(pool);
+
+      List<QueryPreparer.PlaceHolder> phs =
+        new ArrayList<QueryPreparer.PlaceHolder>();
+      SelectQuery query = newWideQuery(phs);
+      assertEquals(expected, query.toString(64, context));
+      assertEquals(serialPhs.size(), phs.size());
+      for(int i = 0; i < phs.size(); ++i) {
+        assertEquals(serialPhs.get(i).getIndexes(), phs.get(i).getIndexes());
+      }
+
+      // PlaceHolders recorded in a ParameterMap (the PlaceHolders themselves
+      // are untouched, so the queries may be generated again)
+      SqlContext serialContext = new SqlContext();
+      serialContext.setParameterMap(new ParameterMap());
+      serialContext.setUseTableAliases(false);
+      expected = serialQuery.toString(64, serialContext);
+      context.setParameterMap(new ParameterMap());
+      context.setUseTableAliases(false);
+      assertEquals(expected, query.toString(64, context));
+
+      ParameterMap serialParams = serialContext.getParameterMap();
+      ParameterMap params = context.getParameterMap();
+      assertEquals(serialParams.getSlotCount(), params.getSlotCount());
+      for(int i = 0; i < params.getSlotCount(); ++i) {
+        assertEquals(serialParams.getIndex(i), params.getIndex(i));
+        assertSame(phs.get(serialPhs.indexOf(serialParams.getPlaceHolder(i))),
+                   params.getPlaceHolder(i));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private SelectQuery newWideQuery(List<QueryPreparer.PlaceHolder> phs)
+  {
+    QueryPreparer prep = new QueryPreparer();
+    QueryPreparer.MultiPlaceHolder multiPh = prep.getNewMultiPlaceHolder();
+    phs.add(multiPh);
+
+    SelectQuery query = new SelectQuery()
+      .addCondition(greaterThan(_table1_col3, multiPh));
+    ComboCondition orCond = ComboCondition.or();
+    for(int i = 0; i < 1000; ++i) {
+      query.addColumns(((i % 2) == 0) ? _table1_col1 : _defTable1_col3);
+      if((i % 50) == 0) {
+        // nested queries referencing the outer tables
+        orCond.addCondition(new InCondition(
+                                _table1_col2,
+                                new Subquery(
+                                    new SelectQuery()
+                                    .addColumns(_defTable2_col4)
+                                    .addCondition(equalTo(_defTable2_col5,
+                                                          _defTable1_col_id)))));
+      } else if((i % 7) == 0) {
+        orCond.addCondition(equalTo(_defTable1_col2, multiPh));
+      } else {
+        QueryPreparer.PlaceHolder ph = prep.getNewPlaceHolder();
+        phs.add(ph);
+        orCond.addCondition(equalTo(_table1_col1, ph));
+      }
+    }
+    return query.addCondition(orCond);
+  }
+
+  public void testFindObjects()
+  {
+    DbSpec spec = new DbSpec();
+    DbSchema schema = spec.addSchema("Schema");
+    for(int i = 0; i < 20; ++i) {
+      schema.addTable("Table" + i);
+    }
+    DbTable table5 = schema.findTable("Table5");
+    assertEquals("Table5", table5.getName());
+    assertNull(schema.findTable("TABLE5"));
+    assertSame(table5, schema.findTable("TABLE5", true));
+    assertNull(schema.findTable("Table20"));
+    assertSame(schema, spec.findSchema("SCHEMA", true));
+    assertNull(spec.getDefaultSchema());
+
+    // the first object with a given name is found
+    DbTable dupTable = schema.addTable("table5");
+    assertSame(table5, schema.findTable("table5", true));
+    assertSame(dupTable, schema.findTable("table5"));
+    schema.getTables().remove(table5);
+    assertSame(dupTable, schema.findTable("TABLE5", true));
+    assertNull(schema.findTable("Table5"));
+
+    for(int i = 0; i < 10; ++i) {
+      dupTable.addColumn("Col" + i);
+    }
+    assertEquals("Col7", dupTable.findColumn("Col7").getName());
+    assertEquals("Col7", dupTable.findColumn("col7", true).getName());
+    assertEquals(Arrays.asList(dupTable.findColumn("Col1"), null),
+                 Arrays.asList(dupTable.findColumns("Col1", "col1")));
+
+    // indexed lookups ignore case exactly as equalsIgnoreCase does
+    DbTable streetTable = schema.addTable("Stra\u00dfe");
+    assertSame(streetTable, schema.findTable("STRA\u00dfE", true));
+    assertNull(schema.findTable("STRASSE", true));
+    assertSame(streetTable, schema.findTable("stra\u1e9ee", true));
+  }
+
+  public void testConcurrentSpec() throws Exception
+  {
+    final DbSpec spec = new DbSpec();
+    final int numThreads = 4;
+    final int numTables = 200;
+    Thread[] threads = new Thread[numThreads];
+    for(int i = 0; i < numThreads; ++i) {
+      final DbSchema schema = spec.addSchema("schema" + i);
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          for(int j = 0; j < numTables; ++j) {
+            schema.addTable("table" + j).addColumn("col1");
+          }
+        }
+      };
+    }
+    for(Thread t : threads) {
+      t.start();
+    }
+    for(Thread t : threads) {
+      t.join();
+    }
+
+    Set<String> aliases = new HashSet<String>();
+    for(DbSchema schema : spec.getSchemas()) {
+      assertEquals(numTables, schema.getTables().size());
+      for(DbTable table : schema.getTables()) {
+        aliases.add(table.getAlias());
+      }
+    }
+    assertEquals(numThreads * numTables, aliases.size());
+    assertTrue(aliases.contains("t0"));
+    assertTrue(aliases.contains("t" + ((numThreads * numTables) - 1)));
+
+    assertEquals("x0", new DbSpec("x").getNextAlias());
+  }
+
+  public void testConcurrentTable() throws Exception
+  {
+    final DbTable table = new DbSpec().addDefaultSchema().addTable("table1");
+    final int numThreads = 4;
+    final int numColumns = 2000;
+    Thread[] threads = new Thread[numThreads];
+    for(int i = 0; i < numThreads; ++i) {
+      final String prefix = "col" + i + "_";
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          for(int j = 0; j < numColumns; ++j) {
+            table.addColumn(prefix + j);
+          }
+        }
+      };
+    }
+    for(Thread t : threads) {
+      t.start();
+    }
+    for(Thread t : threads) {
+      t.join();
+    }
+
+    List<DbColumn> columns = table.getColumns();
+    assertEquals(numThreads * numColumns, columns.size());
+    assertEquals(numThreads * numColumns,
+                 new HashSet<DbColumn>(columns).size());
+    for(int i = 0; i < numThreads; ++i) {
+      assertNotNull(table.findColumn("col" + i + "_" + (numColumns - 1)));
+    }
+
+    // iterators see the list as of their creation
+    Iterator<DbColumn> iter = columns.iterator();
+    DbColumn firstCol = columns.get(0);
+    columns.remove(0);
+    table.addColumn("lastCol");
+    int count = 0;
+    while(iter.hasNext()) {
+      iter.next();
+      ++count;
+    }
+    assertEquals(numThreads * numColumns, count);
+    assertEquals(numThreads * numColumns, columns.size());
+    assertFalse(columns.contains(firstCol));
+    assertNull(table.findColumn(firstCol.getName()));
+    assertSame(columns.get(columns.size() - 1), table.findColumn("lastCol"));
+
+    columns.clear();
+    assertTrue(columns.isEmpty());
+    table.addColumn("col1");
+    assertEquals(1, columns.size());
+  }
+
+  public void testInConditionStrategy()
+  {
+    InCondition cond = new InCondition(_table1_col2, 1, 2, 3, 4, 5);
+    checkResult(cond.toString(), "(t0.col2 IN (1,2,3,4,5) )");
+
+    cond.setStrategy(InCondition.chunkedStrategy(2));
+    checkResult(cond.toString(),
+                "(t0.col2 IN (1,2) OR t0.col2 IN (3,4) OR t0.col2 IN (5) )");
+    cond.setNegate(true);
+    checkResult(cond.toString(),
+                "(t0.col2 NOT IN (1,2) AND t0.col2 NOT IN (3,4) AND t0.col2 NOT IN (5) )");
+
+    cond.setStrategy(InCondition.valuesListStrategy(3));
+    checkResult(cond.toString(),
+                "(t0.col2 NOT IN (VALUES (1),(2),(3),(4),(5)) )");
+    cond.setNegate(false);
+    checkResult(new InCondition(_table1_col2, 1, 2)
+                .setStrategy(InCondition.valuesListStrategy(3)).toString(),
+                "(t0.col2 IN (1,2) )");
+
+    // default strategy from the context
+    SqlContext context = new SqlContext();
+    context.setInConditionStrategy(InCondition.chunkedStrategy(3));
+    SelectQuery query = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(new InCondition(_table1_col1, "a", "b", "c", "d"));
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col1 IN ('a','b','c') OR t0.col1 IN ('d') )");
+    checkResult(query.toString(),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col1 IN ('a','b','c','d') )");
+
+    // sub-queries are not rewritten
+    checkResult(new InCondition(_table1_col1,
+                                new Subquery(new SelectQuery()
+                                             .addColumns(_defTable1_col_id)))
+                .setStrategy(InCondition.chunkedStrategy(1)).toString(),
+                "(t0.col1 IN (SELECT t1.col_id FROM Table1 t1) )");
+
+    try {
+      InCondition.chunkedStrategy(0);
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException expected) {
+      // success
+    }
+  }
+
   public void testRejoinTable()
   {
     RejoinTable rejoinTable1 = _table1.rejoin("t5");
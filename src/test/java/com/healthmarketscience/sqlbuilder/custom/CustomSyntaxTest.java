@@ -16,12 +16,19 @@ limitations under the License.
 
 package com.healthmarketscience.sqlbuilder.custom;
 
+import java.util.concurrent.ForkJoinPool;
+
 import com.healthmarketscience.sqlbuilder.BaseSqlTestCase;
 import com.healthmarketscience.sqlbuilder.BinaryCondition;
+import com.healthmarketscience.sqlbuilder.ComboCondition;
 import com.healthmarketscience.sqlbuilder.CreateIndexQuery;
 import com.healthmarketscience.sqlbuilder.CreateTableQuery;
 import com.healthmarketscience.sqlbuilder.ExtractExpression;
+import com.healthmarketscience.sqlbuilder.InCondition;
+import com.healthmarketscience.sqlbuilder.ParameterMap;
+import com.healthmarketscience.sqlbuilder.QueryPreparer;
 import com.healthmarketscience.sqlbuilder.SelectQuery;
+import com.healthmarketscience.sqlbuilder.SqlContext;
 import com.healthmarketscience.sqlbuilder.ValidationException;
 import com.healthmarketscience.sqlbuilder.custom.mysql.MysExtractDatePart;
 import com.healthmarketscience.sqlbuilder.custom.mysql.MysLimitClause;
@@ -29,6 +36,7 @@ import com.healthmarketscience.sqlbuilder.custom.mysql.MysObjects;
 import com.healthmarketscience.sqlbuilder.custom.oracle.OraExtractDatePart;
 import com.healthmarketscience.sqlbuilder.custom.oracle.OraObjects;
 import com.healthmarketscience.sqlbuilder.custom.oracle.OraTableSpaceClause;
+import com.healthmarketscience.sqlbuilder.custom.postgresql.PgAnyArrayStrategy;
 import com.healthmarketscience.sqlbuilder.custom.postgresql.PgBinaryCondition;
 import com.healthmarketscience.sqlbuilder.custom.postgresql.PgExtractDatePart;
 import com.healthmarketscience.sqlbuilder.custom.postgresql.PgLimitClause;
@@ -204,6 +212,102 @@ public class CustomSyntaxTest extends BaseSqlTestCase
                 "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE (t0.col1 ILIKE 'foo%' ESCAPE '\\')");
   }
 
+  public void testPostgresqlAnyArrayStrategy()
+  {
+    PgAnyArrayStrategy strategy = new PgAnyArrayStrategy("integer", 2);
+    SqlContext context = new SqlContext();
+    context.setInConditionStrategy(strategy);
+
+    InCondition cond1 = new InCondition(_table1_col2, 1, 2, 3);
+    InCondition cond2 = new InCondition(_table1_col2, "a'b", "c''d", "e")
+      .setNegate(true);
+    SelectQuery query = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(ComboCondition.and(cond1, cond2));
+
+    // without a ParameterMap, the conditions are generated normally
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE ((t0.col2 IN (1,2,3) ) AND (t0.col2 NOT IN ('a'b','c''d','e') ))");
+
+    for(int i = 0; i < 2; ++i) {
+      // generation has no side effects, so regenerating is safe.  unescaped
+      // strings are not bound (they are presumably pre-escaped sql)
+      ParameterMap params = new ParameterMap();
+      context.setParameterMap(params);
+      checkResult(query.toString(64, context),
+                  "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE ((t0.col2 = ANY(?) ) AND (t0.col2 NOT IN ('a'b','c''d','e') ))");
+      assertEquals(1, params.getSlotCount());
+      assertEquals("integer[1, 2, 3]",
+                   ((QueryPreparer.StaticPlaceHolder)params.getPlaceHolder(0))
+                   .displayToString());
+    }
+
+    // escaped literals are bound as is
+    ParameterMap params = new ParameterMap();
+    context.setParameterMap(params);
+    context.setEscapeLiterals(true);
+    checkResult(query.toString(64, context),
+                "SELECT t0.col1 FROM Schema1.Table1 t0 WHERE ((t0.col2 = ANY(?) ) AND (t0.col2 <> ALL(?) ))");
+    assertEquals("integer[a'b, c''d, e]",
+                 ((QueryPreparer.StaticPlaceHolder)params.getPlaceHolder(1))
+                 .displayToString());
+    context.setEscapeLiterals(false);
+
+    // under the threshold and non-literal values are generated normally
+    checkResult(new InCondition(_table1_col2, 1, 2)
+                .toString(64, context),
+                "(t0.col2 IN (1,2) )");
+    checkResult(new InCondition(_table1_col2, 1, 2, _table1_col3)
+                .toString(64, context),
+                "(t0.col2 IN (1,2,t0.col3) )");
+    assertEquals(2, params.getSlotCount());
+  }
+
+  public void testPostgresqlAnyArrayStrategyParallel() throws Exception
+  {
+    ComboCondition orCond = ComboCondition.or();
+    for(int i = 0; i < 400; ++i) {
+      orCond.addCondition(new InCondition(_table1_col2, i, i + 1, i + 2));
+    }
+    SelectQuery query = new SelectQuery()
+      .addColumns(_table1_col1)
+      .addCondition(orCond);
+
+    SqlContext serialContext = new SqlContext();
+    serialContext.setInConditionStrategy(
+        new PgAnyArrayStrategy("integer", 2));
+    String expected = query.toString(64, serialContext);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      SqlContext context = new SqlContext();
+      context.setInConditionStrategy(new PgAnyArrayStrategy("integer", 2));
+      context.setParallelListThreshold(100);
+      context.setParallelListPool(pool);
+
+      // without a ParameterMap, the conditions are generated normally
+      assertEquals(expected, query.toString(64, context));
+      assertTrue(expected.contains("(t0.col2 IN (0,1,2) )"));
+
+      ParameterMap serialParams = new ParameterMap();
+      serialContext.setParameterMap(serialParams);
+      expected = query.toString(64, serialContext);
+      ParameterMap params = new ParameterMap();
+      context.setParameterMap(params);
+      assertEquals(expected, query.toString(64, context));
+      assertEquals(400, params.getSlotCount());
+      for(int i = 0; i < params.getSlotCount(); ++i) {
+        assertEquals(serialParams.getIndex(i), params.getIndex(i));
+        assertEquals(((QueryPreparer.StaticPlaceHolder)
+                      serialParams.getPlaceHolder(i)).displayToString(),
+                     ((QueryPreparer.StaticPlaceHolder)
+                      params.getPlaceHolder(i)).displayToString());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   public void testPostgresqlExtractExpression()
   {
     String exprStr = BinaryCondition.equalTo(
@@ -0,0 +1,386 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.dbspec.basic;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+import com.healthmarketscience.sqlbuilder.CreateTableQuery;
+import com.healthmarketscience.sqlbuilder.dbspec.Constraint;
+import junit.framework.TestCase;
+
+/**
+ * @author agent
+ */
+public class DbSpecLoaderTest extends TestCase
+{
+  private static final String[] TABLE_COLS = {"TABLE_NAME"};
+  private static final String[] COLUMN_COLS = {
+    "TABLE_NAME", "COLUMN_NAME", "DATA_TYPE", "TYPE_NAME", "COLUMN_SIZE",
+    "DECIMAL_DIGITS", "NULLABLE"};
+  private static final String[] PK_COLS = {
+    "PK_NAME", "KEY_SEQ", "COLUMN_NAME"};
+  private static final String[] FK_COLS = {
+    "FK_NAME", "KEY_SEQ", "PKTABLE_SCHEM", "PKTABLE_NAME", "PKCOLUMN_NAME",
+    "FKCOLUMN_NAME"};
+  private static final String[] INDEX_COLS = {
+    "INDEX_NAME", "TYPE", "NON_UNIQUE", "ORDINAL_POSITION", "COLUMN_NAME"};
+
+  public DbSpecLoaderTest(String name) {
+    super(name);
+  }
+
+  public void testLoad() throws Exception
+  {
+    DbSpec spec = new DbSpec();
+    List<DbSchema> schemas = new DbSpecLoader(spec)
+      .load(newConnection(), "app", "audit");
+    checkSpec(spec, schemas);
+  }
+
+  public void testParallelLoad() throws Exception
+  {
+    final AtomicInteger numConns = new AtomicInteger();
+    // the "app" schema does not start loading until the "audit" schema is
+    // finished, the aliases should still be assigned in schema order
+    final CountDownLatch auditLoaded = new CountDownLatch(1);
+    final DatabaseMetaData metaData = newMetaData();
+    final DatabaseMetaData delayedMetaData = (DatabaseMetaData)newProxy(
+        DatabaseMetaData.class, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable
+      {
+        if("getTables".equals(method.getName()) && "app".equals(args[1])) {
+          assertTrue(auditLoaded.await(10, TimeUnit.SECONDS));
+        }
+        Object result = method.invoke(metaData, args);
+        if("getIndexInfo".equals(method.getName()) &&
+           "audit".equals(args[1])) {
+          auditLoaded.countDown();
+        }
+        return result;
+      }
+    });
+    DataSource ds = (DataSource)newProxy(DataSource.class,
+                                         new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        if("getConnection".equals(method.getName())) {
+          numConns.incrementAndGet();
+          return newConnection(delayedMetaData);
+        }
+        return null;
+      }
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      DbSpec spec = new DbSpec();
+      List<DbSchema> schemas = new DbSpecLoader(spec)
+        .load(ds, executor, "app", "audit");
+      checkSpec(spec, schemas);
+      assertEquals(2, numConns.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testLoadDefaultSchema() throws Exception
+  {
+    String[] tableCols = {"TABLE_SCHEM", "TABLE_NAME"};
+    String[] columnCols = {
+      "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME", "DATA_TYPE", "TYPE_NAME",
+      "COLUMN_SIZE", "DECIMAL_DIGITS", "NULLABLE"};
+    Map<String,ResultSet> results = new HashMap<String,ResultSet>();
+    // the schema pattern is escaped
+    results.put("getTables:my\\_app", newResultSet(
+                    tableCols, row("my_app", "users"),
+                    row("my_app", "orders"), row("myxapp", "accounts")));
+    results.put("getColumns:my\\_app", newResultSet(
+        columnCols,
+        row("my_app", "users", "id", Types.INTEGER, "int4", 10, 0,
+            DatabaseMetaData.columnNoNulls),
+        row("my_app", "users", "name", Types.VARCHAR, "varchar", 50, null,
+            DatabaseMetaData.columnNoNulls),
+        // same named table in another schema
+        row("myxapp", "users", "other", Types.INTEGER, "int4", 10, 0,
+            DatabaseMetaData.columnNullable),
+        row("my_app", "orders", "a1", Types.INTEGER, "int4", 10, 0,
+            DatabaseMetaData.columnNullable),
+        row("my_app", "orders", "a2", Types.VARCHAR, "varchar", 50, null,
+            DatabaseMetaData.columnNullable),
+        row("my_app", "orders", "b1", Types.INTEGER, "int4", 10, 0,
+            DatabaseMetaData.columnNullable),
+        row("my_app", "orders", "b2", Types.VARCHAR, "varchar", 50, null,
+            DatabaseMetaData.columnNullable)));
+    results.put("getPrimaryKeys:my_app.users", newResultSet(
+                    PK_COLS, row("users_pk", 1, "id"),
+                    row("users_pk", 2, "name")));
+    // the columns of the composite foreign keys are interleaved
+    results.put("getImportedKeys:my_app.orders", newResultSet(
+        FK_COLS,
+        row("fk_a", 1, "my_app", "users", "id", "a1"),
+        row("fk_b", 1, "my_app", "users", "id", "b1"),
+        row("fk_a", 2, "my_app", "users", "name", "a2"),
+        row("fk_b", 2, "my_app", "users", "name", "b2")));
+
+    DbSpec spec = new DbSpec();
+    List<DbSchema> schemas = new DbSpecLoader(spec).setLoadIndexes(false)
+      .load(newConnection(newMetaData(results, "my_app")));
+
+    DbSchema schema = schemas.get(0);
+    assertNull(schema.getName());
+    assertEquals(2, schema.getTables().size());
+    DbTable users = schema.findTable("users");
+    assertEquals(2, users.getColumns().size());
+    assertNull(users.findColumn("other"));
+
+    DbTable orders = schema.findTable("orders");
+    List<DbForeignKeyConstraint> fks = new ArrayList<DbForeignKeyConstraint>();
+    for(DbConstraint cons : orders.getConstraints()) {
+      if(cons.getType() == Constraint.Type.FOREIGN_KEY) {
+        fks.add((DbForeignKeyConstraint)cons);
+      }
+    }
+    assertEquals(2, fks.size());
+    assertEquals("fk_a", fks.get(0).getName());
+    assertEquals(Arrays.asList(orders.findColumn("a1"),
+                               orders.findColumn("a2")),
+                 fks.get(0).getColumns());
+    assertEquals("fk_b", fks.get(1).getName());
+    assertEquals(Arrays.asList(orders.findColumn("b1"),
+                               orders.findColumn("b2")),
+                 fks.get(1).getColumns());
+    for(DbForeignKeyConstraint fk : fks) {
+      assertSame(users, fk.getReferencedTable());
+      assertEquals(Arrays.asList(users.findColumn("id"),
+                                 users.findColumn("name")),
+                   fk.getReferencedColumns());
+    }
+  }
+
+  private static void checkSpec(DbSpec spec, List<DbSchema> schemas)
+  {
+    assertEquals(spec.getSchemas(), schemas);
+    assertEquals("app", schemas.get(0).getName());
+    assertEquals("audit", schemas.get(1).getName());
+
+    DbSchema app = schemas.get(0);
+    assertEquals(2, app.getTables().size());
+    DbTable users = app.findTable("users");
+    assertEquals("t0", users.getAlias());
+    assertEquals("t1", app.findTable("orders").getAlias());
+    assertEquals("t2", schemas.get(1).findTable("log").getAlias());
+    assertEquals(3, users.getColumns().size());
+    DbColumn balance = users.findColumn("balance");
+    assertEquals("DECIMAL", balance.getTypeNameSQL());
+    assertEquals(Arrays.<Object>asList(10, 2), balance.getTypeQualifiers());
+    assertEquals(Arrays.<Object>asList(50),
+                 users.findColumn("name").getTypeQualifiers());
+    assertEquals("JSONB", app.findTable("orders").findColumn("data")
+                 .getTypeNameSQL());
+
+    checkResult(new CreateTableQuery(users, true).validate().toString(),
+                "CREATE TABLE app.users (id INTEGER NOT NULL,name VARCHAR(50),balance DECIMAL(10,2),CONSTRAINT users_pk PRIMARY KEY (id),CONSTRAINT users_name_idx UNIQUE (name))");
+
+    // the expression index is skipped
+    assertEquals(2, app.getIndexs().size());
+    assertEquals("users_pk", app.getIndexs().get(0).getName());
+    DbIndex idx = app.getIndexs().get(1);
+    assertEquals("users_name_idx", idx.getName());
+    assertEquals(Arrays.asList(users.findColumn("name")), idx.getColumns());
+
+    DbForeignKeyConstraint fk = findForeignKey(app.findTable("orders"));
+    assertEquals("orders_fk", fk.getName());
+    assertSame(users, fk.getReferencedTable());
+    assertEquals(Arrays.asList(users.findColumn("id")),
+                 fk.getReferencedColumns());
+
+    // cross schema reference
+    fk = findForeignKey(schemas.get(1).findTable("log"));
+    assertSame(users, fk.getReferencedTable());
+    assertEquals(Arrays.asList(schemas.get(1).findTable("log")
+                               .findColumn("user_id")),
+                 fk.getColumns());
+  }
+
+  private static DbForeignKeyConstraint findForeignKey(DbTable table) {
+    for(DbConstraint cons : table.getConstraints()) {
+      if(cons.getType() == Constraint.Type.FOREIGN_KEY) {
+        return (DbForeignKeyConstraint)cons;
+      }
+    }
+    fail("no foreign key");
+    return null;
+  }
+
+  private static void checkResult(String result, String expected) {
+    assertEquals(expected, result);
+  }
+
+  private static Connection newConnection() {
+    return newConnection(newMetaData());
+  }
+
+  private static Connection newConnection(final DatabaseMetaData metaData) {
+    return (Connection)newProxy(Connection.class, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        if("getMetaData".equals(method.getName())) {
+          return metaData;
+        }
+        return null;
+      }
+    });
+  }
+
+  private static DatabaseMetaData newMetaData() {
+    final Map<String,ResultSet> results = new HashMap<String,ResultSet>();
+    results.put("getTables:app", newResultSet(
+                    TABLE_COLS, row("users"), row("orders")));
+    results.put("getColumns:app", newResultSet(
+        COLUMN_COLS,
+        row("users", "id", Types.INTEGER, "int4", 10, 0,
+            DatabaseMetaData.columnNoNulls),
+        row("users", "name", Types.VARCHAR, "varchar", 50, null,
+            DatabaseMetaData.columnNullable),
+        row("users", "balance", Types.DECIMAL, "numeric", 10, 2,
+            DatabaseMetaData.columnNullable),
+        row("orders", "id", Types.INTEGER, "int4", 10, 0,
+            DatabaseMetaData.columnNoNulls),
+        row("orders", "user_id", Types.INTEGER, "int4", 10, 0,
+            DatabaseMetaData.columnNullable),
+        row("orders", "data", -1000, "JSONB", null, null,
+            DatabaseMetaData.columnNullable),
+        row("orders_view", "id", Types.INTEGER, "int4", 10, 0,
+            DatabaseMetaData.columnNullable)));
+    results.put("getPrimaryKeys:app.users", newResultSet(
+                    PK_COLS, row("users_pk", 1, "id")));
+    results.put("getPrimaryKeys:app.orders", newResultSet(
+                    PK_COLS, row("orders_pk", 1, "id")));
+    results.put("getImportedKeys:app.orders", newResultSet(
+                    FK_COLS, row("orders_fk", 1, "app", "users", "id",
+                                 "user_id")));
+    results.put("getIndexInfo:app.users", newResultSet(
+        INDEX_COLS,
+        row(null, DatabaseMetaData.tableIndexStatistic, false, 0, null),
+        row("users_pk", DatabaseMetaData.tableIndexOther, false, 1, "id"),
+        row("users_name_idx", DatabaseMetaData.tableIndexOther, false, 1,
+            "name")));
+    results.put("getIndexInfo:app.orders", newResultSet(
+        INDEX_COLS,
+        row("orders_expr_idx", DatabaseMetaData.tableIndexOther, true, 1,
+            null)));
+    results.put("getTables:audit", newResultSet(TABLE_COLS, row("log")));
+    results.put("getColumns:audit", newResultSet(
+        COLUMN_COLS,
+        row("log", "user_id", Types.INTEGER, "int4", 10, 0,
+            DatabaseMetaData.columnNullable)));
+    results.put("getImportedKeys:audit.log", newResultSet(
+                    FK_COLS, row(null, 1, "app", "users", "id", "user_id")));
+
+    return newMetaData(results, null);
+  }
+
+  private static DatabaseMetaData newMetaData(
+      final Map<String,ResultSet> results, final String currentSchema) {
+    return (DatabaseMetaData)newProxy(DatabaseMetaData.class,
+                                      new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        if("getSearchStringEscape".equals(method.getName())) {
+          return "\\";
+        }
+        if("getConnection".equals(method.getName())) {
+          return newProxy(Connection.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+              return ("getSchema".equals(method.getName()) ?
+                      currentSchema : null);
+            }
+          });
+        }
+        String key = method.getName() + ":" + args[1];
+        if(!"getTables".equals(method.getName()) &&
+           !"getColumns".equals(method.getName())) {
+          key += "." + args[2];
+        }
+        ResultSet rs = results.get(key);
+        return ((rs != null) ? rs : newResultSet(new String[0]));
+      }
+    });
+  }
+
+  private static Object[] row(Object... vals) {
+    return vals;
+  }
+
+  private static ResultSet newResultSet(final String[] colNames,
+                                        final Object[]... rows) {
+    return (ResultSet)newProxy(ResultSet.class, new InvocationHandler() {
+      private int _row = -1;
+      private Object _lastVal;
+
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        if("next".equals(name)) {
+          return (++_row < rows.length);
+        } else if("wasNull".equals(name)) {
+          return (_lastVal == null);
+        } else if(name.startsWith("get")) {
+          // note, columns which are not given are null
+          int idx = Arrays.asList(colNames).indexOf(args[0]);
+          _lastVal = ((idx >= 0) ? rows[_row][idx] : null);
+          Class<?> type = method.getReturnType();
+          if(type == int.class) {
+            return ((_lastVal != null) ? ((Number)_lastVal).intValue() : 0);
+          } else if(type == short.class) {
+            return ((_lastVal != null) ?
+                    ((Number)_lastVal).shortValue() : (short)0);
+          } else if(type == boolean.class) {
+            return ((_lastVal != null) ? _lastVal : false);
+          }
+          return ((_lastVal != null) ? _lastVal.toString() : null);
+        }
+        return null;
+      }
+    });
+  }
+
+  private static Object newProxy(Class<?> iface, InvocationHandler handler) {
+    return Proxy.newProxyInstance(DbSpecLoaderTest.class.getClassLoader(),
+                                  new Class<?>[]{iface}, handler);
+  }
+}
@@ -0,0 +1,312 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.dbspec.basic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.healthmarketscience.sqlbuilder.BinaryCondition;
+import com.healthmarketscience.sqlbuilder.CreateIndexQuery;
+import com.healthmarketscience.sqlbuilder.CreateTableQuery;
+import com.healthmarketscience.sqlbuilder.CustomCondition;
+import com.healthmarketscience.sqlbuilder.CustomSql;
+import com.healthmarketscience.sqlbuilder.FunctionCall;
+import com.healthmarketscience.sqlbuilder.SelectQuery;
+import junit.framework.TestCase;
+
+/**
+ * @author agent
+ */
+public class DbSpecSnapshotTest extends TestCase
+{
+
+  public DbSpecSnapshotTest(String name) {
+    super(name);
+  }
+
+  public void testRoundTrip() throws Exception
+  {
+    DbSpec spec = createSpec();
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    DbSpecSnapshot.write(spec, bout);
+
+    DbSpec newSpec = DbSpecSnapshot.read(
+        new ByteArrayInputStream(bout.toByteArray()));
+
+    // nothing materialized yet
+    DbSchema schema = newSpec.findSchema("schema1");
+    DbTable table1 = schema.findTable("table1");
+    DbTable table2 = schema.findTable("table2");
+    assertFalse(table1.isColumnsLoaded());
+    assertFalse(table2.isColumnsLoaded());
+    // joined tables are loaded up front
+    assertTrue(newSpec.getDefaultSchema().findTable("other")
+               .isColumnsLoaded());
+    assertEquals("t0", table1.getAlias());
+    assertEquals(Arrays.asList("func1", "func2"),
+                 getNames(schema.findFunctionPackage("pkg")
+                          .getFunctions()));
+
+    // loading a table loads the (cyclically) referenced table
+    assertEquals(4, table2.getColumns().size());
+    assertTrue(table2.isColumnsLoaded());
+    assertTrue(table1.isColumnsLoaded());
+    assertFalse(schema.getIndexs().isEmpty());
+
+    assertEquals(Arrays.<Object>asList(10, 2),
+                 table1.findColumn("amount").getTypeQualifiers());
+    assertEquals(new BigDecimal("1.50"),
+                 table1.findColumn("amount").getDefaultValue());
+
+    checkSpecs(spec, newSpec);
+
+    // the alias sequence continues after the snapshot
+    assertEquals(spec.getNextAlias(), newSpec.getNextAlias());
+  }
+
+  public void testReadLazy() throws Exception
+  {
+    DbSpec spec = createSpec();
+    byte[] bytes = DbSpecSnapshot.toByteArray(spec);
+
+    DbSpec newSpec = DbSpecSnapshot.readLazy(new ByteArrayInputStream(bytes));
+
+    // no tables created yet (except the joined tables)
+    LazyDbSchema schema = (LazyDbSchema)newSpec.findSchema("schema1");
+    assertTrue(schema.getLoadedTables().isEmpty());
+    assertEquals(2, ((LazyDbSchema)newSpec.getDefaultSchema())
+                 .getLoadedTables().size());
+
+    // loading a table loads the (cyclically) referenced table, the tables
+    // keep their original aliases regardless of the load order
+    DbTable table2 = schema.findTable("table2");
+    assertEquals("t1", table2.getAlias());
+    assertEquals(4, table2.getColumns().size());
+    assertEquals(2, schema.getLoadedTables().size());
+    assertEquals("t0", schema.findTable("table1").getAlias());
+    assertNull(schema.findTable("table3"));
+    assertEquals(Arrays.asList("func1", "func2"),
+                 getNames(schema.findFunctionPackage("pkg")
+                          .getFunctions()));
+
+    checkSpecs(spec, newSpec);
+    assertTrue(Arrays.equals(bytes, DbSpecSnapshot.toByteArray(newSpec)));
+
+    // the alias sequence continues after the snapshot
+    assertEquals(spec.getNextAlias(), newSpec.getNextAlias());
+  }
+
+  public void testCustomSpec() throws Exception
+  {
+    DbSpec spec = createSpec();
+    byte[] bytes = DbSpecSnapshot.toByteArray(spec);
+
+    final List<String> createdTables = new ArrayList<String>();
+    DbSpec customSpec = new DbSpec() {
+      @Override
+      public DbTable createTable(DbSchema parent, String name, String alias) {
+        createdTables.add(name);
+        return super.createTable(parent, name, alias);
+      }
+    };
+    assertSame(customSpec, DbSpecSnapshot.read(
+                   new ByteArrayInputStream(bytes), customSpec));
+    assertEquals(Arrays.asList("table1", "table2", "other", "other2"), createdTables);
+    checkSpecs(spec, customSpec);
+
+    // snapshots of loaded snapshots are identical
+    assertTrue(Arrays.equals(bytes, DbSpecSnapshot.toByteArray(customSpec)));
+  }
+
+  public void testValueTypes() throws Exception
+  {
+    List<Object> values = Arrays.<Object>asList(
+        "str", 1, 2L, (short)3, (byte)4, 5.5f, 6.5d,
+        new BigInteger("12345678901234567890"), new BigDecimal("7.50"),
+        Boolean.TRUE, null);
+    DbSpec spec = new DbSpec();
+    DbTable table = spec.addDefaultSchema().addTable("table1");
+    for(int i = 0; i < values.size(); ++i) {
+      table.addColumn(spec.createColumn(table, "col" + i, "VARCHAR",
+                                        new Object[]{values.get(i)}))
+        .setDefaultValue(values.get(i));
+    }
+
+    // the lossy cases: sql objects are reloaded as custom sql
+    DbColumn funcCol = table.addColumn("func", "TIMESTAMP", null);
+    funcCol.setDefaultValue(new FunctionCall(new CustomSql("NOW")));
+    funcCol.checkCondition("func_chk", BinaryCondition.greaterThan(
+                               funcCol, new CustomSql("'2000-01-01'")));
+
+    DbTable newTable = DbSpecSnapshot.read(DbSpecSnapshot.toByteArray(spec))
+      .getDefaultSchema().findTable("table1");
+    for(int i = 0; i < values.size(); ++i) {
+      DbColumn column = newTable.findColumn("col" + i);
+      Object value = values.get(i);
+      assertEquals(value, column.getDefaultValue());
+      if(value != null) {
+        assertSame(value.getClass(), column.getDefaultValue().getClass());
+        assertSame(value.getClass(),
+                   column.getTypeQualifiers().get(0).getClass());
+      }
+    }
+
+    DbColumn newFuncCol = newTable.findColumn("func");
+    assertTrue(newFuncCol.getDefaultValue() instanceof CustomSql);
+    assertEquals("NOW()", newFuncCol.getDefaultValue().toString());
+    DbCheckConstraint newCheck =
+      (DbCheckConstraint)newFuncCol.getConstraints().get(0);
+    assertTrue(newCheck.getCondition() instanceof CustomCondition);
+    assertEquals(new CreateTableQuery(table, true).validate().toString(),
+                 new CreateTableQuery(newTable, true).validate().toString());
+  }
+
+  public void testInvalid() throws Exception
+  {
+    byte[] bytes = DbSpecSnapshot.toByteArray(createSpec());
+
+    byte[] badVersion = bytes.clone();
+    badVersion[5] = 99;
+    try {
+      DbSpecSnapshot.read(badVersion);
+      fail("IOException should have been thrown");
+    } catch(IOException e) {
+      // success
+    }
+
+    try {
+      DbSpecSnapshot.read(Arrays.copyOf(bytes, bytes.length / 2));
+      fail("IOException should have been thrown");
+    } catch(IOException e) {
+      // success
+    }
+
+    DbSpec spec = new DbSpec();
+    spec.addDefaultSchema().addTable("table1").addColumn("col1")
+      .setDefaultValue(new Object());
+    try {
+      DbSpecSnapshot.toByteArray(spec);
+      fail("IllegalArgumentException should have been thrown");
+    } catch(IllegalArgumentException e) {
+      // success
+    }
+  }
+
+  private static DbSpec createSpec() {
+    DbSpec spec = new DbSpec();
+    DbSchema schema = spec.addSchema("schema1");
+    DbTable table1 = schema.addTable("table1");
+    DbTable table2 = schema.addTable("table2");
+    DbTable other = spec.addDefaultSchema().addTable("other");
+    DbTable other2 = spec.getDefaultSchema().addTable("other2");
+
+    table1.addColumn("id", "INTEGER", null).primaryKey();
+    table1.addColumn("name", "VARCHAR", 255).notNull();
+    table1.findColumn("name").setDefaultValue("none");
+    DbColumn amount = table1.addColumn("amount", "DECIMAL", 10, 2);
+    amount.setDefaultValue(new BigDecimal("1.50"));
+    amount.checkCondition("amount_chk",
+                          BinaryCondition.greaterThan(amount, 0));
+    table1.addColumn("created", "TIMESTAMP", null)
+      .setDefaultValue(new CustomSql("CURRENT_TIMESTAMP"));
+    table1.addColumn("other_id", "BIGINT", null).references(
+        "other_fk", other, other.addColumn("id", "BIGINT", null));
+    table1.unique("name_amount_unq", "name", "amount");
+
+    table2.addColumn("id", "INTEGER", null);
+    table2.addColumn("table1_id", "INTEGER", null).references(
+        null, "table1", "id");
+    table2.addColumn("flag", "BOOLEAN", null).setDefaultValue(true);
+    table2.addColumn("ratio", "DOUBLE", null).setDefaultValue(0.5d);
+    table2.primaryKey("table2_pk", "id");
+    table2.checkCondition(null, BinaryCondition.lessThan(
+                              table2.findColumn("ratio"), 1));
+
+    // cyclic reference
+    table1.foreignKey("table2_fk", new String[]{"id"}, "table2",
+                      new String[]{"table1_id"});
+
+    schema.addIndex("name_idx", "table1", "name", "amount");
+    schema.addFunctionPackage("pkg").addFunction("func1");
+    schema.findFunctionPackage("pkg").addFunction("func2");
+    other2.addColumn("other_id", "BIGINT", null);
+    spec.addJoin(null, "other", null, "other2",
+                 new String[]{"id"}, new String[]{"other_id"});
+    return spec;
+  }
+
+  private static void checkSpecs(DbSpec expected, DbSpec actual) {
+    assertEquals(expected.getSchemas().size(), actual.getSchemas().size());
+    for(int i = 0; i < expected.getSchemas().size(); ++i) {
+      DbSchema expSchema = expected.getSchemas().get(i);
+      DbSchema schema = actual.getSchemas().get(i);
+      assertEquals(expSchema.getName(), schema.getName());
+
+      assertEquals(getNames(expSchema.getTables()),
+                   getNames(schema.getTables()));
+      for(int j = 0; j < expSchema.getTables().size(); ++j) {
+        DbTable expTable = expSchema.getTables().get(j);
+        DbTable table = schema.getTables().get(j);
+        assertEquals(expTable.getAlias(), table.getAlias());
+        assertEquals(new CreateTableQuery(expTable, true).validate()
+                     .toString(),
+                     new CreateTableQuery(table, true).validate().toString());
+        assertEquals(expTable.getConstraints().size(),
+                     table.getConstraints().size());
+      }
+
+      assertEquals(expSchema.getIndexs().size(), schema.getIndexs().size());
+      for(int j = 0; j < expSchema.getIndexs().size(); ++j) {
+        assertEquals(new CreateIndexQuery(expSchema.getIndexs().get(j))
+                     .addColumns(expSchema.getIndexs().get(j).getColumns()
+                                 .toArray(new DbColumn[0]))
+                     .validate().toString(),
+                     new CreateIndexQuery(schema.getIndexs().get(j))
+                     .addColumns(schema.getIndexs().get(j).getColumns()
+                                 .toArray(new DbColumn[0]))
+                     .validate().toString());
+      }
+    }
+
+    assertEquals(expected.getJoins().size(), actual.getJoins().size());
+    for(int i = 0; i < expected.getJoins().size(); ++i) {
+      assertEquals(toJoinSql(expected.getJoins().get(i)),
+                   toJoinSql(actual.getJoins().get(i)));
+    }
+  }
+
+  private static String toJoinSql(DbJoin join) {
+    return new SelectQuery()
+      .addAllTableColumns(join.getFromTable())
+      .addJoins(SelectQuery.JoinType.INNER, join)
+      .validate().toString();
+  }
+
+  private static List<String> getNames(List<? extends DbObject<?>> objs) {
+    List<String> names = new ArrayList<String>();
+    for(DbObject<?> obj : objs) {
+      names.add(obj.getName());
+    }
+    return names;
+  }
+}
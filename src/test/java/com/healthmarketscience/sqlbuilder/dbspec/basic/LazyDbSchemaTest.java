@@ -0,0 +1,247 @@
+/*
+Copyright (c) 2026 agent
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.healthmarketscience.sqlbuilder.dbspec.basic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.healthmarketscience.sqlbuilder.CreateTableQuery;
+import junit.framework.TestCase;
+
+/**
+ * @author agent
+ */
+public class LazyDbSchemaTest extends TestCase
+{
+
+  public LazyDbSchemaTest(String name) {
+    super(name);
+  }
+
+  public void testLazyTables() throws Exception
+  {
+    TestSource source = new TestSource();
+    DbSpec spec = new DbSpec();
+    LazyDbSchema schema = spec.addSchema(
+        new LazyDbSchema(spec, "schema1", source));
+    assertTrue(schema.getLoadedTables().isEmpty());
+
+    // loads the (cyclically) referenced table as well
+    DbTable table1 = schema.findTable("table1");
+    assertSame(table1, schema.findTable("table1"));
+    assertEquals(Arrays.asList("table1", "table2"), source._loaded);
+    assertEquals(2, schema.getLoadedTables().size());
+    assertEquals("CREATE TABLE schema1.table1 (id INTEGER,table2_id INTEGER,CONSTRAINT table2_fk FOREIGN KEY (table2_id) REFERENCES schema1.table2 (id))",
+                 new CreateTableQuery(table1, true).validate().toString());
+    DbTable table2 = spec.findSchema("schema1").findTable("table2");
+    assertSame(table1, ((DbForeignKeyConstraint)table2.getConstraints()
+                        .get(0)).getReferencedTable());
+
+    // unlisted tables are never requested
+    assertNull(schema.findTable("missing"));
+    assertNull(schema.findTable("missing"));
+    assertEquals(Arrays.asList("table1", "table2"), source._loaded);
+
+    assertSame(schema.findTable("table3"), schema.findTable("TABLE3", true));
+    assertNull(schema.findTable("TABLE3"));
+
+    schema.addIndex("col_idx", "table4", "col");
+    assertEquals("table4", schema.findIndex("col_idx").getTable().getName());
+
+    DbTable extra = schema.addTable("extra");
+    List<DbTable> tables = schema.getTables();
+    assertEquals(6, tables.size());
+    List<String> names = new ArrayList<String>();
+    for(DbTable table : tables) {
+      names.add(table.getName());
+    }
+    assertEquals(Arrays.asList("table1", "table2", "table3", "table4",
+                               "table5", "extra"), names);
+    assertSame(extra, tables.get(5));
+    assertEquals(6, schema.getLoadedTables().size());
+    assertEquals(Arrays.asList("table1", "table2", "table3", "table4",
+                               "table5"),
+                 source._loaded);
+  }
+
+  public void testFailedLoad() throws Exception
+  {
+    TestSource source = new TestSource() {
+      @Override
+      public List<String> getTableNames(DbSchema schema) {
+        return Arrays.asList("table3", "gone");
+      }
+      @Override
+      public boolean loadTable(DbTable table) {
+        return (super.loadTable(table) && !"gone".equals(table.getName()));
+      }
+    };
+    DbSpec spec = new DbSpec();
+    LazyDbSchema schema = spec.addSchema(
+        new LazyDbSchema(spec, "schema1", source));
+
+    // listed tables which fail to load are only requested once and do not
+    // use up aliases
+    assertNull(schema.findTable("gone"));
+    assertNull(schema.findTable("gone"));
+    assertNull(schema.findTable("GONE", true));
+    assertEquals("t0", schema.findTable("table3").getAlias());
+    assertEquals(Arrays.asList("gone", "table3"), source._loaded);
+    assertEquals("t1", spec.getNextAlias());
+  }
+
+  public void testConcurrentLoad() throws Exception
+  {
+    TestSource source = new TestSource();
+    DbSpec spec = new DbSpec();
+    final LazyDbSchema schema = spec.addSchema(
+        new LazyDbSchema(spec, "schema1", source));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<DbTable>> futures = new ArrayList<Future<DbTable>>();
+      for(int i = 0; i < 20; ++i) {
+        final String name = "table" + ((i % 5) + 1);
+        futures.add(executor.submit(new Callable<DbTable>() {
+          @Override
+          public DbTable call() {
+            return schema.findTable(name);
+          }
+        }));
+      }
+      for(int i = 0; i < futures.size(); ++i) {
+        DbTable table = futures.get(i).get();
+        assertSame(schema.findTable("table" + ((i % 5) + 1)), table);
+        assertFalse(table.getColumns().isEmpty());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(5, source._loaded.size());
+    assertEquals(5, schema.getLoadedTables().size());
+  }
+
+  public void testCaseInsensitiveNames() throws Exception
+  {
+    DbSpec spec = new DbSpec();
+    LazyDbSchema schema = spec.addSchema(
+        new LazyDbSchema(spec, "schema1", new TestSource() {
+          @Override
+          public List<String> getTableNames(DbSchema schema) {
+            return Arrays.asList("Stra\u00dfe", "STRASSE", "strasse");
+          }
+        }));
+
+    assertEquals("Stra\u00dfe",
+                 schema.findTable("STRA\u00dfE", true).getName());
+    assertEquals("STRASSE", schema.findTable("Strasse", true).getName());
+    assertNull(schema.findTable("Stra\u00dfen", true));
+  }
+
+  public void testCrossSchemaLoad() throws Exception
+  {
+    final DbSpec spec = new DbSpec();
+    DbTableSource source = new DbTableSource() {
+      @Override
+      public List<String> getTableNames(DbSchema schema) {
+        return Arrays.asList("table1");
+      }
+      @Override
+      public boolean loadTable(DbTable table) {
+        String otherSchema =
+          ("schema1".equals(table.getParent().getName()) ?
+           "schema2" : "schema1");
+        table.addColumn("id", "INTEGER", null);
+        // give the other thread a chance to start loading its table
+        Thread.yield();
+        DbTable refTable = spec.findSchema(otherSchema).findTable("table1");
+        table.foreignKey("other_fk", table.findColumns("id"), refTable,
+                         refTable.findColumns("id"));
+        return true;
+      }
+    };
+    final LazyDbSchema schema1 = spec.addSchema(
+        new LazyDbSchema(spec, "schema1", source));
+    final LazyDbSchema schema2 = spec.addSchema(
+        new LazyDbSchema(spec, "schema2", source));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for(int i = 0; i < 20; ++i) {
+        final LazyDbSchema schema = ((i % 2) == 0) ? schema1 : schema2;
+        Future<DbTable> future = executor.submit(new Callable<DbTable>() {
+          @Override
+          public DbTable call() {
+            return schema.findTable("table1");
+          }
+        });
+        assertSame(schema.findTable("table1"),
+                   future.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    DbTable table1 = schema1.findTable("table1");
+    DbTable table2 = schema2.findTable("table1");
+    assertSame(table2, ((DbForeignKeyConstraint)table1.getConstraints()
+                        .get(0)).getReferencedTable());
+    assertSame(table1, ((DbForeignKeyConstraint)table2.getConstraints()
+                        .get(0)).getReferencedTable());
+  }
+
+  private static class TestSource implements DbTableSource
+  {
+    private final List<String> _loaded = new ArrayList<String>();
+
+    @Override
+    public List<String> getTableNames(DbSchema schema) {
+      return Arrays.asList("table1", "table2", "table3", "table4", "table5");
+    }
+
+    @Override
+    public boolean loadTable(DbTable table) {
+      String name = table.getName();
+      synchronized(_loaded) {
+        _loaded.add(name);
+      }
+      if(!getTableNames(table.getParent()).contains(name)) {
+        return false;
+      }
+      table.addColumn("id", "INTEGER", null);
+      if("table1".equals(name)) {
+        table.addColumn("table2_id", "INTEGER", null);
+        table.foreignKey("table2_fk", new String[]{"table2_id"}, "table2",
+                         new String[]{"id"});
+      } else if("table2".equals(name)) {
+        table.addColumn("table1_id", "INTEGER", null);
+        table.foreignKey("table1_fk", new String[]{"table1_id"}, "table1",
+                         new String[]{"id"});
+      } else {
+        table.addColumn("col", "VARCHAR", 50);
+      }
+      return true;
+    }
+  }
+}